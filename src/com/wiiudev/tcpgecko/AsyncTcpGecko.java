@@ -0,0 +1,549 @@
+package com.wiiudev.tcpgecko;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * An asynchronous front for a {@link com.wiiudev.tcpgecko.TcpGecko TcpGecko}<br>
+ * A single I/O thread owns the connection, every method only queues a request and returns a {@link java.util.concurrent.CompletableFuture future}<br>
+ * <br>
+ * Requests that pile up while the I/O thread is busy are sent together as one {@link com.wiiudev.tcpgecko.Transaction transaction},
+ * so callers like a GUI never block and a burst of requests costs about one round-trip<br>
+ * <br>
+ * If a request fails with anything but an IllegalArgumentException, replies can still be waiting on the connection.
+ * The connection is closed then, and every request that is pending or comes later fails<br>
+ * This class is thread safe
+ * 
+ * @author gudenau
+ * */
+public class AsyncTcpGecko implements Closeable {
+	/**
+	 * The most requests that get coalesced into one transaction
+	 * */
+	private static final int MAX_BATCH = 256;
+	
+	private final TcpGecko gecko;
+	private final BlockingQueue<Request<?>> queue = new LinkedBlockingQueue<Request<?>>();
+	private final Thread thread;
+	private final Request<Void> stop = new Request<Void>(null, null);
+	private final Object closeLock = new Object();
+	private volatile boolean closed;
+	
+	/**
+	 * Connects to the provided host with the default port
+	 * 
+	 * @param host Hostname to use, most likely an IP
+	 * 
+	 * @throws IOException If there was an error opening the connection
+	 * */
+	public AsyncTcpGecko(String host) throws IOException {
+		this(new TcpGecko(host));
+	}
+	
+	/**
+	 * Takes over an existing connection, it must not be used by anything else after this
+	 * 
+	 * @param gecko The connection to use
+	 * */
+	public AsyncTcpGecko(TcpGecko gecko) {
+		this.gecko = gecko;
+		
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				loop();
+			}
+		}, "TCPGecko I/O");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/**
+	 * Peeks a byte from the Wii U
+	 * 
+	 * @param address The address to peek
+	 * 
+	 * @return A future that completes with the peeked byte
+	 * */
+	public CompletableFuture<Byte> peekByte(final long address) {
+		return enqueue(new Batched<Byte>() {
+			@Override
+			public Transaction.Reply<Byte> queue(Transaction transaction) {
+				return transaction.peekByte(address);
+			}
+		});
+	}
+	
+	/**
+	 * Peeks a short from the Wii U
+	 * 
+	 * @param address The address to peek
+	 * 
+	 * @return A future that completes with the peeked short
+	 * */
+	public CompletableFuture<Short> peekShort(final long address) {
+		return enqueue(new Batched<Short>() {
+			@Override
+			public Transaction.Reply<Short> queue(Transaction transaction) {
+				return transaction.peekShort(address);
+			}
+		});
+	}
+	
+	/**
+	 * Peeks an integer from the Wii U
+	 * 
+	 * @param address The address to peek
+	 * 
+	 * @return A future that completes with the peeked integer
+	 * */
+	public CompletableFuture<Integer> peekInteger(final long address) {
+		return enqueue(new Batched<Integer>() {
+			@Override
+			public Transaction.Reply<Integer> queue(Transaction transaction) {
+				return transaction.peekInteger(address);
+			}
+		});
+	}
+	
+	/**
+	 * Peeks a long from the Wii U
+	 * 
+	 * @param address The address to peek
+	 * 
+	 * @return A future that completes with the peeked long
+	 * */
+	public CompletableFuture<Long> peekLong(final long address) {
+		return enqueue(new Batched<Long>() {
+			@Override
+			public Transaction.Reply<Long> queue(Transaction transaction) {
+				return transaction.peekLong(address);
+			}
+		});
+	}
+	
+	/**
+	 * Peeks a float from the Wii U
+	 * 
+	 * @param address The address to peek
+	 * 
+	 * @return A future that completes with the peeked float
+	 * */
+	public CompletableFuture<Float> peekFloat(final long address) {
+		return enqueue(new Batched<Float>() {
+			@Override
+			public Transaction.Reply<Float> queue(Transaction transaction) {
+				return transaction.peekFloat(address);
+			}
+		});
+	}
+	
+	/**
+	 * Reads memory from the Wii U
+	 * 
+	 * @param address Address to read from
+	 * @param length Length of the data to read
+	 * 
+	 * @return A future that completes with the read data
+	 * */
+	public CompletableFuture<byte[]> readMemory(final long address, final int length) {
+		return enqueue(new Batched<byte[]>() {
+			@Override
+			public Transaction.Reply<byte[]> queue(Transaction transaction) {
+				return transaction.readMemory(address, length);
+			}
+		});
+	}
+	
+	/**
+	 * Pokes an address in memory with a byte
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return A future that completes once the poke was sent
+	 * */
+	public CompletableFuture<Void> pokeMemory(final long address, final byte value) {
+		return enqueue(new Batched<Void>() {
+			@Override
+			public Transaction.Reply<Void> queue(Transaction transaction) {
+				transaction.pokeMemory(address, value);
+				return null;
+			}
+		});
+	}
+	
+	/**
+	 * Pokes an address in memory with a short
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return A future that completes once the poke was sent
+	 * */
+	public CompletableFuture<Void> pokeMemory(final long address, final short value) {
+		return enqueue(new Batched<Void>() {
+			@Override
+			public Transaction.Reply<Void> queue(Transaction transaction) {
+				transaction.pokeMemory(address, value);
+				return null;
+			}
+		});
+	}
+	
+	/**
+	 * Pokes an address in memory with an integer
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return A future that completes once the poke was sent
+	 * */
+	public CompletableFuture<Void> pokeMemory(final long address, final int value) {
+		return enqueue(new Batched<Void>() {
+			@Override
+			public Transaction.Reply<Void> queue(Transaction transaction) {
+				transaction.pokeMemory(address, value);
+				return null;
+			}
+		});
+	}
+	
+	/**
+	 * Pokes an address in memory with a long
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return A future that completes once the poke was sent
+	 * */
+	public CompletableFuture<Void> pokeMemory(final long address, final long value) {
+		return enqueue(new Batched<Void>() {
+			@Override
+			public Transaction.Reply<Void> queue(Transaction transaction) {
+				transaction.pokeMemory(address, value);
+				return null;
+			}
+		});
+	}
+	
+	/**
+	 * Pokes an address in memory with a float
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return A future that completes once the poke was sent
+	 * */
+	public CompletableFuture<Void> pokeMemory(long address, float value) {
+		return pokeMemory(address, Float.floatToRawIntBits(value));
+	}
+	
+	/**
+	 * Pokes an address in memory with a double
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return A future that completes once the poke was sent
+	 * */
+	public CompletableFuture<Void> pokeMemory(long address, double value) {
+		return pokeMemory(address, Double.doubleToRawLongBits(value));
+	}
+	
+	/**
+	 * Writes data into memory<br>
+	 * The data is copied, so the array can be reused right away
+	 * 
+	 * @param address Address to write to
+	 * @param data The data to be written
+	 * @param offset Offset into the data to start
+	 * @param length Amount of data to write
+	 * 
+	 * @return A future that completes once the Wii U acknowledged the write
+	 * */
+	public CompletableFuture<Void> writeMemory(final long address, byte[] data, int offset, int length) {
+		final byte[] copy = new byte[length];
+		System.arraycopy(data, offset, copy, 0, length);
+		
+		return enqueue(new Batched<Void>() {
+			@Override
+			public Transaction.Reply<Void> queue(Transaction transaction) {
+				transaction.writeMemory(address, copy);
+				return null;
+			}
+		});
+	}
+	
+	/**
+	 * Calls a method on the Wii U
+	 * 
+	 * @param symbol The symbol that defines the method
+	 * @param params The parameters for the method
+	 * 
+	 * @return A future that completes with the returned value
+	 * */
+	public CompletableFuture<Long> callRemoteMethod(final ExportedSymbol symbol, final int ... params) {
+		return enqueue(new Batched<Long>() {
+			@Override
+			public Transaction.Reply<Long> queue(Transaction transaction) {
+				return transaction.callRemoteMethod(symbol, params);
+			}
+		});
+	}
+	
+	/**
+	 * Runs a task on the I/O thread with exclusive access to the connection<br>
+	 * Use this for everything that is not covered by the other methods
+	 * 
+	 * @param task The task to run
+	 * 
+	 * @return A future that completes with the result of the task
+	 * */
+	public <T> CompletableFuture<T> submit(IGeckoTask<T> task) {
+		Request<T> request = new Request<T>(null, task);
+		return enqueue(request);
+	}
+	
+	private <T> CompletableFuture<T> enqueue(Batched<T> batched) {
+		return enqueue(new Request<T>(batched, null));
+	}
+	
+	private <T> CompletableFuture<T> enqueue(Request<T> request) {
+		// Checked and added together, so nothing can end up behind the stop request
+		synchronized(closeLock){
+			if(closed){
+				request.future.completeExceptionally(new IOException("The connection is closed!"));
+				return request.future;
+			}
+			
+			queue.add(request);
+		}
+		return request.future;
+	}
+	
+	/**
+	 * The I/O thread
+	 * */
+	private void loop() {
+		List<Request<?>> batch = new ArrayList<Request<?>>();
+		List<Request<?>> rest = new ArrayList<Request<?>>();
+		boolean running = true;
+		Throwable broken = null;
+		
+		while(running){
+			try{
+				batch.add(queue.take());
+			}catch(InterruptedException e){
+				break;
+			}
+			queue.drainTo(batch, MAX_BATCH - 1);
+			
+			int end = batch.indexOf(stop);
+			if(end >= 0){
+				running = false;
+				rest.addAll(batch.subList(end + 1, batch.size()));
+			}
+			
+			broken = process(end >= 0 ? batch.subList(0, end) : batch);
+			batch.clear();
+			
+			// The stream is out of sync, nothing can be sent on it anymore
+			if(broken != null){
+				break;
+			}
+		}
+		
+		try{
+			gecko.close();
+		}catch(IOException ignored){}
+		
+		// Also stops new requests if the thread was interrupted instead of closed
+		synchronized(closeLock){
+			closed = true;
+		}
+		
+		// Anything that is still waiting will never be sent
+		IOException closedException = broken == null ? new IOException("The connection is closed!") :
+				new IOException("The connection was closed after an error!", broken);
+		for(Request<?> request : rest){
+			request.future.completeExceptionally(closedException);
+		}
+		
+		Request<?> request;
+		while((request = queue.poll()) != null){
+			request.future.completeExceptionally(closedException);
+		}
+	}
+	
+	/**
+	 * Sends a batch of requests
+	 * 
+	 * @return The error that left the connection out of sync, or null if it can still be used
+	 * */
+	private Throwable process(List<Request<?>> batch) {
+		Transaction transaction = gecko.pipeline();
+		List<Request<?>> queued = new ArrayList<Request<?>>();
+		Throwable broken = null;
+		
+		for(Request<?> request : batch){
+			if(request.task != null){
+				// Tasks need the connection for themselves, send what we have first
+				broken = execute(transaction, queued);
+				transaction = gecko.pipeline();
+				queued.clear();
+				
+				if(broken == null){
+					broken = request.run(gecko);
+				}
+				if(broken != null){
+					break;
+				}
+				continue;
+			}
+			
+			try{
+				request.queue(transaction);
+				queued.add(request);
+			}catch(RuntimeException e){
+				// Bad parameters only fail this request
+				request.future.completeExceptionally(e);
+			}
+		}
+		
+		if(broken == null){
+			broken = execute(transaction, queued);
+		}
+		
+		if(broken != null){
+			// Requests that already completed are left alone
+			IOException exception = new IOException("The connection was closed after an error!", broken);
+			for(Request<?> request : batch){
+				request.future.completeExceptionally(exception);
+			}
+		}
+		return broken;
+	}
+	
+	/**
+	 * Sends a transaction and completes the requests in it
+	 * 
+	 * @return The error that left the connection out of sync, or null if it can still be used
+	 * */
+	private Throwable execute(Transaction transaction, List<Request<?>> queued) {
+		if(queued.isEmpty()){
+			return null;
+		}
+		
+		try{
+			transaction.execute();
+		}catch(Throwable e){
+			for(Request<?> request : queued){
+				request.future.completeExceptionally(e);
+			}
+			return isBroken(e) ? e : null;
+		}
+		
+		for(Request<?> request : queued){
+			request.complete();
+		}
+		return null;
+	}
+	
+	/**
+	 * Parameters are validated before anything is sent, every other error can leave replies on the connection
+	 * */
+	private static boolean isBroken(Throwable e) {
+		return !(e instanceof IllegalArgumentException);
+	}
+	
+	/**
+	 * Sends everything that is still queued, then closes the connection
+	 * 
+	 * @throws IOException If the I/O thread was interrupted
+	 * */
+	@Override
+	public void close() throws IOException {
+		synchronized(closeLock){
+			if(closed){
+				return;
+			}
+			closed = true;
+			
+			queue.add(stop);
+		}
+		
+		// Don't wait on ourselves
+		if(Thread.currentThread() == thread){
+			return;
+		}
+		
+		try{
+			thread.join();
+		}catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while closing!", e);
+		}
+	}
+	
+	/**
+	 * Checks if this was closed
+	 * 
+	 * @return True if no more requests are accepted
+	 * */
+	public boolean isClosed() {
+		return closed;
+	}
+	
+	/**
+	 * Something that can be added to a transaction
+	 * */
+	private interface Batched<T> {
+		/**
+		 * Adds the command to the transaction
+		 * 
+		 * @return The reply of the command, or null if it has none
+		 * */
+		Transaction.Reply<T> queue(Transaction transaction);
+	}
+	
+	private static class Request<T> {
+		final CompletableFuture<T> future = new CompletableFuture<T>();
+		final Batched<T> batched;
+		final IGeckoTask<T> task;
+		private Transaction.Reply<T> reply;
+		
+		Request(Batched<T> batched, IGeckoTask<T> task) {
+			this.batched = batched;
+			this.task = task;
+		}
+		
+		void queue(Transaction transaction) {
+			reply = batched.queue(transaction);
+		}
+		
+		void complete() {
+			future.complete(reply == null ? null : reply.get());
+		}
+		
+		/**
+		 * Runs the task
+		 * 
+		 * @return The error that left the connection out of sync, or null if it can still be used
+		 * */
+		Throwable run(TcpGecko gecko) {
+			try{
+				future.complete(task.run(gecko));
+				return null;
+			}catch(Throwable e){
+				future.completeExceptionally(e);
+				return isBroken(e) ? e : null;
+			}
+		}
+	}
+}
@@ -0,0 +1,453 @@
+package com.wiiudev.tcpgecko;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.wiiudev.tcpgecko.enumeration.MemoryAccess;
+import com.wiiudev.tcpgecko.enumeration.ScanType;
+import com.wiiudev.tcpgecko.io.BigEndian;
+
+/**
+ * Keeps values in the memory of the Wii U frozen, like a coin counter that should never go down<br>
+ * Every period all of the frozen values are written again as a single {@link com.wiiudev.tcpgecko.WriteBatch write batch},
+ * so values that are next to each other become one command and everything is sent in one round trip<br>
+ * <br>
+ * With compare first enabled the values are read before they are written and only the ones the game changed are written again.
+ * That costs a round trip, but leaves the memory alone most of the time<br>
+ * <br>
+ * The writes go through an {@link com.wiiudev.tcpgecko.AsyncTcpGecko AsyncTcpGecko}, so they share the connection with everything else.
+ * How late every tick was and how many ticks took longer than the period is tracked, a busy connection shows up there<br>
+ * This class is thread safe
+ * 
+ * @author gudenau
+ * */
+public class FreezeManager implements Closeable {
+	/**
+	 * How many periods a tick waits for the connection before it gives up, but never less than a second
+	 * */
+	private static final int TIMEOUT_PERIODS = 10;
+	
+	private final AsyncTcpGecko gecko;
+	private final long period;
+	private final ScheduledExecutorService executor;
+	private final Map<Long, Entry> entries = new LinkedHashMap<Long, Entry>();
+	private volatile boolean compareFirst;
+	
+	private long start;
+	private long ticks;
+	
+	private volatile long runs;
+	private volatile long skipped;
+	private volatile long overruns;
+	private volatile long failures;
+	private volatile long rewrites;
+	private volatile long invalidWrites;
+	private volatile long totalJitter;
+	private volatile long maxJitter;
+	private volatile Throwable lastError;
+	
+	/**
+	 * Creates a freeze manager and starts the rewrite loop
+	 * 
+	 * @param gecko The connection to write with
+	 * @param period Time between two rewrites in milliseconds
+	 * */
+	public FreezeManager(AsyncTcpGecko gecko, long period) {
+		if(period <= 0){
+			throw new IllegalArgumentException("Period must be greater than 0!");
+		}
+		
+		this.gecko = gecko;
+		this.period = period * 1000000L;
+		
+		executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "TCPGecko Freeze");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		
+		start = System.nanoTime();
+		executor.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				tick();
+			}
+		}, 0, this.period, TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Freezes a byte
+	 * 
+	 * @param address Address of the value
+	 * @param value The value to keep
+	 * */
+	public void freeze(long address, byte value) {
+		put(address, ScanType.BYTE, new byte[]{value});
+	}
+	
+	/**
+	 * Freezes a short
+	 * 
+	 * @param address Address of the value
+	 * @param value The value to keep
+	 * */
+	public void freeze(long address, short value) {
+		byte[] data = new byte[2];
+		BigEndian.putShort(data, 0, value);
+		put(address, ScanType.SHORT, data);
+	}
+	
+	/**
+	 * Freezes an integer
+	 * 
+	 * @param address Address of the value
+	 * @param value The value to keep
+	 * */
+	public void freeze(long address, int value) {
+		byte[] data = new byte[4];
+		BigEndian.putInteger(data, 0, value);
+		put(address, ScanType.INTEGER, data);
+	}
+	
+	/**
+	 * Freezes a float
+	 * 
+	 * @param address Address of the value
+	 * @param value The value to keep
+	 * */
+	public void freeze(long address, float value) {
+		byte[] data = new byte[4];
+		BigEndian.putInteger(data, 0, Float.floatToRawIntBits(value));
+		put(address, ScanType.FLOAT, data);
+	}
+	
+	/**
+	 * Stops keeping a value frozen
+	 * 
+	 * @param address Address of the value
+	 * 
+	 * @return True if the value was frozen
+	 * */
+	public synchronized boolean unfreeze(long address) {
+		return entries.remove(address) != null;
+	}
+	
+	/**
+	 * Stops keeping every value frozen
+	 * */
+	public synchronized void unfreezeAll() {
+		entries.clear();
+	}
+	
+	/**
+	 * Checks if a value is frozen
+	 * 
+	 * @param address Address of the value
+	 * 
+	 * @return True if the value is frozen
+	 * */
+	public synchronized boolean isFrozen(long address) {
+		return entries.containsKey(address);
+	}
+	
+	/**
+	 * Gets the type of a frozen value
+	 * 
+	 * @param address Address of the value
+	 * 
+	 * @return The type, or null if the value is not frozen
+	 * */
+	public synchronized ScanType getType(long address) {
+		Entry entry = entries.get(address);
+		return entry == null ? null : entry.type;
+	}
+	
+	/**
+	 * Gets the amount of frozen values
+	 * 
+	 * @return The amount of values
+	 * */
+	public synchronized int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * Sets if the values are read first, so only the values the game changed are written again
+	 * 
+	 * @param compareFirst True to compare before writing
+	 * */
+	public void setCompareFirst(boolean compareFirst) {
+		this.compareFirst = compareFirst;
+	}
+	
+	/**
+	 * Checks if the values are read before they are written
+	 * 
+	 * @return True if the values are compared first
+	 * */
+	public boolean isCompareFirst() {
+		return compareFirst;
+	}
+	
+	/**
+	 * Gets the amount of ticks that rewrote the values
+	 * 
+	 * @return The amount of ticks
+	 * */
+	public long getRunCount() {
+		return runs;
+	}
+	
+	/**
+	 * Gets the amount of ticks that were dropped, because the tick before was still running when they were due
+	 * 
+	 * @return The amount of dropped ticks
+	 * */
+	public long getSkippedCount() {
+		return skipped;
+	}
+	
+	/**
+	 * Gets the amount of ticks that took longer than the period
+	 * 
+	 * @return The amount of overruns
+	 * */
+	public long getOverrunCount() {
+		return overruns;
+	}
+	
+	/**
+	 * Gets the amount of ticks that failed, see {@link #getLastError()}
+	 * 
+	 * @return The amount of failures
+	 * */
+	public long getFailureCount() {
+		return failures;
+	}
+	
+	/**
+	 * Gets the amount of values that were written, with compare first this is the amount of values the game changed
+	 * 
+	 * @return The amount of written values
+	 * */
+	public long getRewriteCount() {
+		return rewrites;
+	}
+	
+	/**
+	 * Gets the amount of values that were not written because their address is not writable in the memory map of the connection<br>
+	 * Counted once per value every tick, the values stay frozen in case the memory map changes
+	 * 
+	 * @return The amount of skipped values
+	 * */
+	public long getInvalidWriteCount() {
+		return invalidWrites;
+	}
+	
+	/**
+	 * Gets how late a tick started on average, compared to when it was due
+	 * 
+	 * @return The average jitter in nanoseconds
+	 * */
+	public long getAverageJitter() {
+		long runs = this.runs;
+		return runs == 0 ? 0 : totalJitter / runs;
+	}
+	
+	/**
+	 * Gets how late the worst tick started, compared to when it was due
+	 * 
+	 * @return The maximum jitter in nanoseconds
+	 * */
+	public long getMaxJitter() {
+		return maxJitter;
+	}
+	
+	/**
+	 * Gets the error of the last tick that failed, the loop keeps running after an error
+	 * 
+	 * @return The error, or null if nothing failed
+	 * */
+	public Throwable getLastError() {
+		return lastError;
+	}
+	
+	/**
+	 * Stops the rewrite loop, the connection is not closed<br>
+	 * A tick that is running is given a minute to finish, after that it is interrupted and stops waiting for the connection
+	 * 
+	 * @throws IOException If interrupted while waiting for the running tick, or if the tick did not finish in time
+	 * */
+	@Override
+	public void close() throws IOException {
+		executor.shutdown();
+		try{
+			if(!executor.awaitTermination(1, TimeUnit.MINUTES)){
+				executor.shutdownNow();
+				throw new IOException("Timed out while closing!");
+			}
+		}catch(InterruptedException e){
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while closing!", e);
+		}
+	}
+	
+	private synchronized void put(long address, ScanType type, byte[] data) {
+		if(address < 0){
+			throw new IllegalArgumentException("Address must be positive!");
+		}
+		if(address % type.size != 0){
+			throw new IllegalArgumentException("Address is not aligned!");
+		}
+		
+		entries.put(address, new Entry(address, type, data));
+	}
+	
+	/**
+	 * A single run of the loop, only ever called by the executor thread
+	 * */
+	private void tick() {
+		long now = System.nanoTime();
+		long jitter = now - (start + ticks * period);
+		ticks++;
+		
+		// The executor runs late ticks back to back, one catch up write is enough
+		if(jitter >= period){
+			skipped++;
+			return;
+		}
+		
+		final Entry[] frozen;
+		synchronized(this){
+			frozen = entries.values().toArray(new Entry[entries.size()]);
+		}
+		if(frozen.length == 0){
+			return;
+		}
+		
+		runs++;
+		totalJitter += jitter;
+		if(jitter > maxJitter){
+			maxJitter = jitter;
+		}
+		
+		final boolean compare = compareFirst;
+		CompletableFuture<Integer> future = gecko.submit(new IGeckoTask<Integer>() {
+			@Override
+			public Integer run(TcpGecko gecko) throws IOException, WiiUException {
+				return rewrite(gecko, frozen, compare);
+			}
+		});
+		try{
+			rewrites += future.get(Math.max(period * TIMEOUT_PERIODS, TimeUnit.SECONDS.toNanos(1)), TimeUnit.NANOSECONDS);
+		}catch(InterruptedException e){
+			// The manager is closing, don't keep waiting on a stuck connection
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			return;
+		}catch(TimeoutException e){
+			future.cancel(true);
+			failures++;
+			lastError = e;
+		}catch(ExecutionException e){
+			failures++;
+			lastError = e.getCause();
+		}catch(RuntimeException e){
+			failures++;
+			lastError = e;
+		}
+		
+		if(System.nanoTime() - now > period){
+			overruns++;
+		}
+	}
+	
+	/**
+	 * Writes the values, runs on the I/O thread of the connection
+	 * 
+	 * @return The amount of values that were written
+	 * */
+	private int rewrite(TcpGecko gecko, Entry[] frozen, boolean compare) throws IOException, WiiUException {
+		List<Entry> drifted = new ArrayList<Entry>(frozen.length);
+		
+		// A value that can not be written should not stop the others, it is counted instead
+		List<Entry> valid = new ArrayList<Entry>(frozen.length);
+		for(Entry entry : frozen){
+			if(gecko.validateMemoryAccess(entry.address, entry.data.length, MemoryAccess.WRITE)){
+				valid.add(entry);
+			}else{
+				invalidWrites++;
+			}
+		}
+		frozen = valid.toArray(new Entry[valid.size()]);
+		
+		if(compare){
+			byte[] current = new byte[frozen.length * 4];
+			Transaction transaction = gecko.pipeline();
+			for(int i = 0; i < frozen.length; i++){
+				transaction.readMemory(frozen[i].address, current, i * 4, frozen[i].data.length);
+			}
+			transaction.execute();
+			
+			for(int i = 0; i < frozen.length; i++){
+				if(!frozen[i].matches(current, i * 4)){
+					drifted.add(frozen[i]);
+				}
+			}
+		}else{
+			for(Entry entry : frozen){
+				drifted.add(entry);
+			}
+		}
+		
+		if(drifted.isEmpty()){
+			return 0;
+		}
+		
+		try(WriteBatch batch = gecko.batch()){
+			for(Entry entry : drifted){
+				batch.writeMemory(entry.address, entry.data, 0, entry.data.length);
+			}
+		}
+		return drifted.size();
+	}
+	
+	/**
+	 * A frozen value, the data is already big endian
+	 * */
+	private static class Entry {
+		private final long address;
+		private final ScanType type;
+		private final byte[] data;
+		
+		Entry(long address, ScanType type, byte[] data) {
+			this.address = address;
+			this.type = type;
+			this.data = data;
+		}
+		
+		boolean matches(byte[] current, int offset) {
+			for(int i = 0; i < data.length; i++){
+				if(current[offset + i] != data[i]){
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package com.wiiudev.tcpgecko;
+
+import java.io.IOException;
+
+/**
+ * A piece of work that needs a connection to the Wii U, used to borrow a {@link com.wiiudev.tcpgecko.TcpGecko TcpGecko} from a pool
+ * 
+ * @author gudenau
+ * */
+public interface IGeckoTask<T> {
+	/**
+	 * Runs the task, the connection must not be used after this returns
+	 * 
+	 * @param gecko The connection to use
+	 * 
+	 * @return The result of the task
+	 * 
+	 * @throws IOException If there was an error talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * */
+	public T run(TcpGecko gecko) throws IOException, WiiUException;
+}
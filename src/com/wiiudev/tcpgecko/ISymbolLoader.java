@@ -0,0 +1,24 @@
+package com.wiiudev.tcpgecko;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Gets symbol addresses that are not in a {@link com.wiiudev.tcpgecko.SymbolCache SymbolCache} yet
+ * 
+ * @author gudenau
+ * */
+public interface ISymbolLoader {
+	/**
+	 * Gets the addresses of symbols, pointers already dereferenced
+	 * 
+	 * @param requests The symbols to get
+	 * 
+	 * @return The addresses, mapped by their requests, 0 if the Wii U did not know the symbol
+	 * 
+	 * @throws IOException If there was an error taking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * */
+	public Map<SymbolRequest, Integer> load(Collection<SymbolRequest> requests) throws IOException, WiiUException;
+}
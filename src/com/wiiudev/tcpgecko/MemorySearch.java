@@ -0,0 +1,267 @@
+package com.wiiudev.tcpgecko;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import com.wiiudev.tcpgecko.enumeration.Commands;
+import com.wiiudev.tcpgecko.enumeration.MemoryAccess;
+
+/**
+ * Finds every match of one or more integers in a range of memory, the Wii U does the scanning so only the hits are sent back<br>
+ * The range is split into slices and every slice gets its own MEMORY_SEARCH_32 per value, a batch of those is sent at once.
+ * After a hit the search is sent again from just past it<br>
+ * <br>
+ * Hits come out sorted by address, a hit is only handed out once no slice that is still searching can find anything before it<br>
+ * The Wii U replies with 0 when there is no match, address 0 is never valid so that can't be confused with a hit
+ * 
+ * @author gudenau
+ * */
+public class MemorySearch implements Iterator<MemorySearch.Hit> {
+	/**
+	 * The default size of a slice
+	 * */
+	public static final int DEFAULT_SLICE_SIZE = 0x00100000;
+	
+	/**
+	 * The most searches that are sent before the replies are read
+	 * */
+	private static final int WINDOW = 64;
+	
+	private final TcpGecko gecko;
+	private final List<Cursor> cursors = new ArrayList<Cursor>();
+	private final PriorityQueue<Hit> hits = new PriorityQueue<Hit>();
+	
+	private long commands;
+	private long rounds;
+	
+	MemorySearch(TcpGecko gecko, long start, long end, int[] values, int sliceSize) {
+		if(start < 0){
+			throw new IllegalArgumentException("Address must be positive!");
+		}
+		if(end <= start || end - start > Integer.MAX_VALUE){
+			throw new IllegalArgumentException("Address range is not valid!");
+		}
+		if((start & 3) != 0 || (end & 3) != 0){
+			throw new IllegalArgumentException("Address range must be divisable by 4!");
+		}
+		if(sliceSize <= 0 || (sliceSize & 3) != 0){
+			throw new IllegalArgumentException("Slice size must be greater than 0 and divisable by 4!");
+		}
+		if(values.length == 0){
+			throw new IllegalArgumentException("Nothing to search for!");
+		}
+		gecko.getMemoryMap().validate(start, (int) (end - start), MemoryAccess.READ);
+		
+		this.gecko = gecko;
+		
+		// Lowest address first, so the hits can be handed out early
+		for(long slice = start; slice < end; slice += sliceSize){
+			long sliceEnd = Math.min(end, slice + sliceSize);
+			for(int value : values){
+				cursors.add(new Cursor(value, slice, sliceEnd));
+			}
+		}
+	}
+	
+	/**
+	 * Gets the next hit
+	 * 
+	 * @return The next hit, or null if there are no more
+	 * 
+	 * @throws IOException If there was an error talking to the Wii U
+	 * */
+	public Hit nextHit() throws IOException {
+		while(!isReady()){
+			search();
+		}
+		return hits.poll();
+	}
+	
+	/**
+	 * Gets every hit that is left
+	 * 
+	 * @return The hits, sorted by address
+	 * 
+	 * @throws IOException If there was an error talking to the Wii U
+	 * */
+	public List<Hit> toList() throws IOException {
+		List<Hit> list = new ArrayList<Hit>();
+		Hit hit;
+		while((hit = nextHit()) != null){
+			list.add(hit);
+		}
+		return list;
+	}
+	
+	/**
+	 * {@inheritDoc}<br>
+	 * An {@link java.io.IOException IOException} is thrown as an {@link java.io.UncheckedIOException UncheckedIOException}
+	 * */
+	@Override
+	public boolean hasNext() {
+		try{
+			while(!isReady()){
+				search();
+			}
+		}catch(IOException e){
+			throw new UncheckedIOException(e);
+		}
+		return !hits.isEmpty();
+	}
+	
+	/**
+	 * {@inheritDoc}<br>
+	 * An {@link java.io.IOException IOException} is thrown as an {@link java.io.UncheckedIOException UncheckedIOException}
+	 * */
+	@Override
+	public Hit next() {
+		if(!hasNext()){
+			throw new NoSuchElementException();
+		}
+		return hits.poll();
+	}
+	
+	/**
+	 * Gets the amount of search commands sent so far
+	 * 
+	 * @return The amount of commands
+	 * */
+	public long getCommandCount() {
+		return commands;
+	}
+	
+	/**
+	 * Gets the amount of round-trips so far
+	 * 
+	 * @return The amount of round-trips
+	 * */
+	public long getRoundCount() {
+		return rounds;
+	}
+	
+	/**
+	 * Checks if the first pending hit can be handed out, or if the search is done
+	 * */
+	private boolean isReady() {
+		if(cursors.isEmpty()){
+			return true;
+		}
+		if(hits.isEmpty()){
+			return false;
+		}
+		
+		long lowest = Long.MAX_VALUE;
+		for(Cursor cursor : cursors){
+			lowest = Math.min(lowest, cursor.address);
+		}
+		return hits.peek().address < lowest;
+	}
+	
+	/**
+	 * Sends a window of searches and reads the replies
+	 * */
+	private void search() throws IOException {
+		int count = Math.min(WINDOW, cursors.size());
+		
+		for(int i = 0; i < count; i++){
+			Cursor cursor = cursors.get(i);
+			gecko.sendCommand(Commands.MEMORY_SEARCH_32);
+			gecko.writeInteger((int) cursor.address);
+			gecko.writeInteger(cursor.value);
+			gecko.writeInteger((int) (cursor.end - cursor.address));
+		}
+		gecko.flush();
+		
+		int done = 0;
+		for(int i = 0; i < count; i++){
+			Cursor cursor = cursors.get(i);
+			long address = gecko.readInteger() & 0x00000000FFFFFFFFL;
+			
+			if(address == 0){
+				cursor.address = cursor.end;
+				done++;
+				continue;
+			}
+			
+			hits.add(new Hit(address, cursor.value));
+			cursor.address = address + 4;
+			if(cursor.address >= cursor.end){
+				done++;
+			}
+		}
+		
+		commands += count;
+		rounds++;
+		
+		if(done != 0){
+			Iterator<Cursor> iterator = cursors.iterator();
+			while(iterator.hasNext()){
+				Cursor cursor = iterator.next();
+				if(cursor.address >= cursor.end){
+					iterator.remove();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Where a single value is being searched for in a single slice
+	 * */
+	private static class Cursor {
+		private final int value;
+		private long address;
+		private final long end;
+		
+		Cursor(int value, long address, long end) {
+			this.value = value;
+			this.address = address;
+			this.end = end;
+		}
+	}
+	
+	/**
+	 * A match found by the search
+	 * */
+	public static class Hit implements Comparable<Hit> {
+		private final long address;
+		private final int value;
+		
+		Hit(long address, int value) {
+			this.address = address;
+			this.value = value;
+		}
+		
+		/**
+		 * Gets the address of the match
+		 * 
+		 * @return The address
+		 * */
+		public long getAddress() {
+			return address;
+		}
+		
+		/**
+		 * Gets the value that matched, used when searching for more than one value
+		 * 
+		 * @return The value
+		 * */
+		public int getValue() {
+			return value;
+		}
+		
+		@Override
+		public int compareTo(Hit other) {
+			return Long.compare(address, other.address);
+		}
+		
+		@Override
+		public String toString() {
+			return String.format("0x%08X: 0x%08X", address, value);
+		}
+	}
+}
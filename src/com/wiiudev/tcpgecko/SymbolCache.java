@@ -0,0 +1,209 @@
+package com.wiiudev.tcpgecko;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread safe cache of symbol addresses, it can be shared between connections to the same Wii U<br>
+ * <br>
+ * Only one lookup is done per symbol, if a second thread asks for a symbol that is being looked up it waits for the first lookup<br>
+ * Symbols the Wii U does not know are cached as well, with an address of 0
+ * 
+ * @author gudenau
+ * */
+public class SymbolCache {
+	private final ConcurrentHashMap<SymbolRequest, CompletableFuture<Integer>> entries = new ConcurrentHashMap<SymbolRequest, CompletableFuture<Integer>>();
+	
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong negativeHits = new AtomicLong();
+	
+	/**
+	 * Gets the address of a symbol, loading it if it is not cached
+	 * 
+	 * @param request The symbol to get
+	 * @param loader Used to get the symbol if it is not cached
+	 * 
+	 * @return The address of the symbol, 0 if the Wii U did not know it
+	 * 
+	 * @throws IOException If there was an error taking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * */
+	public int get(SymbolRequest request, ISymbolLoader loader) throws IOException, WiiUException {
+		return getAll(Collections.singletonList(request), loader).get(request);
+	}
+	
+	/**
+	 * Gets the addresses of symbols, all of the symbols that are not cached are loaded with a single call to the loader
+	 * 
+	 * @param requests The symbols to get
+	 * @param loader Used to get the symbols that are not cached
+	 * 
+	 * @return The addresses, mapped by their requests, 0 if the Wii U did not know the symbol
+	 * 
+	 * @throws IOException If there was an error taking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * */
+	public Map<SymbolRequest, Integer> getAll(Collection<SymbolRequest> requests, ISymbolLoader loader) throws IOException, WiiUException {
+		Map<SymbolRequest, CompletableFuture<Integer>> found = new LinkedHashMap<SymbolRequest, CompletableFuture<Integer>>();
+		Map<SymbolRequest, CompletableFuture<Integer>> claimed = new LinkedHashMap<SymbolRequest, CompletableFuture<Integer>>();
+		
+		for(SymbolRequest request : requests){
+			if(found.containsKey(request) || claimed.containsKey(request)){
+				continue;
+			}
+			
+			CompletableFuture<Integer> future = entries.get(request);
+			if(future == null){
+				// Whoever gets their future in first does the lookup
+				CompletableFuture<Integer> created = new CompletableFuture<Integer>();
+				future = entries.putIfAbsent(request, created);
+				if(future == null){
+					claimed.put(request, created);
+					continue;
+				}
+			}
+			found.put(request, future);
+		}
+		
+		Map<SymbolRequest, Integer> addresses = new LinkedHashMap<SymbolRequest, Integer>();
+		
+		if(!claimed.isEmpty()){
+			misses.addAndGet(claimed.size());
+			
+			Map<SymbolRequest, Integer> loaded;
+			try{
+				loaded = loader.load(claimed.keySet());
+			}catch(IOException | WiiUException | RuntimeException | Error e){
+				// Let the next caller try again
+				for(Map.Entry<SymbolRequest, CompletableFuture<Integer>> entry : claimed.entrySet()){
+					entries.remove(entry.getKey(), entry.getValue());
+					entry.getValue().completeExceptionally(e);
+				}
+				throw e;
+			}
+			
+			for(Map.Entry<SymbolRequest, CompletableFuture<Integer>> entry : claimed.entrySet()){
+				Integer address = loaded.get(entry.getKey());
+				if(address == null){
+					address = 0;
+				}
+				
+				entry.getValue().complete(address);
+				addresses.put(entry.getKey(), address);
+			}
+		}
+		
+		for(Map.Entry<SymbolRequest, CompletableFuture<Integer>> entry : found.entrySet()){
+			int address = join(entry.getValue());
+			
+			hits.incrementAndGet();
+			if(address == 0){
+				negativeHits.incrementAndGet();
+			}
+			addresses.put(entry.getKey(), address);
+		}
+		
+		return addresses;
+	}
+	
+	private static int join(CompletableFuture<Integer> future) throws IOException, WiiUException {
+		try{
+			return future.get();
+		}catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a symbol!");
+		}catch(ExecutionException e){
+			Throwable cause = e.getCause();
+			if(cause instanceof WiiUException){
+				throw new WiiUException(cause.getMessage(), (WiiUException) cause);
+			}
+			throw new IOException("Symbol lookup failed on another connection!", cause);
+		}
+	}
+	
+	/**
+	 * Puts an address in the cache, replacing what was there
+	 * 
+	 * @param request The symbol
+	 * @param address The address of the symbol, pointers already dereferenced
+	 * */
+	public void put(SymbolRequest request, int address) {
+		entries.put(request, CompletableFuture.completedFuture(address));
+	}
+	
+	/**
+	 * Gets the address of a symbol without loading it
+	 * 
+	 * @param request The symbol
+	 * 
+	 * @return The address, or null if it is not cached or still being looked up
+	 * */
+	public Integer getIfPresent(SymbolRequest request) {
+		CompletableFuture<Integer> future = entries.get(request);
+		if(future == null || !future.isDone() || future.isCompletedExceptionally()){
+			return null;
+		}
+		return future.getNow(null);
+	}
+	
+	/**
+	 * Removes a symbol from the cache, useful if a symbol was cached as unknown before the RPL was loaded
+	 * 
+	 * @param request The symbol
+	 * */
+	public void invalidate(SymbolRequest request) {
+		entries.remove(request);
+	}
+	
+	/**
+	 * Removes all of the symbols from the cache
+	 * */
+	public void clear() {
+		entries.clear();
+	}
+	
+	/**
+	 * Gets the amount of cached symbols, including unknown ones
+	 * 
+	 * @return The amount of symbols
+	 * */
+	public int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * Gets the amount of lookups that were served by the cache
+	 * 
+	 * @return The amount of hits
+	 * */
+	public long getHits() {
+		return hits.get();
+	}
+	
+	/**
+	 * Gets the amount of lookups that had to ask the Wii U
+	 * 
+	 * @return The amount of misses
+	 * */
+	public long getMisses() {
+		return misses.get();
+	}
+	
+	/**
+	 * Gets the amount of hits for symbols the Wii U did not know
+	 * 
+	 * @return The amount of negative hits
+	 * */
+	public long getNegativeHits() {
+		return negativeHits.get();
+	}
+}
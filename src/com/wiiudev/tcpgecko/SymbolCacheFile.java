@@ -0,0 +1,262 @@
+package com.wiiudev.tcpgecko;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A file that remembers the addresses of symbols between connections<br>
+ * The addresses only hold for a single OS version, if the Wii U reports a different version the old entries are thrown away<br>
+ * <br>
+ * The raw addresses returned by GET_SYMBOL are stored, pointer symbols are dereferenced again every time the file is loaded
+ * 
+ * @author gudenau
+ * */
+public class SymbolCacheFile {
+	private static final String OS_VERSION_KEY = "osVersion";
+	
+	private final File file;
+	private final int osVersion;
+	private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+	private boolean invalidated;
+	private boolean dirty;
+	
+	/**
+	 * Opens a symbol cache file, the file does not have to exist
+	 * 
+	 * @param file The file to use
+	 * @param osVersion The OS version of the Wii U
+	 * 
+	 * @throws IOException If there was an error reading the file
+	 * */
+	public SymbolCacheFile(File file, int osVersion) throws IOException {
+		this.file = file;
+		this.osVersion = osVersion;
+		
+		if(file.isFile()){
+			load();
+		}
+	}
+	
+	private void load() throws IOException {
+		Properties properties = new Properties();
+		try(InputStream stream = new FileInputStream(file)){
+			properties.load(stream);
+		}catch(IllegalArgumentException e){
+			// A broken file is as good as no file
+			invalidated = true;
+			return;
+		}
+		
+		if(!Integer.toString(osVersion).equals(properties.getProperty(OS_VERSION_KEY))){
+			invalidated = true;
+			dirty = true;
+			return;
+		}
+		
+		for(String key : properties.stringPropertyNames()){
+			if(key.equals(OS_VERSION_KEY)){
+				continue;
+			}
+			
+			Entry entry = Entry.parse(key, properties.getProperty(key));
+			if(entry != null){
+				entries.put(key, entry);
+			}
+		}
+	}
+	
+	/**
+	 * Gets the raw address of a symbol
+	 * 
+	 * @param rplName The RPL the symbol refers to
+	 * @param symbolName The name of the symbol
+	 * @param isPointer Is the symbol a pointer?
+	 * @param isData Is the symbol data?
+	 * 
+	 * @return The address returned by GET_SYMBOL, or null if it is not cached
+	 * */
+	public Integer getAddress(String rplName, String symbolName, boolean isPointer, boolean isData) {
+		Entry entry = entries.get(Entry.getKey(rplName, symbolName, isPointer, isData));
+		return entry == null ? null : entry.address;
+	}
+	
+	/**
+	 * Stores the raw address of a symbol
+	 * 
+	 * @param rplName The RPL the symbol refers to
+	 * @param symbolName The name of the symbol
+	 * @param isPointer Is the symbol a pointer?
+	 * @param isData Is the symbol data?
+	 * @param address The address returned by GET_SYMBOL
+	 * */
+	public void putAddress(String rplName, String symbolName, boolean isPointer, boolean isData, int address) {
+		Entry entry = new Entry(rplName, symbolName, isPointer, isData, address);
+		Entry old = entries.put(entry.getKey(), entry);
+		if(old == null || old.address != address){
+			dirty = true;
+		}
+	}
+	
+	/**
+	 * Gets all of the cached symbols
+	 * 
+	 * @return The cached symbols
+	 * */
+	public Collection<Entry> getEntries() {
+		return Collections.unmodifiableCollection(new ArrayList<Entry>(entries.values()));
+	}
+	
+	/**
+	 * Writes the file if anything changed<br>
+	 * The new file is written next to the old one and moved over it, so a crash can not leave half a file behind
+	 * 
+	 * @throws IOException If there was an error writing the file
+	 * */
+	public void save() throws IOException {
+		if(!dirty){
+			return;
+		}
+		
+		Properties properties = new Properties();
+		properties.setProperty(OS_VERSION_KEY, Integer.toString(osVersion));
+		for(Map.Entry<String, Entry> entry : entries.entrySet()){
+			properties.setProperty(entry.getKey(), "0x" + Integer.toHexString(entry.getValue().address));
+		}
+		
+		File directory = file.getAbsoluteFile().getParentFile();
+		if(directory != null && !directory.isDirectory()){
+			Files.createDirectories(directory.toPath());
+		}
+		
+		File temp = new File(directory, file.getName() + ".tmp");
+		try(OutputStream stream = new FileOutputStream(temp)){
+			properties.store(stream, "TCPGecko symbol cache");
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		
+		dirty = false;
+	}
+	
+	/**
+	 * Throws away all of the cached symbols
+	 * */
+	public void clear() {
+		if(!entries.isEmpty()){
+			entries.clear();
+			dirty = true;
+		}
+	}
+	
+	/**
+	 * Checks if the file was thrown away when it was loaded, because it was for a different OS version or broken
+	 * 
+	 * @return True if the old contents were dropped
+	 * */
+	public boolean wasInvalidated() {
+		return invalidated;
+	}
+	
+	/**
+	 * Checks if there are changes that were not saved yet
+	 * 
+	 * @return True if the file needs to be saved
+	 * */
+	public boolean isDirty() {
+		return dirty;
+	}
+	
+	/**
+	 * Gets the OS version this cache is for
+	 * 
+	 * @return The OS version
+	 * */
+	public int getOsVersion() {
+		return osVersion;
+	}
+	
+	/**
+	 * Gets the file this cache is stored in
+	 * 
+	 * @return The file
+	 * */
+	public File getFile() {
+		return file;
+	}
+	
+	/**
+	 * A single cached symbol
+	 * */
+	public static class Entry {
+		private final String rplName;
+		private final String symbolName;
+		private final boolean isPointer;
+		private final boolean isData;
+		private final int address;
+		
+		Entry(String rplName, String symbolName, boolean isPointer, boolean isData, int address) {
+			this.rplName = rplName;
+			this.symbolName = symbolName;
+			this.isPointer = isPointer;
+			this.isData = isData;
+			this.address = address;
+		}
+		
+		static String getKey(String rplName, String symbolName, boolean isPointer, boolean isData) {
+			return rplName + '/' + symbolName + '/' + (isPointer ? "pointer" : "direct") + '/' + (isData ? "data" : "code");
+		}
+		
+		static Entry parse(String key, String value) {
+			String[] parts = key.split("/");
+			if(parts.length != 4){
+				return null;
+			}
+			
+			try{
+				return new Entry(parts[0], parts[1], parts[2].equals("pointer"), parts[3].equals("data"), Long.decode(value).intValue());
+			}catch(NumberFormatException e){
+				return null;
+			}
+		}
+		
+		String getKey() {
+			return getKey(rplName, symbolName, isPointer, isData);
+		}
+		
+		public String getRplName() {
+			return rplName;
+		}
+		
+		public String getSymbolName() {
+			return symbolName;
+		}
+		
+		public boolean isPointer() {
+			return isPointer;
+		}
+		
+		public boolean isData() {
+			return isData;
+		}
+		
+		/**
+		 * Gets the address returned by GET_SYMBOL, for pointers this is the address of the pointer
+		 * 
+		 * @return The raw address
+		 * */
+		public int getAddress() {
+			return address;
+		}
+	}
+}
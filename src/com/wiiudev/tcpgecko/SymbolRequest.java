@@ -0,0 +1,91 @@
+package com.wiiudev.tcpgecko;
+
+/**
+ * Describes a symbol to get from the Wii U, used to get a lot of symbols at once with {@link com.wiiudev.tcpgecko.TcpGecko#resolveSymbols(java.util.Collection) resolveSymbols}
+ * 
+ * @author gudenau
+ * */
+public class SymbolRequest {
+	private final String rplName;
+	private final String symbolName;
+	private final boolean isPointer;
+	private final boolean isData;
+	private final int hash;
+	
+	/**
+	 * Describes a symbol that is not a pointer and not data
+	 * 
+	 * @param rplName The PRL the symbol refers to
+	 * @param symbolName The name of the symbol
+	 * */
+	public SymbolRequest(String rplName, String symbolName) {
+		this(rplName, symbolName, false, false);
+	}
+	
+	/**
+	 * Describes a symbol
+	 * 
+	 * @param rplName The PRL the symbol refers to
+	 * @param symbolName The name of the symbol
+	 * @param isPointer Is the returned symbol is a pointer?
+	 * @param isData Is the symbol data?
+	 * */
+	public SymbolRequest(String rplName, String symbolName, boolean isPointer, boolean isData) {
+		if(rplName == null || symbolName == null){
+			throw new IllegalArgumentException("Names must not be null!");
+		}
+		
+		// Interned names usually compare by reference
+		this.rplName = rplName.intern();
+		this.symbolName = symbolName.intern();
+		this.isPointer = isPointer;
+		this.isData = isData;
+		
+		// Requests are map keys, so the hash is worked out once
+		int hash = this.rplName.hashCode() * 31 + this.symbolName.hashCode();
+		this.hash = hash * 4 + (isPointer ? 2 : 0) + (isData ? 1 : 0);
+	}
+	
+	public String getRplName() {
+		return rplName;
+	}
+	
+	public String getSymbolName() {
+		return symbolName;
+	}
+	
+	public boolean isPointer() {
+		return isPointer;
+	}
+	
+	public boolean isData() {
+		return isData;
+	}
+	
+	@Override
+	public boolean equals(Object object) {
+		if(this == object){
+			return true;
+		}
+		if(!(object instanceof SymbolRequest)){
+			return false;
+		}
+		
+		SymbolRequest other = (SymbolRequest) object;
+		return hash == other.hash &&
+				isPointer == other.isPointer &&
+				isData == other.isData &&
+				rplName.equals(other.rplName) &&
+				symbolName.equals(other.symbolName);
+	}
+	
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+	
+	@Override
+	public String toString() {
+		return symbolName + " from " + rplName + (isPointer ? " (pointer)" : "") + (isData ? " (data)" : "");
+	}
+}
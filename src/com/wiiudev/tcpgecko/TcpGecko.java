@@ -1,16 +1,24 @@
 package com.wiiudev.tcpgecko;
 
-import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -19,14 +27,24 @@ import com.wiiudev.tcpgecko.enumeration.Commands;
 import com.wiiudev.tcpgecko.enumeration.Console;
 import com.wiiudev.tcpgecko.enumeration.MemoryAccess;
 import com.wiiudev.tcpgecko.enumeration.Status;
+import com.wiiudev.tcpgecko.io.BigEndian;
+import com.wiiudev.tcpgecko.io.RequestBuffer;
+import com.wiiudev.tcpgecko.io.ResponseBuffer;
+import com.wiiudev.tcpgecko.memory.IChunkReceiver;
+import com.wiiudev.tcpgecko.memory.IWriteListener;
+import com.wiiudev.tcpgecko.memory.MemoryMap;
+import com.wiiudev.tcpgecko.memory.SparseMemory;
 import com.wiiudev.tcpgecko.rpl.CoreInit;
 import com.wiiudev.tcpgecko.rpl.filesystem.Filesystem;
 
 /**
  * Java port of the tcpgecko.py script<br>
  * <br>
+ * Symbols are cached by default, see {@link com.wiiudev.tcpgecko.SymbolCache SymbolCache}<br>
+ * If the {@value #SYMBOL_CACHE_PROPERTY} system property names a file, every new connection loads it with {@link #loadSymbolCache(File)}<br>
+ * <br>
  * Warning:<br>
- * Symbol caching might not work well, it is not well tested
+ * This class is not thread safe, use a {@link com.wiiudev.tcpgecko.TcpGeckoPool TcpGeckoPool} to share connections between threads
  * 
  * @author gudenau
  * */
@@ -35,12 +53,54 @@ public class TcpGecko implements Closeable {
 	
 	private static final int DEFAULT_PORT = 7331;
 	
+	/**
+	 * System property with the path of a symbol cache file that every connection loads, see {@link #loadSymbolCache(File)}
+	 * */
+	public static final String SYMBOL_CACHE_PROPERTY = "tcpgecko.symbolCache";
+	
+	/**
+	 * The largest block the Wii U will read or write in one command
+	 * */
+	static final int CHUNK_SIZE = 0x400;
+	
+	/**
+	 * The amount of reply data we let pile up before we stop sending and start reading<br>
+	 * Keeps both sides from blocking on full socket buffers
+	 * */
+	static final int PIPELINE_WINDOW = 0x8000;
+	
+	/**
+	 * A chunk of zeros, used to fill buffers when the Wii U reports empty memory
+	 * */
+	private static final byte[] ZEROS = new byte[CHUNK_SIZE];
+	
 	private Socket socket;
 	private InputStream inputStream;
 	private OutputStream outputStream;
-
-	private boolean enableSymbolCache;
-	private HashMap<String, HashMap<String, ExportedSymbol>> symbolCache;
+	
+	private RequestBuffer request;
+	private ResponseBuffer response;
+	
+	private long skippedBytes;
+	
+	/**
+	 * Reused by the peeks, so they don't allocate
+	 * */
+	private final byte[] scratch = new byte[8];
+	
+	private MemoryMap memoryMap = MemoryMap.DEFAULT;
+	private final List<IWriteListener> writeListeners = new CopyOnWriteArrayList<IWriteListener>();
+	private TransferStatistics kernelStatistics;
+	
+	private boolean enableSymbolCache = true;
+	private SymbolCache symbolCache = new SymbolCache();
+	private final ISymbolLoader symbolLoader = new ISymbolLoader() {
+		@Override
+		public Map<SymbolRequest, Integer> load(Collection<SymbolRequest> requests) throws IOException, WiiUException {
+			return loadSymbols(requests);
+		}
+	};
+	private SymbolCacheFile symbolCacheFile;
 	
 	private CoreInit coreInitInstance;
 	private Filesystem filesystemInstance;
@@ -69,13 +129,13 @@ public class TcpGecko implements Closeable {
 	public TcpGecko(String host, int port) throws UnknownHostException, IOException {
 		this(new Socket(host, port));
 	}
-
+	
 	/**
 	 * Uses an existing {@link java.net.Socket socket} to communicate with
 	 * 
 	 * @param socket The socket to use
 	 * 
-	 * @throws IOException If there was an error getting the streams
+	 * @throws IOException If there was an error getting the streams or loading the symbol cache file
 	 * */
 	public TcpGecko(Socket socket) throws IOException {
 		logger = Logger.getLogger("TCPGecko");
@@ -85,17 +145,34 @@ public class TcpGecko implements Closeable {
 		
 		this.socket = socket;
 		
+		// Requests are framed before they are sent, so Nagle would only delay them
+		socket.setTcpNoDelay(true);
+		
 		inputStream = socket.getInputStream();
 		outputStream = socket.getOutputStream();
 		
-		symbolCache = new HashMap<String, HashMap<String, ExportedSymbol>>();
+		request = new RequestBuffer();
+		response = new ResponseBuffer(inputStream);
 		
 		coreInitInstance = new CoreInit(this);
 		filesystemInstance = new Filesystem(this);
 		
+		String symbolCachePath = System.getProperty(SYMBOL_CACHE_PROPERTY);
+		if(symbolCachePath != null && !symbolCachePath.isEmpty()){
+			try{
+				loadSymbolCache(new File(symbolCachePath));
+			}catch(IOException | WiiUException | RuntimeException e){
+				socket.close();
+				if(e instanceof IOException){
+					throw (IOException) e;
+				}
+				throw new IOException("Could not load the symbol cache file!", e);
+			}
+		}
+		
 		debug("Done!");
 	}
-
+	
 	/**
 	 * Pokes an address in memory with a byte
 	 * 
@@ -106,24 +183,17 @@ public class TcpGecko implements Closeable {
 	 * @throws IllegalArgumentException If length or address is invalid
 	 * */
 	public void pokeMemory(long address, byte value) throws IOException{
-		debug("Poking address " + address + " with the byte " + value);
-		
-		// Validate params
-		if(address < 0){
-			throw new IllegalArgumentException("Address must be positive!");
+		if(isDebug()){
+			debug("Poking address " + address + " with the byte " + value);
 		}
 		
-		// Make sure the Wii U will be happy
-		if(!validateMemoryRange(address, 1)){
-			throw new IllegalArgumentException("Address is not valid!");
-		}
-		if(!validateMemoryAccess(address, 1, MemoryAccess.WRITE)){
-			throw new IllegalArgumentException("Cannot write to address!");
-		}
+		validateWrite(address, 1);
 		
 		sendCommand(Commands.MEMORY_POKE_8);
 		writeInteger((int)address);
 		writeByte(value);
+		flush();
+		notifyWrite(address, 1);
 	}
 	
 	/**
@@ -136,24 +206,17 @@ public class TcpGecko implements Closeable {
 	 * @throws IllegalArgumentException If length or address is invalid
 	 * */
 	public void pokeMemory(long address, short value) throws IOException{
-		debug("Poking address " + address + " with the short " + value);
-		
-		// Validate params
-		if(address < 0){
-			throw new IllegalArgumentException("Address must be positive!");
+		if(isDebug()){
+			debug("Poking address " + address + " with the short " + value);
 		}
 		
-		// Make sure the Wii U will be happy
-		if(!validateMemoryRange(address, 2)){
-			throw new IllegalArgumentException("Address is not valid!");
-		}
-		if(!validateMemoryAccess(address, 2, MemoryAccess.WRITE)){
-			throw new IllegalArgumentException("Cannot write to address!");
-		}
+		validateWrite(address, 2);
 		
 		sendCommand(Commands.MEMORY_POKE_16);
 		writeInteger((int)address);
 		writeShort(value);
+		flush();
+		notifyWrite(address, 2);
 	}
 	
 	/**
@@ -166,24 +229,17 @@ public class TcpGecko implements Closeable {
 	 * @throws IllegalArgumentException If length or address is invalid
 	 * */
 	public void pokeMemory(long address, int value) throws IOException{
-		debug("Poking address " + address + " with the int " + value);
-		
-		// Validate params
-		if(address < 0){
-			throw new IllegalArgumentException("Address must be positive!");
+		if(isDebug()){
+			debug("Poking address " + address + " with the int " + value);
 		}
 		
-		// Make sure the Wii U will be happy
-		if(!validateMemoryRange(address, 4)){
-			throw new IllegalArgumentException("Address is not valid!");
-		}
-		if(!validateMemoryAccess(address, 4, MemoryAccess.WRITE)){
-			throw new IllegalArgumentException("Cannot write to address!");
-		}
+		validateWrite(address, 4);
 		
 		sendCommand(Commands.MEMORY_POKE_32);
 		writeInteger((int)address);
 		writeInteger(value);
+		flush();
+		notifyWrite(address, 4);
 	}
 	
 	/**
@@ -196,26 +252,19 @@ public class TcpGecko implements Closeable {
 	 * @throws IllegalArgumentException If length or address is invalid
 	 * */
 	public void pokeMemory(long address, long value) throws IOException {
-		debug("Poking address " + address + " with the long " + value);
-		// Validate params
-		if(address < 0){
-			throw new IllegalArgumentException("Address must be positive!");
-		}
-				
-		// Make sure the Wii U will be happy
-		if(!validateMemoryRange(address, 8)){
-			throw new IllegalArgumentException("Address is not valid!");
-		}
-		if(!validateMemoryAccess(address, 8, MemoryAccess.WRITE)){
-			throw new IllegalArgumentException("Cannot write to address!");
+		if(isDebug()){
+			debug("Poking address " + address + " with the long " + value);
 		}
-				
+		validateWrite(address, 8);
+		
 		sendCommand(Commands.MEMORY_POKE_32);
 		writeInteger((int)address);
 		writeInteger((int) ((value >> 32) & 0x00000000FFFFFFFF));
 		sendCommand(Commands.MEMORY_POKE_32);
 		writeInteger((int)address + 4);
 		writeInteger((int) (value & 0x00000000FFFFFFFF));
+		flush();
+		notifyWrite(address, 8);
 	}
 	
 	/**
@@ -228,16 +277,12 @@ public class TcpGecko implements Closeable {
 	 * @throws IllegalArgumentException If address is invalid
 	 * */
 	public void pokeMemory(long address, float value) throws IOException {
-		debug("Poking address " + address + " with the float " + value);
-		
-		// Convert float to integer
-		ByteBuffer buffer = ByteBuffer.allocate(4);
-		buffer.putFloat(value);
-		buffer.position(0);
-		int integer = buffer.getInt();
+		if(isDebug()){
+			debug("Poking address " + address + " with the float " + value);
+		}
 		
-		// Do the poke
-		pokeMemory(address, integer);
+		// Same bits, no conversion needed
+		pokeMemory(address, Float.floatToRawIntBits(value));
 	}
 	
 	/**
@@ -250,16 +295,12 @@ public class TcpGecko implements Closeable {
 	 * @throws IllegalArgumentException If address is invalid
 	 * */
 	public void pokeMemory(long address, double value) throws IOException {
-		debug("Poking address " + address + " with the double " + value);
-		
-		// Convert double to long
-		ByteBuffer buffer = ByteBuffer.allocate(8);
-		buffer.putDouble(value);
-		buffer.position(0);
-		long integer = buffer.getLong();
+		if(isDebug()){
+			debug("Poking address " + address + " with the double " + value);
+		}
 		
-		// Do the poke
-		pokeMemory(address, integer);
+		// Same bits, no conversion needed
+		pokeMemory(address, Double.doubleToRawLongBits(value));
 	}
 	
 	/**
@@ -299,9 +340,12 @@ public class TcpGecko implements Closeable {
 	 * @throws IllegalArgumentException If the address is invalid
 	 */
 	public byte peekByte(long address) throws IOException, WiiUException{
-		debug("Peaking the byte at " + address);
-		byte[] buffer = readMemory(address, 1);
-		return buffer[0];
+		if(isDebug()){
+			debug("Peaking the byte at " + address);
+		}
+		
+		peek(address, 1);
+		return scratch[0];
 	}
 	
 	/**
@@ -316,15 +360,12 @@ public class TcpGecko implements Closeable {
 	 * @throws IllegalArgumentException If the address is invalid
 	 */
 	public short peekShort(long address) throws IOException, WiiUException{
-		debug("Peaking the short at " + address);
-		
-		// Shorts are two bytes
-		byte[] buffer = readMemory(address, 2);
+		if(isDebug()){
+			debug("Peaking the short at " + address);
+		}
 		
-		// Need to create a short from the data
-		// The Wii U is big endian
-		return (short) (((buffer[0] << 8) & 0xFF00) |
-				(buffer[1] & 0x00FF));
+		peek(address, 2);
+		return BigEndian.getShort(scratch, 0);
 	}
 	
 	/**
@@ -339,17 +380,12 @@ public class TcpGecko implements Closeable {
 	 * @throws IllegalArgumentException If the address is invalid
 	 */
 	public int peekInteger(long address) throws IOException, WiiUException{
-		debug("Peaking the int at " + address);
-		
-		// Integers are four bytes
-		byte[] buffer = readMemory(address, 4);
+		if(isDebug()){
+			debug("Peaking the int at " + address);
+		}
 		
-		// Need to create a integer from the data
-		// The Wii U is big endian
-		return (int) (((buffer[0] << 24) & 0xFF000000) |
-				((buffer[1] << 16) & 0x00FF0000) |
-				((buffer[2] <<  8) & 0x0000FF00) |
-				(buffer[3] & 0x000000FF));
+		peek(address, 4);
+		return BigEndian.getInteger(scratch, 0);
 	}
 	
 	/**
@@ -364,24 +400,12 @@ public class TcpGecko implements Closeable {
 	 * @throws IllegalArgumentException If the address is invalid
 	 */
 	public long peekLong(long address) throws IOException, WiiUException{
-		debug("Peaking the long at " + address);
-		
-		// Longs are eight bytes
-		byte[] buffer = readMemory(address, 8);
-		
-		readData(buffer);
+		if(isDebug()){
+			debug("Peaking the long at " + address);
+		}
 		
-		// Need to create a integer from the data
-		// The Wii U is big endian
-		return (long) (
-				((((long)buffer[0]) << 56) & 0xFF00000000000000L) |
-				((((long)buffer[1]) << 48) & 0x00FF000000000000L) |
-				((((long)buffer[2]) << 40) & 0x0000FF0000000000L) |
-				((((long)buffer[3]) << 32) & 0x000000FF00000000L) |
-				((((long)buffer[4]) << 24) & 0x00000000FF000000L) |
-				((((long)buffer[5]) << 16) & 0x0000000000FF0000L) |
-				((((long)buffer[6]) <<  8) & 0x000000000000FF00L) |
-				(( (long)buffer[7]       ) & 0x00000000000000FFL));
+		peek(address, 8);
+		return BigEndian.getLong(scratch, 0);
 	}
 	
 	/**
@@ -396,14 +420,11 @@ public class TcpGecko implements Closeable {
 	 * @throws IllegalArgumentException If the address is invalid	
 	 */
 	public float peekFloat(long address) throws IOException, WiiUException{
-		debug("Peaking the float at " + address);
-		
-		int integer = peekInteger(address);
+		if(isDebug()){
+			debug("Peaking the float at " + address);
+		}
 		
-		ByteBuffer buffer = ByteBuffer.allocate(4);
-		buffer.putInt(integer);
-		buffer.position(0);
-		return buffer.getFloat();
+		return Float.intBitsToFloat(peekInteger(address));
 	}
 	
 	/**
@@ -418,14 +439,23 @@ public class TcpGecko implements Closeable {
 	 * @throws IllegalArgumentException If the address is invalid	
 	 */
 	public double peekDouble(long address) throws IOException, WiiUException{
-		debug("Peaking the double at " + address);
-		
-		long integer = peekLong(address);
+		if(isDebug()){
+			debug("Peaking the double at " + address);
+		}
 		
-		ByteBuffer buffer = ByteBuffer.allocate(8);
-		buffer.putLong(integer);
-		buffer.position(0);
-		return buffer.getDouble();
+		return Double.longBitsToDouble(peekLong(address));
+	}
+	
+	/**
+	 * Reads a small value into the scratch buffer, without any allocation
+	 * 
+	 * @param address The address to peek
+	 * @param length Size of the value, at most 8
+	 * */
+	private void peek(long address, int length) throws IOException, WiiUException {
+		validateRead(address, length);
+		requestMemoryRead(address, length);
+		receiveMemoryRead(scratch, 0, length);
 	}
 	
 	/**
@@ -441,88 +471,181 @@ public class TcpGecko implements Closeable {
 	 * @throws IllegalArgumentException If length or address is invalid
 	 * */
 	public byte[] readMemory(long address, int length) throws IOException, WiiUException{
-		debug("Reading memory at " + address + " to " + (address + length));
-		
 		// Validate input params
 		if(length <= 0){
 			throw new IllegalArgumentException("Length must be greater than 0!");
 		}
-		if(length > 0x00000000FFFFFFFFL){
-			throw new IllegalArgumentException("Length must be less than 0xFFFFFFFF!");
-		}
-		if(address < 0){
-			throw new IllegalArgumentException("Address must be positive!");
+		
+		byte[] data = new byte[length];
+		readMemory(address, data, 0, length);
+		return data;
+	}
+	
+	/**
+	 * Reads memory from a Wii U, if length is greater than 0x0400 it is read in blocks<br>
+	 * The data is read straight into the provided buffer
+	 * 
+	 * @param address Address to read from
+	 * @param data Buffer to write
+	 * @param offset Offset into the buffer
+	 * @param length Length of the data to read
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U or a buffer
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public void readMemory(long address, byte[] data, int offset, int length) throws IOException, WiiUException {
+		debug("Reading memory at " + address + " to " + (address + length));
+		
+		validateRead(address, length);
+		if(offset < 0 || offset + length > data.length){
+			throw new IllegalArgumentException("Buffer is too small!");
 		}
 		
-		// Make sure the Wii U will be happy
-		if(!validateMemoryRange(address, length)){
-			throw new IllegalArgumentException("Address range is not valid!");
+		int requested = 0;
+		int received = 0;
+		int readLength;
+		
+		// Read the data, a window of chunks is requested before the replies are read
+		while(requested < length){
+			readLength = length - requested > CHUNK_SIZE ? CHUNK_SIZE : length - requested;
+			requestMemoryRead(address + requested, readLength);
+			requested += readLength;
+			
+			if(requested - received >= PIPELINE_WINDOW || requested == length){
+				while(received < requested){
+					if(isDebug()){
+						debug("Reading a block with a length of " + (length - received));
+					}
+					
+					readLength = length - received > CHUNK_SIZE ? CHUNK_SIZE : length - received;
+					receiveMemoryRead(data, offset + received, readLength);
+					received += readLength;
+				}
+			}
 		}
-		if(!validateMemoryAccess(address, length, MemoryAccess.READ)){
-			throw new IllegalArgumentException("Cannot read from address!");
+		
+		debug("Done!");
+	}
+	
+	/**
+	 * Reads memory from a Wii U into a {@link java.nio.ByteBuffer ByteBuffer}, if length is greater than 0x0400 it is read in blocks<br>
+	 * This reads {@link java.nio.ByteBuffer#remaining() remaining} bytes into the buffer starting at its position, the position is moved past the read data<br>
+	 * Direct buffers are copied from the response buffer, so no extra heap array is allocated
+	 * 
+	 * @param address Address to read from
+	 * @param buffer Buffer to write
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U or a buffer
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public void readMemory(long address, ByteBuffer buffer) throws IOException, WiiUException {
+		int length = buffer.remaining();
+		
+		// Heap buffers can use the array path
+		if(buffer.hasArray()){
+			readMemory(address, buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+			buffer.position(buffer.position() + length);
+			return;
 		}
 		
-		ByteArrayOutputStream output = new ByteArrayOutputStream(length);
+		debug("Reading memory at " + address + " to " + (address + length));
+		
+		validateRead(address, length);
 		
+		int requested = 0;
+		int received = 0;
 		int readLength;
-		byte[] buffer = new byte[0x400];
 		
-		// Read the data
-		while(length > 0){
-			debug("Reading a block with a length of " + length);
-			
-			// Tell the Wii U to read memory
-			sendCommand(Commands.MEMORY_READ);
+		// Same as the array version, but the buffer position tracks the received data
+		while(requested < length){
+			readLength = length - requested > CHUNK_SIZE ? CHUNK_SIZE : length - requested;
+			requestMemoryRead(address + requested, readLength);
+			requested += readLength;
 			
-			// Calculate the amount of data to read
-			readLength = (length > 0x400 ? 0x400 : length);
-			
-			// Tell the Wii U what to read
-			writeIntegers((int)address, (int)address + readLength);
-			
-			// Process returned data
-			Status status = getStatus();
-			switch(status){
-			// The memory is not all 0, read the data
-			case OK:
-				readData(buffer, 0, readLength);
-				output.write(buffer, 0, readLength);
-				break;
-			// The memory was all 0, no nead to read the data
-			case OK_EMPTY:
-				clearBuffer(buffer);
-				output.write(buffer, 0, readLength);
-				break;
-			// Something went wrong
-			default:
-				throw new WiiUException("Got an unknown status while reading memory!");
+			if(requested - received >= PIPELINE_WINDOW || requested == length){
+				while(received < requested){
+					readLength = length - received > CHUNK_SIZE ? CHUNK_SIZE : length - received;
+					receiveMemoryRead(buffer, readLength);
+					received += readLength;
+				}
 			}
-			
-			// A little cheaty, but this works fine
-			length  -= 0x400;
-			address += 0x400;
 		}
 		
 		debug("Done!");
+	}
+	
+	/**
+	 * Reads memory from a Wii U and hands it to the receiver one chunk at a time<br>
+	 * Only one chunk is kept on the heap, chunks that are all 0 are reported as empty instead of being filled
+	 * 
+	 * @param address Address to read from
+	 * @param length Length of the data to read
+	 * @param receiver The {@link com.wiiudev.tcpgecko.memory.IChunkReceiver receiver} that gets the chunks, in order
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U or the receiver
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public void readMemoryChunks(long address, int length, IChunkReceiver receiver) throws IOException, WiiUException {
+		debug("Reading memory chunks at " + address + " to " + (address + length));
+		
+		validateRead(address, length);
 		
-		return output.toByteArray();
+		byte[] buffer = new byte[CHUNK_SIZE];
+		int requested = 0;
+		int received = 0;
+		int readLength;
+		
+		while(requested < length){
+			readLength = length - requested > CHUNK_SIZE ? CHUNK_SIZE : length - requested;
+			requestMemoryRead(address + requested, readLength);
+			requested += readLength;
+			
+			if(requested - received >= PIPELINE_WINDOW || requested == length){
+				while(received < requested){
+					readLength = length - received > CHUNK_SIZE ? CHUNK_SIZE : length - received;
+					
+					Status status = getStatus();
+					switch(status){
+					case OK:
+						readData(buffer, 0, readLength);
+						receiver.receiveData(address + received, buffer, 0, readLength);
+						break;
+					case OK_EMPTY:
+						skippedBytes += readLength;
+						receiver.receiveEmpty(address + received, readLength);
+						break;
+					default:
+						throw new WiiUException("Got an unknown status while reading memory!");
+					}
+					
+					received += readLength;
+				}
+			}
+		}
+		
+		debug("Done!");
 	}
 	
 	/**
-	 * Reads memory from a Wii U, if length is greater than 0x0400 it is read in blocks
+	 * Reads memory from a Wii U, only keeping the chunks that are not all 0<br>
+	 * Good for scanning big ranges that are mostly empty
 	 * 
 	 * @param address Address to read from
-	 * @param data Buffer to write
-	 * @param offset Offset into the buffer
 	 * @param length Length of the data to read
 	 * 
-	 * @throws IOException If an exception occurs while talking to the Wii U or a buffer
+	 * @return A {@link com.wiiudev.tcpgecko.memory.SparseMemory SparseMemory} with a page map of the chunks that have data
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
 	 * @throws WiiUException If something bad happens while communicating with the Wii U
 	 * @throws IllegalArgumentException If length or address is invalid
 	 * */
-	public void readMemory(long address, byte[] data, int offset, int length) throws IOException, WiiUException {
-		byte[] memory = readMemory(address, length);
-		System.arraycopy(memory, 0, data, offset, length);
+	public SparseMemory readMemorySparse(long address, int length) throws IOException, WiiUException {
+		SparseMemory memory = new SparseMemory(address, length, CHUNK_SIZE);
+		readMemoryChunks(address, length, memory);
+		return memory;
 	}
 	
 	/**
@@ -541,7 +664,258 @@ public class TcpGecko implements Closeable {
 	}
 	
 	/**
-	 * Writes data into kernel memory, if the length is greater than 0x04 it is written in blocks
+	 * Reads an array of integers from the Wii U<br>
+	 * The whole array is read with pipelined MEMORY_READ commands and decoded chunk by chunk, there is no per value overhead
+	 * 
+	 * @param address Address to read from
+	 * @param data Array to store the integers
+	 * @param offset Offset into the array
+	 * @param length Amount of integers to read
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U or a buffer
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public void readInts(final long address, final int[] data, final int offset, int length) throws IOException, WiiUException {
+		checkArray(data.length, offset, length, 4);
+		
+		readMemoryChunks(address, length * 4, new IChunkReceiver() {
+			@Override
+			public void receiveData(long chunkAddress, byte[] chunk, int chunkOffset, int chunkLength) {
+				int index = offset + (int) ((chunkAddress - address) >> 2);
+				for(int i = 0; i < chunkLength; i += 4){
+					data[index++] = BigEndian.getInteger(chunk, chunkOffset + i);
+				}
+			}
+			
+			@Override
+			public void receiveEmpty(long chunkAddress, int chunkLength) {
+				int index = offset + (int) ((chunkAddress - address) >> 2);
+				Arrays.fill(data, index, index + (chunkLength >> 2), 0);
+			}
+		});
+	}
+	
+	/**
+	 * Reads an array of floats from the Wii U<br>
+	 * The whole array is read with pipelined MEMORY_READ commands and decoded chunk by chunk, there is no per value overhead
+	 * 
+	 * @param address Address to read from
+	 * @param data Array to store the floats
+	 * @param offset Offset into the array
+	 * @param length Amount of floats to read
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U or a buffer
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public void readFloats(final long address, final float[] data, final int offset, int length) throws IOException, WiiUException {
+		checkArray(data.length, offset, length, 4);
+		
+		readMemoryChunks(address, length * 4, new IChunkReceiver() {
+			@Override
+			public void receiveData(long chunkAddress, byte[] chunk, int chunkOffset, int chunkLength) {
+				int index = offset + (int) ((chunkAddress - address) >> 2);
+				for(int i = 0; i < chunkLength; i += 4){
+					data[index++] = Float.intBitsToFloat(BigEndian.getInteger(chunk, chunkOffset + i));
+				}
+			}
+			
+			@Override
+			public void receiveEmpty(long chunkAddress, int chunkLength) {
+				int index = offset + (int) ((chunkAddress - address) >> 2);
+				Arrays.fill(data, index, index + (chunkLength >> 2), 0);
+			}
+		});
+	}
+	
+	/**
+	 * Reads an array of shorts from the Wii U<br>
+	 * The whole array is read with pipelined MEMORY_READ commands and decoded chunk by chunk, there is no per value overhead
+	 * 
+	 * @param address Address to read from
+	 * @param data Array to store the shorts
+	 * @param offset Offset into the array
+	 * @param length Amount of shorts to read
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U or a buffer
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public void readShorts(final long address, final short[] data, final int offset, int length) throws IOException, WiiUException {
+		checkArray(data.length, offset, length, 2);
+		
+		readMemoryChunks(address, length * 2, new IChunkReceiver() {
+			@Override
+			public void receiveData(long chunkAddress, byte[] chunk, int chunkOffset, int chunkLength) {
+				int index = offset + (int) ((chunkAddress - address) >> 1);
+				for(int i = 0; i < chunkLength; i += 2){
+					data[index++] = BigEndian.getShort(chunk, chunkOffset + i);
+				}
+			}
+			
+			@Override
+			public void receiveEmpty(long chunkAddress, int chunkLength) {
+				int index = offset + (int) ((chunkAddress - address) >> 1);
+				Arrays.fill(data, index, index + (chunkLength >> 1), (short) 0);
+			}
+		});
+	}
+	
+	/**
+	 * Writes an array of integers to the Wii U<br>
+	 * The values are encoded a chunk at a time and sent with pipelined MEMORY_WRITE commands, there is no per value overhead
+	 * 
+	 * @param address Address to write to
+	 * @param data The integers to write
+	 * @param offset Offset into the array
+	 * @param length Amount of integers to write
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public void writeInts(long address, final int[] data, final int offset, int length) throws IOException, WiiUException {
+		checkArray(data.length, offset, length, 4);
+		
+		writeChunks(address, length * 4, new IChunkEncoder() {
+			@Override
+			public void encode(int position, byte[] chunk, int chunkLength) {
+				int index = offset + (position >> 2);
+				for(int i = 0; i < chunkLength; i += 4){
+					BigEndian.putInteger(chunk, i, data[index++]);
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Writes an array of floats to the Wii U<br>
+	 * The values are encoded a chunk at a time and sent with pipelined MEMORY_WRITE commands, there is no per value overhead
+	 * 
+	 * @param address Address to write to
+	 * @param data The floats to write
+	 * @param offset Offset into the array
+	 * @param length Amount of floats to write
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public void writeFloats(long address, final float[] data, final int offset, int length) throws IOException, WiiUException {
+		checkArray(data.length, offset, length, 4);
+		
+		writeChunks(address, length * 4, new IChunkEncoder() {
+			@Override
+			public void encode(int position, byte[] chunk, int chunkLength) {
+				int index = offset + (position >> 2);
+				for(int i = 0; i < chunkLength; i += 4){
+					BigEndian.putInteger(chunk, i, Float.floatToRawIntBits(data[index++]));
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Writes an array of shorts to the Wii U<br>
+	 * The values are encoded a chunk at a time and sent with pipelined MEMORY_WRITE commands, there is no per value overhead
+	 * 
+	 * @param address Address to write to
+	 * @param data The shorts to write
+	 * @param offset Offset into the array
+	 * @param length Amount of shorts to write
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public void writeShorts(long address, final short[] data, final int offset, int length) throws IOException, WiiUException {
+		checkArray(data.length, offset, length, 2);
+		
+		writeChunks(address, length * 2, new IChunkEncoder() {
+			@Override
+			public void encode(int position, byte[] chunk, int chunkLength) {
+				int index = offset + (position >> 1);
+				for(int i = 0; i < chunkLength; i += 2){
+					BigEndian.putShort(chunk, i, data[index++]);
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Fills a chunk of memory before it is written
+	 * */
+	private interface IChunkEncoder {
+		/**
+		 * Encodes the values of a chunk
+		 * 
+		 * @param position Offset of the chunk from the start of the write, in bytes
+		 * @param chunk Buffer to encode into, starting at 0
+		 * @param chunkLength Size of the chunk
+		 * */
+		void encode(int position, byte[] chunk, int chunkLength);
+	}
+	
+	/**
+	 * Writes memory a chunk at a time, the chunks are encoded into a single reused buffer
+	 * */
+	private void writeChunks(long address, int length, IChunkEncoder encoder) throws IOException, WiiUException {
+		debug("Writing memory chunks at " + address + " to " + (address + length));
+		
+		validateWrite(address, length);
+		
+		byte[] chunk = new byte[CHUNK_SIZE];
+		int writeLength;
+		int pending = 0;
+		
+		try{
+			for(int written = 0; written < length; written += writeLength){
+				writeLength = length - written > CHUNK_SIZE ? CHUNK_SIZE : length - written;
+				
+				// The request buffer copies it, so the chunk can be reused right away
+				encoder.encode(written, chunk, writeLength);
+				requestMemoryWrite(address + written, chunk, 0, writeLength);
+				pending++;
+				
+				if(pending * CHUNK_SIZE >= PIPELINE_WINDOW){
+					while(pending > 0){
+						receiveMemoryWrite();
+						pending--;
+					}
+				}
+			}
+			
+			while(pending > 0){
+				receiveMemoryWrite();
+				pending--;
+			}
+		}finally{
+			// Part of it might have made it even if something failed
+			notifyWrite(address, length);
+		}
+		
+		debug("Done!");
+	}
+	
+	/**
+	 * Validates the array parameters of a typed transfer
+	 * */
+	private static void checkArray(int arrayLength, int offset, int length, int size) {
+		if(length <= 0){
+			throw new IllegalArgumentException("Length must be greater than 0!");
+		}
+		if(length > Integer.MAX_VALUE / size){
+			throw new IllegalArgumentException("Length is too big!");
+		}
+		if(offset < 0 || offset + length > arrayLength){
+			throw new IllegalArgumentException("Buffer is too small!");
+		}
+	}
+	
+	/**
+	 * Writes data into kernel memory, if the length is greater than 0x04 it is written in blocks<br>
+	 * Kernel writes have no reply, so all of the words are streamed without waiting
 	 * 
 	 * @param address Address to write to
 	 * @param data The data to be written
@@ -564,30 +938,34 @@ public class TcpGecko implements Closeable {
 		if(address < 0){
 			throw new IllegalArgumentException("Address must be positive!");
 		}
+		if(offset < 0 || offset + length > data.length){
+			throw new IllegalArgumentException("Buffer is too small!");
+		}
 		
 		// Make sure the Wii U will be happy
-		if(!validateMemoryRange(address, length)){
-			throw new IllegalArgumentException("Address range is not valid!");
-		}
-		if(!validateMemoryAccess(address, length, MemoryAccess.WRITE)){
-			throw new IllegalArgumentException("Cannot write to address!");
-		}
+		memoryMap.validate(address, length, MemoryAccess.WRITE);
 		
-		// Wrap the data, make it easy to read an integer
-		ByteBuffer buffer = ByteBuffer.wrap(data);
-		buffer.order(ByteOrder.BIG_ENDIAN);
-		buffer.position(offset);
+		long start = System.nanoTime();
+		int commands = length / 4;
 		
-		while(length > 0){
-			debug("Writing a chunk");
-			sendCommand(Commands.MEMORY_KERNEL_WRITE);
-			writeIntegers((int)address, buffer.getInt());
-			
-			length -= 4;
-			address += 4;
+		try{
+			for(int written = 0; written < length; written += 4){
+				sendCommand(Commands.MEMORY_KERNEL_WRITE);
+				request.putInteger((int) (address + written));
+				request.putInteger(BigEndian.getInteger(data, offset + written));
+				
+				// Don't let the request buffer grow without bound
+				if(request.size() >= PIPELINE_WINDOW){
+					flush();
+				}
+			}
+			flush();
+		}finally{
+			notifyWrite(address, length);
 		}
 		
-		debug("Done!");
+		kernelStatistics = new TransferStatistics(length, commands, System.nanoTime() - start);
+		debug("Done! " + kernelStatistics);
 	}
 	
 	/**
@@ -602,6 +980,28 @@ public class TcpGecko implements Closeable {
 	 * @throws IllegalArgumentException If length or address is invalid
 	 * */
 	public byte[] readKernelMemory(long address, int length) throws IOException{
+		if(length <= 0){
+			throw new IllegalArgumentException("Length must be greater than 0!");
+		}
+		
+		byte[] data = new byte[length];
+		readKernelMemory(address, data, 0, length);
+		return data;
+	}
+	
+	/**
+	 * Reads kernel memory from a Wii U straight into the provided buffer<br>
+	 * The Wii U only reads a word per command, so a window of commands is sent before the replies are read
+	 * 
+	 * @param address Address to read from
+	 * @param data Buffer to write
+	 * @param offset Offset into the buffer
+	 * @param length Length of the data to read
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U or a buffer
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public void readKernelMemory(long address, byte[] data, int offset, int length) throws IOException{
 		debug("Reading memory at " + address + " to " + (address + length) + " as kernel");
 		
 		// Validate input params
@@ -611,31 +1011,48 @@ public class TcpGecko implements Closeable {
 		if(address < 0){
 			throw new IllegalArgumentException("Address must be positive!");
 		}
-		
-		// Make sure the Wii U will be happy
-		if(!validateMemoryRange(address, length)){
-			throw new IllegalArgumentException("Address range is not valid!");
-		}
-		if(!validateMemoryAccess(address, length, MemoryAccess.WRITE)){
-			throw new IllegalArgumentException("Cannot read from address!");
+		if(offset < 0 || offset + length > data.length){
+			throw new IllegalArgumentException("Buffer is too small!");
 		}
 		
-		ByteArrayOutputStream output = new ByteArrayOutputStream(length);
+		// Make sure the Wii U will be happy, once for the whole range
+		memoryMap.validate(address, length, MemoryAccess.READ);
 		
-		// Read the data
-		while(length > 0){
-			debug("Reading chunk");
-			byte[] buffer = readKernelMemory(address);
-			output.write(buffer, 0, length > 4 ? 4 : length);
+		long start = System.nanoTime();
+		int requested = 0;
+		int received = 0;
+		
+		while(requested < length){
+			sendCommand(Commands.MEMORY_KERNEL_READ);
+			request.putInteger((int) (address + requested));
+			requested += 4;
 			
-			// A little cheaty, but this works fine
-			length -= 4;
-			address += 4;
+			if(requested - received >= PIPELINE_WINDOW || requested >= length){
+				while(received < requested){
+					if(length - received >= 4){
+						readData(data, offset + received, 4);
+					}else{
+						// The last word is only partly wanted
+						byte[] word = new byte[4];
+						readData(word);
+						System.arraycopy(word, 0, data, offset + received, length - received);
+					}
+					received += 4;
+				}
+			}
 		}
 		
-		debug("Done!");
-		
-		return output.toByteArray();
+		kernelStatistics = new TransferStatistics(length, requested / 4, System.nanoTime() - start);
+		debug("Done! " + kernelStatistics);
+	}
+	
+	/**
+	 * Gets the statistics of the last kernel memory transfer
+	 * 
+	 * @return The statistics, or null if there was no kernel transfer yet
+	 * */
+	public TransferStatistics getKernelTransferStatistics() {
+		return kernelStatistics;
 	}
 	
 	/**
@@ -657,12 +1074,7 @@ public class TcpGecko implements Closeable {
 		}
 		
 		// Make sure the Wii U will be happy
-		if(!validateMemoryRange(address, 4)){
-			throw new IllegalArgumentException("Address range is not valid!");
-		}
-		if(!validateMemoryAccess(address, 4, MemoryAccess.WRITE)){
-			throw new IllegalArgumentException("Cannot read from address!");
-		}
+		memoryMap.validate(address, 4, MemoryAccess.READ);
 		
 		sendCommand(Commands.MEMORY_KERNEL_READ);
 		writeInteger((int) address);
@@ -687,43 +1099,253 @@ public class TcpGecko implements Closeable {
 	public void writeMemory(long address, byte[] data, int offset, int length) throws IOException, WiiUException {
 		debug("Writing memory at " + address + " to " + (address + length));
 		
-		// Validate input params
-		if(length <= 0){
-			throw new IllegalArgumentException("Length must be greater than 0!");
-		}
-		if(address < 0){
-			throw new IllegalArgumentException("Address must be positive!");
-		}
+		validateWrite(address, length);
 		
-		// Make sure the Wii U will be happy
-		if(!validateMemoryRange(address, length)){
-			throw new IllegalArgumentException("Address range is not valid!");
+		long start = address;
+		int total = length;
+		int writeLength;
+		int pending = 0;
+		
+		try{
+			// Write the data, we don't wait for every chunk to be acknowledged before sending the next
+			while(length > 0){
+				debug("Writing chunk");
+				
+				writeLength = length > CHUNK_SIZE ? CHUNK_SIZE : length;
+				requestMemoryWrite(address, data, offset, writeLength);
+				pending++;
+				
+				if(pending * CHUNK_SIZE >= PIPELINE_WINDOW){
+					while(pending > 0){
+						receiveMemoryWrite();
+						pending--;
+					}
+				}
+				
+				length -= writeLength;
+				offset += writeLength;
+				address += writeLength;
+			}
+			
+			while(pending > 0){
+				receiveMemoryWrite();
+				pending--;
+			}
+		}finally{
+			notifyWrite(start, total);
 		}
-		if(!validateMemoryAccess(address, length, MemoryAccess.WRITE)){
-			throw new IllegalArgumentException("Cannot write to address!");
+		
+		debug("Done!");
+	}
+	
+	/**
+	 * Writes the remaining data of a {@link java.nio.ByteBuffer ByteBuffer} into memory, if the length is greater than 0x0400 it is written in blocks<br>
+	 * The position of the buffer is moved past the written data
+	 * 
+	 * @param address Address to write to
+	 * @param data The data to be written
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public void writeMemory(long address, ByteBuffer data) throws IOException, WiiUException {
+		int length = data.remaining();
+		
+		// Heap buffers can use the array path
+		if(data.hasArray()){
+			writeMemory(address, data.array(), data.arrayOffset() + data.position(), length);
+			data.position(data.position() + length);
+			return;
 		}
 		
+		debug("Writing memory at " + address + " to " + (address + length));
+		
+		validateWrite(address, length);
+		
+		long start = address;
+		int total = length;
 		int writeLength;
+		int pending = 0;
 		
-		// Write the data
-		while(length > 0){
-			debug("Writing chunk");
-			sendCommand(Commands.MEMORY_WRITE);
-			
-			writeLength = length > 0x0400 ? 0x0400 : length;
-			writeIntegers((int)address, (int)address + writeLength);
-			writeData(data, offset, writeLength);
+		try{
+			while(length > 0){
+				writeLength = length > CHUNK_SIZE ? CHUNK_SIZE : length;
+				
+				sendCommand(Commands.MEMORY_WRITE);
+				writeIntegers((int)address, (int)address + writeLength);
+				request.putData(data, writeLength);
+				pending++;
+				
+				if(pending * CHUNK_SIZE >= PIPELINE_WINDOW){
+					while(pending > 0){
+						receiveMemoryWrite();
+						pending--;
+					}
+				}
+				
+				length -= writeLength;
+				address += writeLength;
+			}
 			
-			if(getStatus() != Status.GC_ACK){
-				// This is bad...
-				throw new WiiUException("Got unexpected status while writing memory!");
+			while(pending > 0){
+				receiveMemoryWrite();
+				pending--;
+			}
+		}finally{
+			notifyWrite(start, total);
+		}
+		
+		debug("Done!");
+	}
+	
+	/**
+	 * Reads blocks of the same size from many addresses, every read is sent in a single transaction<br>
+	 * Block i is stored at offset + i * length in the buffer
+	 * 
+	 * @param addresses The addresses of the blocks
+	 * @param first Index of the first address to read
+	 * @param count Amount of blocks to read
+	 * @param length Size of a single block
+	 * @param data Buffer to store the blocks
+	 * @param offset Offset into the buffer
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If length or an address is invalid
+	 * */
+	public void readBlocks(long[] addresses, int first, int count, int length, byte[] data, int offset) throws IOException, WiiUException {
+		if(offset < 0 || offset + (long) count * length > data.length){
+			throw new IllegalArgumentException("Buffer is too small!");
+		}
+		
+		Transaction transaction = pipeline();
+		for(int i = 0; i < count; i++){
+			transaction.readMemory(addresses[first + i], data, offset + i * length, length);
+		}
+		transaction.execute();
+	}
+	
+	/**
+	 * Creates a new {@link com.wiiudev.tcpgecko.Transaction transaction}, used to send a lot of commands at once
+	 * 
+	 * @return The new transaction
+	 * */
+	public Transaction pipeline() {
+		return new Transaction(this);
+	}
+	
+	/**
+	 * Creates a new {@link com.wiiudev.tcpgecko.WriteBatch write batch}, used to merge a lot of small writes into as few commands as possible
+	 * 
+	 * @return The new batch
+	 * */
+	public WriteBatch batch() {
+		return new WriteBatch(this);
+	}
+	
+	/**
+	 * Queues a single MEMORY_READ command, does not validate or flush anything
+	 * 
+	 * @param address Address to read from
+	 * @param length Length of the chunk, at most {@link #CHUNK_SIZE}
+	 * 
+	 * @throws IOException If there was an error writing to the Wii U
+	 * */
+	void requestMemoryRead(long address, int length) throws IOException {
+		sendCommand(Commands.MEMORY_READ);
+		request.putInteger((int) address);
+		request.putInteger((int) address + length);
+	}
+	
+	/**
+	 * Reads the reply of a single MEMORY_READ command
+	 * 
+	 * @param data Buffer to store the read data
+	 * @param offset Offset into the buffer
+	 * @param length Length of the chunk
+	 * 
+	 * @throws IOException If there was an error reading from the Wii U
+	 * @throws WiiUException If the Wii U sent an unknown status
+	 * */
+	void receiveMemoryRead(byte[] data, int offset, int length) throws IOException, WiiUException {
+		Status status = getStatus();
+		switch(status){
+		// The memory is not all 0, read the data
+		case OK:
+			readData(data, offset, length);
+			break;
+		// The memory was all 0, no nead to read the data
+		case OK_EMPTY:
+			Arrays.fill(data, offset, offset + length, (byte) 0);
+			skippedBytes += length;
+			break;
+		// Something went wrong
+		default:
+			throw new WiiUException("Got an unknown status while reading memory!");
+		}
+	}
+	
+	/**
+	 * Reads the reply of a single MEMORY_READ command into a {@link java.nio.ByteBuffer ByteBuffer}
+	 * 
+	 * @param buffer Buffer to store the read data, its position is moved past the data
+	 * @param length Length of the chunk
+	 * 
+	 * @throws IOException If there was an error reading from the Wii U
+	 * @throws WiiUException If the Wii U sent an unknown status
+	 * */
+	void receiveMemoryRead(ByteBuffer buffer, int length) throws IOException, WiiUException {
+		Status status = getStatus();
+		switch(status){
+		// The memory is not all 0, read the data
+		case OK:
+			flush();
+			response.readData(buffer, length);
+			break;
+		// The memory was all 0, no nead to read the data
+		case OK_EMPTY:
+			skippedBytes += length;
+			while(length > 0){
+				int size = Math.min(length, ZEROS.length);
+				buffer.put(ZEROS, 0, size);
+				length -= size;
 			}
-			
-			length -= writeLength;
-			address += writeLength;
+			break;
+		// Something went wrong
+		default:
+			throw new WiiUException("Got an unknown status while reading memory!");
+		}
+	}
+	
+	/**
+	 * Queues a single MEMORY_WRITE command, does not validate or flush anything
+	 * 
+	 * @param address Address to write to
+	 * @param data The data to be written
+	 * @param offset Offset into the data to start
+	 * @param length Length of the chunk, at most {@link #CHUNK_SIZE}
+	 * 
+	 * @throws IOException If there was an error writing to the Wii U
+	 * */
+	void requestMemoryWrite(long address, byte[] data, int offset, int length) throws IOException {
+		sendCommand(Commands.MEMORY_WRITE);
+		request.putInteger((int) address);
+		request.putInteger((int) address + length);
+		writeData(data, offset, length);
+	}
+	
+	/**
+	 * Reads the reply of a single MEMORY_WRITE command
+	 * 
+	 * @throws IOException If there was an error reading from the Wii U
+	 * @throws WiiUException If the Wii U did not acknowledge the write
+	 * */
+	void receiveMemoryWrite() throws IOException, WiiUException {
+		if(getStatus() != Status.GC_ACK){
+			// This is bad...
+			throw new WiiUException("Got unexpected status while writing memory!");
 		}
-		
-		debug("Done!");
 	}
 	
 	/**
@@ -738,25 +1360,32 @@ public class TcpGecko implements Closeable {
 	public long callRemoteMethod(ExportedSymbol symbol, int ... params) throws IOException{
 		debug("Calling " + symbol.getSymbolName() + " from " + symbol.getRplName());
 		
-		if(params.length > 8 && params.length <= 16){
-			int[] realParams = new int[16];
-			System.arraycopy(params, 0, realParams, 0, params.length);
-			sendCommand(Commands.RPC_BIG);
-			writeInteger(symbol.getAddress());
-			writeIntegers(realParams);
-			
-			return readLong();
-		}else if(params.length <= 8){
-			int[] realParams = new int[8];
-			System.arraycopy(params, 0, realParams, 0, params.length);
-			sendCommand(Commands.RPC_BIG);
-			writeInteger(symbol.getAddress());
-			writeIntegers(realParams);
-			
-			return readLong();
+		requestRemoteCall(symbol, params);
+		return readLong();
+	}
+	
+	/**
+	 * Queues a remote call, does not flush anything<br>
+	 * The Wii U replies with a long
+	 * 
+	 * @param symbol The symbol that defines the method
+	 * @param params The parameters for the method
+	 * 
+	 * @throws IOException If there was an error writing to the Wii U
+	 * @throws IllegalArgumentException If there are to many parameters
+	 * */
+	void requestRemoteCall(ExportedSymbol symbol, int ... params) throws IOException {
+		if(params.length > 16){
+			throw new IllegalArgumentException("Too many paramaters!");
 		}
 		
-		throw new IllegalArgumentException("Too many paramaters!");
+		// The parameters are padded with 0 to 8 or 16 integers
+		int paramCount = params.length > 8 ? 16 : 8;
+		
+		sendCommand(Commands.RPC_BIG);
+		writeInteger(symbol.getAddress());
+		writeIntegers(params);
+		request.putZeros((paramCount - params.length) * 4);
 	}
 	
 	/**
@@ -775,76 +1404,190 @@ public class TcpGecko implements Closeable {
 	public ExportedSymbol getSymbol(String rplName, String symbolName, boolean isPointer, boolean isData) throws IOException, WiiUException{
 		debug("Getting symbol " + symbolName + " from " + rplName);
 		
-		// Check if we are caching symbols
+		SymbolRequest request = new SymbolRequest(rplName, symbolName, isPointer, isData);
+		
+		int address;
+		if(enableSymbolCache){
+			address = symbolCache.get(request, symbolLoader);
+		}else{
+			address = loadSymbols(Collections.singletonList(request)).get(request);
+		}
+		
+		return new ExportedSymbol(address, rplName, symbolName, this);
+	}
+	
+	/**
+	 * Gets a lot of symbols from the Wii U at once<br>
+	 * All of the GET_SYMBOL commands are sent before their replies are read, then all of the pointers are dereferenced with a single transaction,
+	 * so any amount of symbols costs about two round-trips
+	 * 
+	 * @param requests The symbols to get
+	 * 
+	 * @return The symbols, mapped by their requests
+	 * 
+	 * @throws IOException If there was an error taking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * */
+	public Map<SymbolRequest, ExportedSymbol> resolveSymbols(Collection<SymbolRequest> requests) throws IOException, WiiUException {
+		debug("Getting " + requests.size() + " symbols");
+		
+		Map<SymbolRequest, Integer> addresses;
 		if(enableSymbolCache){
-			HashMap<String, ExportedSymbol> rplHashMap = symbolCache.get(rplName);
+			addresses = symbolCache.getAll(requests, symbolLoader);
+		}else{
+			addresses = loadSymbols(new LinkedHashSet<SymbolRequest>(requests));
+		}
+		
+		Map<SymbolRequest, ExportedSymbol> symbols = new LinkedHashMap<SymbolRequest, ExportedSymbol>();
+		for(Map.Entry<SymbolRequest, Integer> entry : addresses.entrySet()){
+			SymbolRequest request = entry.getKey();
+			symbols.put(request, new ExportedSymbol(entry.getValue(), request.getRplName(), request.getSymbolName(), this));
+		}
+		
+		return symbols;
+	}
+	
+	/**
+	 * Gets symbols from the symbol cache file or the Wii U, without looking at the symbol cache
+	 * 
+	 * @param requests The symbols to get, without duplicates
+	 * 
+	 * @return The addresses, mapped by their requests
+	 * */
+	private Map<SymbolRequest, Integer> loadSymbols(Collection<SymbolRequest> requests) throws IOException, WiiUException {
+		Map<SymbolRequest, Integer> addresses = new LinkedHashMap<SymbolRequest, Integer>();
+		List<SymbolRequest> missing = new ArrayList<SymbolRequest>();
+		
+		// The file cache saves us the GET_SYMBOL round-trip
+		for(SymbolRequest request : requests){
+			Integer cachedAddress = symbolCacheFile == null ? null : symbolCacheFile.getAddress(request.getRplName(), request.getSymbolName(), request.isPointer(), request.isData());
+			if(cachedAddress != null){
+				addresses.put(request, cachedAddress);
+			}else{
+				missing.add(request);
+			}
+		}
+		
+		// Send all of the lookups, then read all of the replies
+		int received = 0;
+		for(int requested = 0; requested < missing.size(); requested++){
+			SymbolRequest request = missing.get(requested);
+			requestSymbol(request.getRplName(), request.getSymbolName(), request.isData());
 			
-			// Check if we have the requested symbol cached
-			if(rplHashMap != null){
-				ExportedSymbol symbol = rplHashMap.get(symbolName);
-				if(symbol != null){
-					debug("Hit the cache!");
-					// We do, so we are done
-					return symbol;
+			if((requested + 1 - received) * 4 >= PIPELINE_WINDOW || requested + 1 == missing.size()){
+				while(received <= requested){
+					SymbolRequest receivedRequest = missing.get(received++);
+					int address = readInteger();
+					addresses.put(receivedRequest, address);
+					
+					// 0 means the lookup failed, it may work next time
+					if(symbolCacheFile != null && address != 0){
+						symbolCacheFile.putAddress(receivedRequest.getRplName(), receivedRequest.getSymbolName(), receivedRequest.isPointer(), receivedRequest.isData(), address);
+					}
 				}
 			}
 		}
 		
+		// Dereference all of the pointers at once
+		Transaction transaction = pipeline();
+		Map<SymbolRequest, Transaction.Reply<Integer>> pointers = new HashMap<SymbolRequest, Transaction.Reply<Integer>>();
+		for(Map.Entry<SymbolRequest, Integer> entry : addresses.entrySet()){
+			// Unknown symbols stay 0, there is nothing to dereference
+			if(entry.getKey().isPointer() && entry.getValue() != 0){
+				pointers.put(entry.getKey(), transaction.peekInteger(entry.getValue() & 0x00000000FFFFFFFFL));
+			}
+		}
+		transaction.execute();
+		
+		for(Map.Entry<SymbolRequest, Transaction.Reply<Integer>> entry : pointers.entrySet()){
+			addresses.put(entry.getKey(), entry.getValue().get());
+		}
+		
+		return addresses;
+	}
+	
+	/**
+	 * Queues a GET_SYMBOL command, does not flush anything<br>
+	 * The Wii U replies with the address as an integer
+	 * 
+	 * @param rplName The PRL the symbol refers to
+	 * @param symbolName The name of the symbol
+	 * @param isData Is the symbol data?
+	 * 
+	 * @throws IOException If there was an error writing to the Wii U
+	 * */
+	void requestSymbol(String rplName, String symbolName, boolean isData) throws IOException {
 		// Ask the Wii U for a symbol
 		sendCommand(Commands.GET_SYMBOL);
 		
-		// We need to buffer the strings to get the length
-		ByteArrayOutputStream request = new ByteArrayOutputStream();
+		byte[] rplBytes = rplName.getBytes(StandardCharsets.UTF_8);
+		byte[] symbolBytes = symbolName.getBytes(StandardCharsets.UTF_8);
 		
-		// This length is static at least
-		request.write(new byte[]{ 0x00, 0x00, 0x00, 0x08 });
+		// Write the size of our request, two offsets and the null terminated names
+		writeByte((byte) (8 + rplBytes.length + 1 + symbolBytes.length + 1));
+		
+		// This offset is static at least
+		writeInteger(8);
 		
 		// This one is easy to get as well
-		int length = rplName.length() + 9;
-		request.write(new byte[]{ (byte) ((length >>> 24) & 0xFF), (byte) ((length >>> 16) & 0xFF), (byte) ((length >>> 8) & 0xFF), (byte) (length & 0xFF) });
+		writeInteger(rplBytes.length + 9);
 		
 		// Write the UTF-8 encoded null terminated names
-		request.write(rplName.getBytes(StandardCharsets.UTF_8));
-		request.write(0);
-		request.write(symbolName.getBytes(StandardCharsets.UTF_8));
-		request.write(0);
-		
-		// Write the size of our request
-		writeByte((byte) request.size());
-		
-		// Write our request
-		writeData(request.toByteArray());
+		writeData(rplBytes);
+		writeByte((byte) 0);
+		writeData(symbolBytes);
+		writeByte((byte) 0);
 		
 		// Specify if this is a data symbol
 		writeByte((byte) (isData ? 1 : 0));
+	}
+	
+	/**
+	 * Loads a symbol cache file and uses it from now on, this also enables the symbol cache<br>
+	 * If the file was made for the same OS version all of its symbols are resolved right away, pointers with a single round-trip<br>
+	 * If the OS version changed the old symbols are thrown away<br>
+	 * New symbols are written to the file by {@link #saveSymbolCache()} and when the connection is closed
+	 * 
+	 * @param file The file to use, it does not have to exist
+	 * 
+	 * @throws IOException If there was an error reading the file or talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * */
+	public void loadSymbolCache(File file) throws IOException, WiiUException {
+		int osVersion = getOsVersion();
+		debug("Loading symbol cache " + file + " for OS version " + osVersion);
 		
-		// Get returned address
-		int address = readInteger();
+		symbolCacheFile = new SymbolCacheFile(file, osVersion);
+		setSymbolCacheEnabled(true);
 		
-		// Dereference pointer if we need to
-		if(isPointer){
-			address = peekInteger(address);
+		// Everything is in the file, so this only has to dereference the pointers
+		List<SymbolRequest> requests = new ArrayList<SymbolRequest>();
+		for(SymbolCacheFile.Entry entry : symbolCacheFile.getEntries()){
+			requests.add(new SymbolRequest(entry.getRplName(), entry.getSymbolName(), entry.isPointer(), entry.isData()));
 		}
-		
-		ExportedSymbol symbol = new ExportedSymbol(address, rplName, symbolName, this);
-		
-		// Cache the symbol if we need to
-		if(enableSymbolCache){
-			// This is slightly slower, but more compact
-			// Speed should not be a problem, as it will get cached anyway
-			if(!symbolCache.containsKey(rplName)){
-				symbolCache.put(rplName, new HashMap<String, ExportedSymbol>());
-			}
-			
-			// Since we know the symbol does not exist, we do not have to check for it
-			symbolCache.get(rplName).put(symbolName, symbol);
+		symbolCache.getAll(requests, symbolLoader);
+	}
+	
+	/**
+	 * Writes new symbols to the symbol cache file, does nothing if no file was loaded
+	 * 
+	 * @throws IOException If there was an error writing the file
+	 * */
+	public void saveSymbolCache() throws IOException {
+		if(symbolCacheFile != null){
+			symbolCacheFile.save();
 		}
-		
-		return symbol;
 	}
 	
-
-
+	/**
+	 * Gets the symbol cache file in use
+	 * 
+	 * @return The symbol cache file, or null if none was loaded
+	 * */
+	public SymbolCacheFile getSymbolCacheFile() {
+		return symbolCacheFile;
+	}
+	
 	/**
 	 * Gets a symbol from the Wii U<br>
 	 * Does the same thing as calling {@link com.wiiudev.tcpgecko.TcpGecko#getSymbol(String, String, boolean, boolean) getSymbol(rplName, symbolName, false, false)}
@@ -881,6 +1624,8 @@ public class TcpGecko implements Closeable {
 	 * @param value The value to search for
 	 * @param length The amount of memory to search
 	 * 
+	 * @return The address of the first match, or 0 if there is none
+	 * 
 	 * @throws IOException
 	 * */
 	public long memorySearch(long address, int value, int length) throws IOException{
@@ -892,6 +1637,43 @@ public class TcpGecko implements Closeable {
 		return result & 0x00000000FFFFFFFFL;
 	}
 	
+	/**
+	 * Finds every match of one or more integers in the Wii U's memory, the Wii U does the scanning<br>
+	 * Same as calling {@link #findAll(long, long, int[], int) findAll(start, end, values, MemorySearch.DEFAULT_SLICE_SIZE)}
+	 * 
+	 * @param start Start of the range to search, must be divisable by 4
+	 * @param end End of the range to search, exclusive
+	 * @param values The values to search for
+	 * 
+	 * @return The search, nothing is sent until the first hit is asked for
+	 * 
+	 * @throws IllegalArgumentException If the range is invalid
+	 * */
+	public MemorySearch findAll(long start, long end, int ... values) {
+		return findAll(start, end, values, MemorySearch.DEFAULT_SLICE_SIZE);
+	}
+	
+	/**
+	 * Finds every match of one or more integers in the Wii U's memory, the Wii U does the scanning<br>
+	 * The range is split into slices that are searched at the same time, smaller slices mean more commands but fewer round-trips when there are a lot of hits
+	 * 
+	 * @param start Start of the range to search, must be divisable by 4
+	 * @param end End of the range to search, exclusive
+	 * @param values The values to search for
+	 * @param sliceSize Size of a single slice
+	 * 
+	 * @return The search, nothing is sent until the first hit is asked for
+	 * 
+	 * @throws IllegalArgumentException If the range is invalid
+	 * */
+	public MemorySearch findAll(long start, long end, int[] values, int sliceSize) {
+		if(isDebug()){
+			debug("Searching " + start + " to " + end + " for " + values.length + " values");
+		}
+		
+		return new MemorySearch(this, start, end, values, sliceSize);
+	}
+	
 	/**
 	 * Gets the console that is running the handler
 	 * 
@@ -926,20 +1708,18 @@ public class TcpGecko implements Closeable {
 	public void gcFail() throws IOException{
 		debug("Sending GSFAIL");
 		sendCommand(Commands.GCFAIL);
+		flush();
 	}
-
+	
 	/**
-	 * Clears a buffer<br>
-	 * This seems slow to me...
+	 * Clears a buffer
 	 * 
 	 * @param buffer The buffer to clear
 	 * */
 	public void clearBuffer(byte[] buffer) {
-		for(int i = 0; i < buffer.length; i++){
-			buffer[i] = 0;
-		}
+		Arrays.fill(buffer, (byte) 0);
 	}
-
+	
 	/**
 	 * Reads data from the Wii U
 	 * 
@@ -952,14 +1732,9 @@ public class TcpGecko implements Closeable {
 	public void readData(byte[] buffer, int offset, int length) throws IOException {
 		debug("Reading data from the inputStream");
 		
-		int read;
-		while(length > 0){
-			// Since this only read the available data we need to make sure to read it all
-			read = inputStream.read(buffer, offset, length);
-			
-			length -= read;
-			offset += read;
-		}
+		// The Wii U can't answer a request it didn't get
+		flush();
+		response.readData(buffer, offset, length);
 	}
 	
 	/**
@@ -982,9 +1757,8 @@ public class TcpGecko implements Closeable {
 	 * @throws IOException If there was an error reading from the Wii U
 	 */
 	public byte readByte() throws IOException{
-		byte[] buffer = new byte[1];
-		readData(buffer);
-		return buffer[0];
+		flush();
+		return response.readByte();
 	}
 	
 	/**
@@ -995,15 +1769,8 @@ public class TcpGecko implements Closeable {
 	 * @throws IOException If there was an error reading from the Wii U
 	 */
 	public short readShort() throws IOException{
-		// Shorts are two bytes
-		byte[] buffer = new byte[2];
-		
-		readData(buffer);
-		
-		// Need to create a short from the data
-		// The Wii U is big endian
-		return (short) (((buffer[0] << 8) & 0xFF00) |
-				(buffer[1] & 0x00FF));
+		flush();
+		return response.readShort();
 	}
 	
 	/**
@@ -1014,17 +1781,8 @@ public class TcpGecko implements Closeable {
 	 * @throws IOException If there was an error reading from the Wii U
 	 */
 	public int readInteger() throws IOException{
-		// Integers are four bytes
-		byte[] buffer = new byte[4];
-		
-		readData(buffer);
-		
-		// Need to create a integer from the data
-		// The Wii U is big endian
-		return (int) (((buffer[0] << 24) & 0xFF000000) |
-				((buffer[1] << 16) & 0x00FF0000) |
-				((buffer[2] <<  8) & 0x0000FF00) |
-				(buffer[3] & 0x000000FF));
+		flush();
+		return response.readInteger();
 	}
 	
 	/**
@@ -1035,24 +1793,10 @@ public class TcpGecko implements Closeable {
 	 * @throws IOException If there was an error reading from the Wii U
 	 */
 	public long readLong() throws IOException{
-		// Longs are eight bytes
-		byte[] buffer = new byte[8];
-		
-		readData(buffer);
-		
-		// Need to create a integer from the data
-		// The Wii U is big endian
-		return (long) (
-				((((long)buffer[0]) << 56) & 0xFF00000000000000L) |
-				((((long)buffer[1]) << 48) & 0x00FF000000000000L) |
-				((((long)buffer[2]) << 40) & 0x0000FF0000000000L) |
-				((((long)buffer[3]) << 32) & 0x000000FF00000000L) |
-				((((long)buffer[4]) << 24) & 0x00000000FF000000L) |
-				((((long)buffer[5]) << 16) & 0x0000000000FF0000L) |
-				((((long)buffer[6]) <<  8) & 0x000000000000FF00L) |
-				(( (long)buffer[7]       ) & 0x00000000000000FFL));
+		flush();
+		return response.readLong();
 	}
-
+	
 	/**
 	 * Gets the Status of the last command sent to the Wii U
 	 * 
@@ -1064,9 +1808,10 @@ public class TcpGecko implements Closeable {
 		byte statusByte = readByte();
 		return Status.getStatusFromByte(statusByte);
 	}
-
+	
 	/**
-	 * Writes data to the Wii U
+	 * Writes data to the Wii U<br>
+	 * The data is buffered until {@link com.wiiudev.tcpgecko.TcpGecko#flush() flush} is called or a reply is read
 	 * 
 	 * @param buffer Data to write
 	 * @param offset Offset into the buffer
@@ -1075,9 +1820,9 @@ public class TcpGecko implements Closeable {
 	 * @throws IOException If there was an error writing to the Wii U
 	 * */
 	public void writeData(byte[] buffer, int offset, int length) throws IOException{
-		debug("Writing data to the outputStream");
+		debug("Writing data to the request buffer");
 		
-		outputStream.write(buffer, offset, length);
+		request.putData(buffer, offset, length);
 	}
 	
 	/**
@@ -1100,7 +1845,7 @@ public class TcpGecko implements Closeable {
 	 * @throws IOException If there was an error writing to the Wii U
 	 * */
 	public void writeByte(byte value) throws IOException{
-		writeData(new byte[]{ value });
+		request.putByte(value);
 	}
 	
 	/**
@@ -1111,11 +1856,9 @@ public class TcpGecko implements Closeable {
 	 * @throws IOException If there was an error writing to the Wii U
 	 * */
 	public void writeShort(short value) throws IOException{
-		byte[] buffer = new byte[4];
-		buffer[0] = (byte)((value >>>  8) & 0x00FF);
-		buffer[1] = (byte)( value         & 0x00FF);
-		
-		writeData(buffer);
+		// Shorts still take up a whole integer on the wire
+		request.putShort(value);
+		request.putShort((short) 0);
 	}
 	
 	/**
@@ -1126,13 +1869,7 @@ public class TcpGecko implements Closeable {
 	 * @throws IOException If there was an error writing to the Wii U
 	 * */
 	public void writeInteger(int value) throws IOException{
-		byte[] buffer = new byte[4];
-		buffer[0] = (byte)((value >>> 24) & 0x000000FF);
-		buffer[1] = (byte)((value >>> 16) & 0x000000FF);
-		buffer[2] = (byte)((value >>>  8) & 0x000000FF);
-		buffer[3] = (byte)( value         & 0x000000FF);
-		
-		writeData(buffer);
+		request.putInteger(value);
 	}
 	
 	/**
@@ -1160,7 +1897,7 @@ public class TcpGecko implements Closeable {
 			writeInteger(integer);
 		}
 	}
-
+	
 	/**
 	 * Sends a command to the Wii U
 	 * 
@@ -1169,9 +1906,19 @@ public class TcpGecko implements Closeable {
 	 * @throws IOException If there was an error writing to the Wii U
 	 * */
 	public void sendCommand(Commands command) throws IOException {
-		writeByte(command.value);
+		request.putCommand(command);
 	}
-
+	
+	/**
+	 * Sends everything that was written since the last flush to the Wii U with a single write<br>
+	 * This is done automatically before a reply is read
+	 * 
+	 * @throws IOException If there was an error writing to the Wii U
+	 * */
+	public void flush() throws IOException {
+		request.writeTo(outputStream);
+	}
+	
 	/**
 	 * Checks if we can access a range of memory
 	 * 
@@ -1182,33 +1929,9 @@ public class TcpGecko implements Closeable {
 	 * @return True if we can access the memory
 	 * */
 	public boolean validateMemoryAccess(long address, int length, MemoryAccess access) {
-		long addressEnd =  address + length;
-		
-		if(0x01000000L <= address && addressEnd <= 0x01800000){
-			return access == MemoryAccess.READ;
-		}else if(0x0E000000L <= address && addressEnd <= 0x10000000L){
-			return access == MemoryAccess.READ;
-		}else if(0x10000000L <= address && addressEnd <= 0x50000000L){
-			return true;
-		}else if(0xE0000000L <= address && addressEnd <= 0xE4000000L){
-			return access == MemoryAccess.READ;
-		}else if(0xE8000000L <= address && addressEnd <= 0xEA000000L){
-			return access == MemoryAccess.READ;
-		}else if(0xF4000000L <= address && addressEnd <= 0xF6000000L){
-			return access == MemoryAccess.READ;
-		}else if(0xF6000000L <= address && addressEnd <= 0xF6800000L){
-			return access == MemoryAccess.READ;
-		}else if(0xF8000000L <= address && addressEnd <= 0xFB000000L){
-			return access == MemoryAccess.READ;
-		}else if(0xFB000000L <= address && addressEnd <= 0xFB800000L){
-			return access == MemoryAccess.READ;
-		}else if(0xFFFE0000L <= address && addressEnd <= 0xFFFFFFFFL){
-			return true;
-		}
-		
-		return false;
+		return memoryMap.canAccess(address, length, access);
 	}
-
+	
 	/**
 	 * Checks if a memory range is valid
 	 * 
@@ -1218,33 +1941,124 @@ public class TcpGecko implements Closeable {
 	 * @return True if the memory range is valid
 	 * */
 	public boolean validateMemoryRange(long address, int length) {
-		long addressEnd =  address + length;
-		
-		if(0x01000000L <= address && addressEnd <= 0x01800000){
-			return true;
-		}else if(0x0E000000L <= address && addressEnd <= 0x10000000L){
-			return true;
-		}else if(0x10000000L <= address && addressEnd <= 0x50000000L){
-			return true;
-		}else if(0xE0000000L <= address && addressEnd <= 0xE4000000L){
-			return true;
-		}else if(0xE8000000L <= address && addressEnd <= 0xEA000000L){
-			return true;
-		}else if(0xF4000000L <= address && addressEnd <= 0xF6000000L){
-			return true;
-		}else if(0xF6000000L <= address && addressEnd <= 0xF6800000L){
-			return true;
-		}else if(0xF8000000L <= address && addressEnd <= 0xFB000000L){
-			return true;
-		}else if(0xFB000000L <= address && addressEnd <= 0xFB800000L){
-			return true;
-		}else if(0xFFFE0000L <= address && addressEnd <= 0xFFFFFFFFL){
-			return true;
-		}
-		
-		return false;
+		return memoryMap.isValid(address, length);
 	}
-
+	
+	/**
+	 * Sets the memory map used to validate addresses, use this for firmwares with a different layout
+	 * 
+	 * @param memoryMap The memory map to use
+	 * */
+	public void setMemoryMap(MemoryMap memoryMap) {
+		if(memoryMap == null){
+			throw new IllegalArgumentException("Memory map must not be null!");
+		}
+		
+		this.memoryMap = memoryMap;
+	}
+	
+	/**
+	 * Gets the memory map used to validate addresses
+	 * 
+	 * @return The memory map
+	 * */
+	public MemoryMap getMemoryMap() {
+		return memoryMap;
+	}
+	
+	/**
+	 * Adds a listener that gets told about every write made through this connection
+	 * 
+	 * @param listener The listener to add
+	 * */
+	public void addWriteListener(IWriteListener listener) {
+		if(listener == null){
+			throw new IllegalArgumentException("Listener must not be null!");
+		}
+		
+		writeListeners.add(listener);
+	}
+	
+	/**
+	 * Removes a write listener
+	 * 
+	 * @param listener The listener to remove
+	 * */
+	public void removeWriteListener(IWriteListener listener) {
+		writeListeners.remove(listener);
+	}
+	
+	/**
+	 * Validates the parameters of a memory read
+	 * 
+	 * @param address Starting address
+	 * @param length Size of memory range
+	 * 
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	private void validateRead(long address, int length) {
+		// Validate input params
+		if(length <= 0){
+			throw new IllegalArgumentException("Length must be greater than 0!");
+		}
+		if(address < 0){
+			throw new IllegalArgumentException("Address must be positive!");
+		}
+		
+		// Make sure the Wii U will be happy
+		memoryMap.validate(address, length, MemoryAccess.READ);
+	}
+	
+	/**
+	 * Validates the parameters of a memory write
+	 * 
+	 * @param address Starting address
+	 * @param length Size of memory range
+	 * 
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	private void validateWrite(long address, int length) {
+		// Validate input params
+		if(length <= 0){
+			throw new IllegalArgumentException("Length must be greater than 0!");
+		}
+		if(address < 0){
+			throw new IllegalArgumentException("Address must be positive!");
+		}
+		
+		// Make sure the Wii U will be happy
+		memoryMap.validate(address, length, MemoryAccess.WRITE);
+	}
+	
+	/**
+	 * Tells the write listeners about a write, called once the write was sent so a read after it sees the new data
+	 * 
+	 * @param address Address of the write
+	 * @param length Length of the write
+	 * */
+	void notifyWrite(long address, int length) {
+		for(IWriteListener listener : writeListeners){
+			listener.memoryWritten(address, length);
+		}
+	}
+	
+	/**
+	 * Gets the amount of memory the Wii U did not have to send since this connection was opened, because it was all 0<br>
+	 * Useful to estimate how big a dump will really be
+	 * 
+	 * @return Amount of skipped bytes
+	 * */
+	public long getSkippedBytes() {
+		return skippedBytes;
+	}
+	
+	/**
+	 * Resets the skipped bytes counter
+	 * */
+	public void resetSkippedBytes() {
+		skippedBytes = 0;
+	}
+	
 	/**
 	 * Checks if we are caching RPC symbols
 	 * 
@@ -1270,24 +2084,47 @@ public class TcpGecko implements Closeable {
 	 * Clears the symbol cache
 	 * */
 	public void clearSymbolCache(){
-		for(String key : symbolCache.keySet()){
-			symbolCache.get(key).clear();
-		}
 		symbolCache.clear();
 	}
 	
+	/**
+	 * Sets the symbol cache to use, a cache can be shared by all connections to the same Wii U
+	 * 
+	 * @param symbolCache The symbol cache
+	 * */
+	public void setSymbolCache(SymbolCache symbolCache){
+		if(symbolCache == null){
+			throw new IllegalArgumentException("Symbol cache must not be null!");
+		}
+		
+		this.symbolCache = symbolCache;
+	}
+	
+	/**
+	 * Gets the symbol cache in use, it has the hit and miss counters
+	 * 
+	 * @return The symbol cache
+	 * */
+	public SymbolCache getSymbolCache(){
+		return symbolCache;
+	}
+	
 	@Override
 	public void close() throws IOException {
 		debug("Cleaning up, goodbye!");
 		
-		filesystemInstance.close();
-		coreInitInstance.close();
-		
-		inputStream.close();
-		outputStream.close();
-		socket.close();
+		try{
+			saveSymbolCache();
+			
+			filesystemInstance.close();
+			coreInitInstance.close();
+		}finally{
+			inputStream.close();
+			outputStream.close();
+			socket.close();
+		}
 	}
-
+	
 	public CoreInit getCoreInit() {
 		return coreInitInstance;
 	}
@@ -1295,7 +2132,7 @@ public class TcpGecko implements Closeable {
 	public Filesystem getFilesystem(){
 		return filesystemInstance;
 	}
-
+	
 	/**
 	 * Helper method<br>
 	 * calls {@link com.wiiudev.tcpgecko.TcpGecko#getSymbol(String, String) getSymbol(rplName, symbolName)} then {@link com.wiiudev.tcpgecko.ExportedSymbol#call(int...) call(params)}
@@ -1324,6 +2161,13 @@ public class TcpGecko implements Closeable {
 		logger.log(Level.INFO, string);
 	}
 	
+	/**
+	 * Checks if debug messages are logged, used to skip building them on hot paths
+	 * */
+	private boolean isDebug() {
+		return logger.isLoggable(Level.INFO);
+	}
+	
 	/**
 	 * Sets the logging {@link java.util.logging.Level level} of this instance<br>
 	 * Default level is {@link java.util.logging.Level#WARNING warning}
@@ -1333,7 +2177,7 @@ public class TcpGecko implements Closeable {
 	public void setLoggingLevel(Level level){
 		logger.setLevel(level);
 	}
-
+	
 	/**
 	 * Adds a new {@link java.util.logging.Handler handler} to the logger
 	 * 
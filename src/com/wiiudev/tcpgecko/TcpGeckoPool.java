@@ -0,0 +1,440 @@
+package com.wiiudev.tcpgecko;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread safe pool of connections to the same Wii U<br>
+ * A {@link com.wiiudev.tcpgecko.TcpGecko TcpGecko} can only be used by one thread at a time, the pool hands every connection to one caller at a time<br>
+ * <br>
+ * If the TCPGecko server only serves a single client, the pool falls back to one connection and callers wait for it in order
+ * 
+ * @author gudenau
+ * */
+public class TcpGeckoPool implements Closeable {
+	private static final int DEFAULT_PORT = 7331;
+	
+	/**
+	 * How long a new connection has to answer before we decide the server is single client
+	 * */
+	private static final int PROBE_TIMEOUT = 1000;
+	
+	/**
+	 * Reads smaller than this are not worth splitting
+	 * */
+	private static final int SPLIT_THRESHOLD = 0x10000;
+	
+	/**
+	 * How often a caller waiting for a connection checks if the pool is still usable
+	 * */
+	private static final long BORROW_POLL = 100;
+	
+	private final String host;
+	private final int port;
+	
+	private final BlockingQueue<TcpGecko> idle;
+	private final List<TcpGecko> connections = new ArrayList<TcpGecko>();
+	private final AtomicInteger alive = new AtomicInteger();
+	private final SymbolCache symbolCache = new SymbolCache();
+	private final ExecutorService executor;
+	private volatile boolean closed;
+	
+	/**
+	 * Opens a pool to the provided host with the default port
+	 * 
+	 * @param host Hostname to use, most likely an IP
+	 * @param connections The most connections to open
+	 * 
+	 * @throws IOException If the first connection could not be opened
+	 * */
+	public TcpGeckoPool(String host, int connections) throws IOException {
+		this(host, DEFAULT_PORT, connections);
+	}
+	
+	/**
+	 * Opens a pool to the provided host with the provided port<br>
+	 * Connections past the first one are only kept if the server answers on them
+	 * 
+	 * @param host Hostname to use, most likely an IP
+	 * @param port The port to use when connecting
+	 * @param connections The most connections to open
+	 * 
+	 * @throws IOException If the first connection could not be opened
+	 * */
+	public TcpGeckoPool(String host, int port, int connections) throws IOException {
+		if(connections <= 0){
+			throw new IllegalArgumentException("Connections must be greater than 0!");
+		}
+		
+		this.host = host;
+		this.port = port;
+		
+		// The first one has to work, there is nothing to fall back to
+		TcpGecko first = new TcpGecko(host, port);
+		first.setSymbolCache(symbolCache);
+		this.connections.add(first);
+		
+		for(int i = 1; i < connections; i++){
+			TcpGecko gecko = probe();
+			if(gecko == null){
+				break;
+			}
+			gecko.setSymbolCache(symbolCache);
+			this.connections.add(gecko);
+		}
+		
+		// Fair, so nobody waits forever when there is only one connection
+		idle = new ArrayBlockingQueue<TcpGecko>(this.connections.size(), true);
+		idle.addAll(this.connections);
+		alive.set(this.connections.size());
+		
+		if(this.connections.size() > 1){
+			executor = Executors.newFixedThreadPool(this.connections.size(), new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+				
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "TCPGecko pool " + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}else{
+			executor = null;
+		}
+	}
+	
+	/**
+	 * Opens another connection and checks that the server answers on it
+	 * 
+	 * @return The new connection, or null if the server did not answer
+	 * */
+	private TcpGecko probe() {
+		Socket socket = new Socket();
+		try{
+			socket.connect(new InetSocketAddress(host, port), PROBE_TIMEOUT);
+			socket.setSoTimeout(PROBE_TIMEOUT);
+			
+			TcpGecko gecko = new TcpGecko(socket);
+			gecko.getVersion();
+			
+			socket.setSoTimeout(0);
+			return gecko;
+		}catch(IOException e){
+			// Single client servers leave us waiting in the backlog
+			try{
+				socket.close();
+			}catch(IOException ignored){}
+			return null;
+		}
+	}
+	
+	/**
+	 * Runs a task with a connection from the pool, waits for a connection if they are all in use<br>
+	 * If the task fails with anything but an IllegalArgumentException the connection is thrown away and reopened,
+	 * replies of a pipelined request can still be waiting on it
+	 * 
+	 * @param task The task to run
+	 * 
+	 * @return The result of the task
+	 * 
+	 * @throws IOException If there was an error talking to the Wii U or the pool is closed
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * */
+	public <T> T execute(IGeckoTask<T> task) throws IOException, WiiUException {
+		TcpGecko gecko = borrow();
+		boolean broken = true;
+		try{
+			T result = task.run(gecko);
+			broken = false;
+			return result;
+		}catch(IllegalArgumentException e){
+			// Parameters are validated before anything is sent
+			broken = false;
+			throw e;
+		}finally{
+			if(broken){
+				replace(gecko);
+			}else{
+				idle.add(gecko);
+			}
+		}
+	}
+	
+	private TcpGecko borrow() throws IOException {
+		while(true){
+			if(closed){
+				throw new IOException("The pool is closed!");
+			}
+			if(alive.get() <= 0){
+				throw new IOException("The pool has no connections left!");
+			}
+			
+			// Timed, so waiters notice when the last connection died or the pool was closed
+			try{
+				TcpGecko gecko = idle.poll(BORROW_POLL, TimeUnit.MILLISECONDS);
+				if(gecko != null){
+					return gecko;
+				}
+			}catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while waiting for a connection!", e);
+			}
+		}
+	}
+	
+	/**
+	 * Throws away a connection that might be out of sync and tries to open a new one
+	 * */
+	private void replace(TcpGecko gecko) {
+		try{
+			gecko.close();
+		}catch(IOException ignored){}
+		
+		synchronized(connections){
+			connections.remove(gecko);
+			
+			if(!closed){
+				try{
+					TcpGecko replacement = new TcpGecko(host, port);
+					replacement.setSymbolCache(symbolCache);
+					connections.add(replacement);
+					idle.add(replacement);
+					return;
+				}catch(IOException ignored){}
+			}
+		}
+		
+		alive.decrementAndGet();
+	}
+	
+	/**
+	 * Reads memory from a Wii U, big reads are split over all the connections of the pool
+	 * 
+	 * @param address Address to read from
+	 * @param data Buffer to write
+	 * @param offset Offset into the buffer
+	 * @param length Length of the data to read
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public void readMemory(final long address, final byte[] data, final int offset, final int length) throws IOException, WiiUException {
+		int parts = alive.get();
+		if(executor == null || parts <= 1 || length < SPLIT_THRESHOLD){
+			execute(new IGeckoTask<Void>() {
+				@Override
+				public Void run(TcpGecko gecko) throws IOException, WiiUException {
+					gecko.readMemory(address, data, offset, length);
+					return null;
+				}
+			});
+			return;
+		}
+		
+		// Keep the parts on chunk boundaries
+		int partLength = (length / parts + TcpGecko.CHUNK_SIZE - 1) & ~(TcpGecko.CHUNK_SIZE - 1);
+		
+		List<Future<Void>> futures = new ArrayList<Future<Void>>();
+		for(int start = 0; start < length; start += partLength){
+			final long partAddress = address + start;
+			final int partOffset = offset + start;
+			final int partSize = Math.min(partLength, length - start);
+			
+			futures.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					return execute(new IGeckoTask<Void>() {
+						@Override
+						public Void run(TcpGecko gecko) throws IOException, WiiUException {
+							gecko.readMemory(partAddress, data, partOffset, partSize);
+							return null;
+						}
+					});
+				}
+			}));
+		}
+		
+		waitFor(futures);
+	}
+	
+	/**
+	 * Reads memory from a Wii U, big reads are split over all the connections of the pool
+	 * 
+	 * @param address Address to read from
+	 * @param length Length of the data to read
+	 * 
+	 * @return Data read
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public byte[] readMemory(long address, int length) throws IOException, WiiUException {
+		if(length <= 0){
+			throw new IllegalArgumentException("Length must be greater than 0!");
+		}
+		
+		byte[] data = new byte[length];
+		readMemory(address, data, 0, length);
+		return data;
+	}
+	
+	/**
+	 * Reads blocks of the same size from many addresses, the blocks are split over all the connections of the pool<br>
+	 * Block i is stored at offset + i * length in the buffer
+	 * 
+	 * @param addresses The addresses of the blocks
+	 * @param first Index of the first address to read
+	 * @param count Amount of blocks to read
+	 * @param length Size of a single block
+	 * @param data Buffer to store the blocks
+	 * @param offset Offset into the buffer
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If length or an address is invalid
+	 * */
+	public void readBlocks(final long[] addresses, final int first, final int count, final int length, final byte[] data, final int offset) throws IOException, WiiUException {
+		int parts = alive.get();
+		if(executor == null || parts <= 1 || (long) count * length < SPLIT_THRESHOLD){
+			execute(new IGeckoTask<Void>() {
+				@Override
+				public Void run(TcpGecko gecko) throws IOException, WiiUException {
+					gecko.readBlocks(addresses, first, count, length, data, offset);
+					return null;
+				}
+			});
+			return;
+		}
+		
+		if(offset < 0 || offset + (long) count * length > data.length){
+			throw new IllegalArgumentException("Buffer is too small!");
+		}
+		
+		int partCount = (count + parts - 1) / parts;
+		
+		List<Future<Void>> futures = new ArrayList<Future<Void>>();
+		for(int start = 0; start < count; start += partCount){
+			final int partFirst = start;
+			final int partSize = Math.min(partCount, count - start);
+			
+			futures.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					return execute(new IGeckoTask<Void>() {
+						@Override
+						public Void run(TcpGecko gecko) throws IOException, WiiUException {
+							gecko.readBlocks(addresses, first + partFirst, partSize, length, data, offset + partFirst * length);
+							return null;
+						}
+					});
+				}
+			}));
+		}
+		
+		waitFor(futures);
+	}
+	
+	/**
+	 * Waits for all the futures, rethrows the first failure
+	 * */
+	private static void waitFor(List<? extends Future<?>> futures) throws IOException, WiiUException {
+		Throwable failure = null;
+		for(Future<?> future : futures){
+			try{
+				future.get();
+			}catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+				if(failure == null){
+					failure = e;
+				}
+			}catch(ExecutionException e){
+				if(failure == null){
+					failure = e.getCause();
+				}
+			}
+		}
+		
+		if(failure == null){
+			return;
+		}
+		if(failure instanceof IOException){
+			throw (IOException) failure;
+		}
+		if(failure instanceof WiiUException){
+			throw (WiiUException) failure;
+		}
+		if(failure instanceof RuntimeException){
+			throw (RuntimeException) failure;
+		}
+		throw new IOException("Parallel read failed!", failure);
+	}
+	
+	/**
+	 * Gets the symbol cache shared by all of the connections, so a symbol is only looked up once
+	 * 
+	 * @return The symbol cache
+	 * */
+	public SymbolCache getSymbolCache() {
+		return symbolCache;
+	}
+	
+	/**
+	 * Gets the amount of working connections in the pool
+	 * 
+	 * @return The amount of connections
+	 * */
+	public int getConnectionCount() {
+		return alive.get();
+	}
+	
+	/**
+	 * Checks if the server only accepted a single connection
+	 * 
+	 * @return True if all requests go through one connection
+	 * */
+	public boolean isSingleClient() {
+		return executor == null;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		
+		if(executor != null){
+			executor.shutdownNow();
+		}
+		
+		IOException failure = null;
+		synchronized(connections){
+			for(TcpGecko gecko : connections){
+				try{
+					gecko.close();
+				}catch(IOException e){
+					failure = e;
+				}
+			}
+			connections.clear();
+		}
+		
+		if(failure != null){
+			throw failure;
+		}
+	}
+}
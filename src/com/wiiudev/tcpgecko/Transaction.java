@@ -0,0 +1,556 @@
+package com.wiiudev.tcpgecko;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.wiiudev.tcpgecko.enumeration.Commands;
+import com.wiiudev.tcpgecko.enumeration.MemoryAccess;
+import com.wiiudev.tcpgecko.io.BigEndian;
+
+/**
+ * A batch of commands that get sent to the Wii U in one go<br>
+ * The replies are read back in order once everything was sent, so a lot of commands only cost about one round-trip<br>
+ * <br>
+ * Nothing is sent until {@link #execute()} is called, values read by the transaction are available from the returned {@link Reply replies} after that
+ * 
+ * @author gudenau
+ * */
+public class Transaction {
+	private final TcpGecko gecko;
+	private final List<Step> steps = new ArrayList<Step>();
+	private final List<long[]> writes = new ArrayList<long[]>();
+	private boolean executed;
+	
+	Transaction(TcpGecko gecko) {
+		this.gecko = gecko;
+	}
+	
+	/**
+	 * Queues a byte poke
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return This transaction
+	 * 
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public Transaction pokeMemory(final long address, final byte value) {
+		validate(address, 1, MemoryAccess.WRITE);
+		writes.add(new long[]{address, 1});
+		steps.add(new Step(0) {
+			@Override
+			void send() throws IOException {
+				gecko.sendCommand(Commands.MEMORY_POKE_8);
+				gecko.writeInteger((int)address);
+				gecko.writeByte(value);
+			}
+		});
+		return this;
+	}
+	
+	/**
+	 * Queues a short poke
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return This transaction
+	 * 
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public Transaction pokeMemory(final long address, final short value) {
+		validate(address, 2, MemoryAccess.WRITE);
+		writes.add(new long[]{address, 2});
+		steps.add(new Step(0) {
+			@Override
+			void send() throws IOException {
+				gecko.sendCommand(Commands.MEMORY_POKE_16);
+				gecko.writeInteger((int)address);
+				gecko.writeShort(value);
+			}
+		});
+		return this;
+	}
+	
+	/**
+	 * Queues an integer poke
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return This transaction
+	 * 
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public Transaction pokeMemory(final long address, final int value) {
+		validate(address, 4, MemoryAccess.WRITE);
+		writes.add(new long[]{address, 4});
+		steps.add(new Step(0) {
+			@Override
+			void send() throws IOException {
+				gecko.sendCommand(Commands.MEMORY_POKE_32);
+				gecko.writeIntegers((int)address, value);
+			}
+		});
+		return this;
+	}
+	
+	/**
+	 * Queues a long poke, this is two integer pokes
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return This transaction
+	 * 
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public Transaction pokeMemory(long address, long value) {
+		// Both halves have to be in the same region, the integer pokes report the write
+		validate(address, 8, MemoryAccess.WRITE);
+		pokeMemory(address, (int) ((value >> 32) & 0x00000000FFFFFFFF));
+		pokeMemory(address + 4, (int) (value & 0x00000000FFFFFFFF));
+		return this;
+	}
+	
+	/**
+	 * Queues a float poke
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return This transaction
+	 * 
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public Transaction pokeMemory(long address, float value) {
+		return pokeMemory(address, Float.floatToRawIntBits(value));
+	}
+	
+	/**
+	 * Queues a double poke
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return This transaction
+	 * 
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public Transaction pokeMemory(long address, double value) {
+		return pokeMemory(address, Double.doubleToRawLongBits(value));
+	}
+	
+	/**
+	 * Queues a memory write, if the length is greater than 0x0400 it is written in blocks<br>
+	 * The data is not copied, so it must not be changed before the transaction is executed
+	 * 
+	 * @param address Address to write to
+	 * @param data The data to be written
+	 * @param offset Offset into the data to start
+	 * @param length Amount of data to write
+	 * 
+	 * @return This transaction
+	 * 
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public Transaction writeMemory(long address, final byte[] data, int offset, int length) {
+		if(length <= 0){
+			throw new IllegalArgumentException("Length must be greater than 0!");
+		}
+		validate(address, length, MemoryAccess.WRITE);
+		writes.add(new long[]{address, length});
+		
+		while(length > 0){
+			final long chunkAddress = address;
+			final int chunkOffset = offset;
+			final int chunkLength = length > TcpGecko.CHUNK_SIZE ? TcpGecko.CHUNK_SIZE : length;
+			
+			steps.add(new Step(1) {
+				@Override
+				void send() throws IOException {
+					gecko.requestMemoryWrite(chunkAddress, data, chunkOffset, chunkLength);
+				}
+				
+				@Override
+				void receive() throws IOException, WiiUException {
+					gecko.receiveMemoryWrite();
+				}
+			});
+			
+			address += chunkLength;
+			offset += chunkLength;
+			length -= chunkLength;
+		}
+		return this;
+	}
+	
+	/**
+	 * Queues a memory write, if the length is greater than 0x0400 it is written in blocks
+	 * 
+	 * @param address Address to write to
+	 * @param data The data to be written
+	 * 
+	 * @return This transaction
+	 * 
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public Transaction writeMemory(long address, byte[] data) {
+		return writeMemory(address, data, 0, data.length);
+	}
+	
+	/**
+	 * Queues a memory read into the provided buffer, if the length is greater than 0x0400 it is read in blocks
+	 * 
+	 * @param address Address to read from
+	 * @param data Buffer to write
+	 * @param offset Offset into the buffer
+	 * @param length Length of the data to read
+	 * 
+	 * @return A reply that holds the buffer once the transaction is executed
+	 * 
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public Reply<byte[]> readMemory(long address, final byte[] data, int offset, int length) {
+		final Reply<byte[]> reply = new Reply<byte[]>();
+		queueRead(address, data, offset, length, new Runnable() {
+			@Override
+			public void run() {
+				reply.set(data);
+			}
+		});
+		return reply;
+	}
+	
+	/**
+	 * Queues a memory read, if the length is greater than 0x0400 it is read in blocks
+	 * 
+	 * @param address Address to read from
+	 * @param length Length of the data to read
+	 * 
+	 * @return A reply that holds the data once the transaction is executed
+	 * 
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public Reply<byte[]> readMemory(long address, int length) {
+		if(length <= 0){
+			throw new IllegalArgumentException("Length must be greater than 0!");
+		}
+		return readMemory(address, new byte[length], 0, length);
+	}
+	
+	/**
+	 * Queues a byte peek
+	 * 
+	 * @param address The address to peek
+	 * 
+	 * @return A reply that holds the value once the transaction is executed
+	 * 
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public Reply<Byte> peekByte(long address) {
+		final byte[] data = new byte[1];
+		final Reply<Byte> reply = new Reply<Byte>();
+		queueRead(address, data, 0, 1, new Runnable() {
+			@Override
+			public void run() {
+				reply.set(data[0]);
+			}
+		});
+		return reply;
+	}
+	
+	/**
+	 * Queues a short peek
+	 * 
+	 * @param address The address to peek
+	 * 
+	 * @return A reply that holds the value once the transaction is executed
+	 * 
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public Reply<Short> peekShort(long address) {
+		final byte[] data = new byte[2];
+		final Reply<Short> reply = new Reply<Short>();
+		queueRead(address, data, 0, 2, new Runnable() {
+			@Override
+			public void run() {
+				reply.set(BigEndian.getShort(data, 0));
+			}
+		});
+		return reply;
+	}
+	
+	/**
+	 * Queues an integer peek
+	 * 
+	 * @param address The address to peek
+	 * 
+	 * @return A reply that holds the value once the transaction is executed
+	 * 
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public Reply<Integer> peekInteger(long address) {
+		final byte[] data = new byte[4];
+		final Reply<Integer> reply = new Reply<Integer>();
+		queueRead(address, data, 0, 4, new Runnable() {
+			@Override
+			public void run() {
+				reply.set(BigEndian.getInteger(data, 0));
+			}
+		});
+		return reply;
+	}
+	
+	/**
+	 * Queues a long peek
+	 * 
+	 * @param address The address to peek
+	 * 
+	 * @return A reply that holds the value once the transaction is executed
+	 * 
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public Reply<Long> peekLong(long address) {
+		final byte[] data = new byte[8];
+		final Reply<Long> reply = new Reply<Long>();
+		queueRead(address, data, 0, 8, new Runnable() {
+			@Override
+			public void run() {
+				reply.set(BigEndian.getLong(data, 0));
+			}
+		});
+		return reply;
+	}
+	
+	/**
+	 * Queues a float peek
+	 * 
+	 * @param address The address to peek
+	 * 
+	 * @return A reply that holds the value once the transaction is executed
+	 * 
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public Reply<Float> peekFloat(long address) {
+		final byte[] data = new byte[4];
+		final Reply<Float> reply = new Reply<Float>();
+		queueRead(address, data, 0, 4, new Runnable() {
+			@Override
+			public void run() {
+				reply.set(Float.intBitsToFloat(BigEndian.getInteger(data, 0)));
+			}
+		});
+		return reply;
+	}
+	
+	/**
+	 * Queues a call of a method on the Wii U
+	 * 
+	 * @param symbol The symbol that defines the method
+	 * @param params The parameters for the method
+	 * 
+	 * @return A reply that holds the returned value once the transaction is executed
+	 * 
+	 * @throws IllegalArgumentException If there are to many parameters
+	 * */
+	public Reply<Long> callRemoteMethod(final ExportedSymbol symbol, final int ... params) {
+		if(executed){
+			throw new IllegalStateException("The transaction was already executed!");
+		}
+		if(params.length > 16){
+			throw new IllegalArgumentException("Too many paramaters!");
+		}
+		
+		final Reply<Long> reply = new Reply<Long>();
+		steps.add(new Step(8) {
+			@Override
+			void send() throws IOException {
+				gecko.requestRemoteCall(symbol, params);
+			}
+			
+			@Override
+			void receive() throws IOException, WiiUException {
+				reply.set(gecko.readLong());
+			}
+		});
+		return reply;
+	}
+	
+	/**
+	 * Gets the amount of commands queued in this transaction
+	 * 
+	 * @return The amount of commands
+	 * */
+	public int size() {
+		return steps.size();
+	}
+	
+	/**
+	 * Sends every queued command and reads the replies back in order<br>
+	 * A transaction can only be executed once
+	 * 
+	 * @throws IOException If there was an error talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalStateException If the transaction was already executed
+	 * */
+	public void execute() throws IOException, WiiUException {
+		if(executed){
+			throw new IllegalStateException("The transaction was already executed!");
+		}
+		executed = true;
+		
+		int first = 0;
+		int pendingReply = 0;
+		try{
+			for(int i = 0; i < steps.size(); i++){
+				Step step = steps.get(i);
+				step.send();
+				pendingReply += step.replySize;
+				
+				// Don't let too much reply data pile up, read what we have so far
+				if(pendingReply >= TcpGecko.PIPELINE_WINDOW){
+					receive(first, i + 1);
+					first = i + 1;
+					pendingReply = 0;
+				}
+			}
+			
+			gecko.flush();
+			receive(first, steps.size());
+		}finally{
+			// Only now the writes are on the Wii U, a cache that dropped them earlier could have read the old data again
+			for(long[] write : writes){
+				gecko.notifyWrite(write[0], (int) write[1]);
+			}
+		}
+		
+		steps.clear();
+		writes.clear();
+	}
+	
+	private void receive(int start, int end) throws IOException, WiiUException {
+		for(int i = start; i < end; i++){
+			steps.get(i).receive();
+		}
+	}
+	
+	private void queueRead(long address, byte[] data, int offset, int length, Runnable done) {
+		if(length <= 0){
+			throw new IllegalArgumentException("Length must be greater than 0!");
+		}
+		validate(address, length, MemoryAccess.READ);
+		
+		while(length > 0){
+			final long chunkAddress = address;
+			final int chunkLength = length > TcpGecko.CHUNK_SIZE ? TcpGecko.CHUNK_SIZE : length;
+			steps.add(new ReadStep(chunkAddress, data, offset, chunkLength, length == chunkLength ? done : null));
+			
+			address += chunkLength;
+			offset += chunkLength;
+			length -= chunkLength;
+		}
+	}
+	
+	private void validate(long address, int length, MemoryAccess access) {
+		if(executed){
+			throw new IllegalStateException("The transaction was already executed!");
+		}
+		if(address < 0){
+			throw new IllegalArgumentException("Address must be positive!");
+		}
+		
+		// Make sure the Wii U will be happy
+		gecko.getMemoryMap().validate(address, length, access);
+	}
+	
+	/**
+	 * A single command in the transaction
+	 * */
+	private abstract static class Step {
+		/**
+		 * The most data the Wii U can send back for this command
+		 * */
+		final int replySize;
+		
+		Step(int replySize) {
+			this.replySize = replySize;
+		}
+		
+		abstract void send() throws IOException;
+		
+		void receive() throws IOException, WiiUException {}
+	}
+	
+	private class ReadStep extends Step {
+		private final long address;
+		private final byte[] data;
+		private final int offset;
+		private final int length;
+		private final Runnable done;
+		
+		ReadStep(long address, byte[] data, int offset, int length, Runnable done) {
+			super(length + 1);
+			this.address = address;
+			this.data = data;
+			this.offset = offset;
+			this.length = length;
+			this.done = done;
+		}
+		
+		@Override
+		void send() throws IOException {
+			gecko.requestMemoryRead(address, length);
+		}
+		
+		@Override
+		void receive() throws IOException, WiiUException {
+			gecko.receiveMemoryRead(data, offset, length);
+			if(done != null){
+				done.run();
+			}
+		}
+	}
+	
+	/**
+	 * A value that will be available once the {@link Transaction transaction} that created it is executed
+	 * 
+	 * @author gudenau
+	 * */
+	public static class Reply<T> {
+		private T value;
+		private boolean done;
+		
+		Reply() {}
+		
+		void set(T value) {
+			this.value = value;
+			this.done = true;
+		}
+		
+		/**
+		 * Checks if the value was received
+		 * 
+		 * @return True if the value is available
+		 * */
+		public boolean isDone() {
+			return done;
+		}
+		
+		/**
+		 * Gets the received value
+		 * 
+		 * @return The value
+		 * 
+		 * @throws IllegalStateException If the transaction was not executed yet
+		 * */
+		public T get() {
+			if(!done){
+				throw new IllegalStateException("The transaction has not been executed yet!");
+			}
+			return value;
+		}
+	}
+}
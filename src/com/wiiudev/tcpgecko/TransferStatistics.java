@@ -0,0 +1,75 @@
+package com.wiiudev.tcpgecko;
+
+/**
+ * Statistics about a finished transfer, used to see how fast the Wii U can be talked to
+ * 
+ * @author gudenau
+ * */
+public class TransferStatistics {
+	private final long bytes;
+	private final int commands;
+	private final long nanos;
+	
+	/**
+	 * Creates transfer statistics
+	 * 
+	 * @param bytes Amount of data that was transfered
+	 * @param commands Amount of commands that were sent
+	 * @param nanos How long the transfer took, in nanoseconds
+	 * */
+	public TransferStatistics(long bytes, int commands, long nanos) {
+		this.bytes = bytes;
+		this.commands = commands;
+		this.nanos = nanos;
+	}
+	
+	/**
+	 * Gets the amount of data that was transfered
+	 * 
+	 * @return The amount of data
+	 * */
+	public long getBytes() {
+		return bytes;
+	}
+	
+	/**
+	 * Gets the amount of commands that were sent
+	 * 
+	 * @return The amount of commands
+	 * */
+	public int getCommands() {
+		return commands;
+	}
+	
+	/**
+	 * Gets how long the transfer took
+	 * 
+	 * @return The time in nanoseconds
+	 * */
+	public long getNanos() {
+		return nanos;
+	}
+	
+	/**
+	 * Gets the throughput of the transfer
+	 * 
+	 * @return Bytes per second
+	 * */
+	public double getBytesPerSecond() {
+		return nanos <= 0 ? 0 : bytes * 1000000000.0 / nanos;
+	}
+	
+	/**
+	 * Gets the command rate of the transfer
+	 * 
+	 * @return Commands per second
+	 * */
+	public double getCommandsPerSecond() {
+		return nanos <= 0 ? 0 : commands * 1000000000.0 / nanos;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%d bytes, %d commands in %.3f ms (%.1f KiB/s)", bytes, commands, nanos / 1000000.0, getBytesPerSecond() / 1024);
+	}
+}
@@ -0,0 +1,355 @@
+package com.wiiudev.tcpgecko;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.wiiudev.tcpgecko.enumeration.MemoryAccess;
+import com.wiiudev.tcpgecko.io.BigEndian;
+
+/**
+ * Collects pokes and writes, then sends them as few commands as possible<br>
+ * The writes are sorted by address and writes that touch or overlap are merged into a single MEMORY_WRITE,
+ * when two writes overlap the one that was queued last wins<br>
+ * <br>
+ * Writes that are up to the gap threshold apart are merged as well, the bytes in between are read first so they are written back unchanged.
+ * That costs an extra round-trip, so the threshold is 0 by default<br>
+ * <br>
+ * Nothing is sent until {@link #execute()} or {@link #close()} is called, so a batch works well with try-with-resources
+ * 
+ * @author gudenau
+ * */
+public class WriteBatch implements AutoCloseable {
+	private final TcpGecko gecko;
+	private final List<Write> writes = new ArrayList<Write>();
+	private int gapThreshold;
+	private boolean executed;
+	
+	private int runCount;
+	private int gapBytes;
+	
+	WriteBatch(TcpGecko gecko) {
+		this.gecko = gecko;
+	}
+	
+	/**
+	 * Queues a byte poke
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return This batch
+	 * 
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public WriteBatch pokeMemory(long address, byte value) {
+		byte[] data = queue(address, 1);
+		data[0] = value;
+		return this;
+	}
+	
+	/**
+	 * Queues a short poke
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return This batch
+	 * 
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public WriteBatch pokeMemory(long address, short value) {
+		BigEndian.putShort(queue(address, 2), 0, value);
+		return this;
+	}
+	
+	/**
+	 * Queues an integer poke
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return This batch
+	 * 
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public WriteBatch pokeMemory(long address, int value) {
+		BigEndian.putInteger(queue(address, 4), 0, value);
+		return this;
+	}
+	
+	/**
+	 * Queues a long poke
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return This batch
+	 * 
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public WriteBatch pokeMemory(long address, long value) {
+		BigEndian.putLong(queue(address, 8), 0, value);
+		return this;
+	}
+	
+	/**
+	 * Queues a float poke
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return This batch
+	 * 
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public WriteBatch pokeMemory(long address, float value) {
+		return pokeMemory(address, Float.floatToRawIntBits(value));
+	}
+	
+	/**
+	 * Queues a double poke
+	 * 
+	 * @param address The address to poke
+	 * @param value The value to poke
+	 * 
+	 * @return This batch
+	 * 
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public WriteBatch pokeMemory(long address, double value) {
+		return pokeMemory(address, Double.doubleToRawLongBits(value));
+	}
+	
+	/**
+	 * Queues a memory write, the data is copied
+	 * 
+	 * @param address Address to write to
+	 * @param data The data to be written
+	 * @param offset Offset into the data to start
+	 * @param length Amount of data to write
+	 * 
+	 * @return This batch
+	 * 
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public WriteBatch writeMemory(long address, byte[] data, int offset, int length) {
+		if(length <= 0){
+			throw new IllegalArgumentException("Length must be greater than 0!");
+		}
+		System.arraycopy(data, offset, queue(address, length), 0, length);
+		return this;
+	}
+	
+	/**
+	 * Sets the gap threshold
+	 * 
+	 * @param gapThreshold Writes up to this many bytes apart are merged, 0 only merges writes that touch
+	 * 
+	 * @return This batch
+	 * */
+	public WriteBatch setGapThreshold(int gapThreshold) {
+		if(gapThreshold < 0){
+			throw new IllegalArgumentException("Gap threshold must be positive!");
+		}
+		this.gapThreshold = gapThreshold;
+		return this;
+	}
+	
+	/**
+	 * Gets the gap threshold
+	 * 
+	 * @return The gap threshold
+	 * */
+	public int getGapThreshold() {
+		return gapThreshold;
+	}
+	
+	/**
+	 * Gets the amount of writes queued in this batch
+	 * 
+	 * @return The amount of writes
+	 * */
+	public int size() {
+		return writes.size();
+	}
+	
+	/**
+	 * Gets the amount of merged runs the batch was sent as
+	 * 
+	 * @return The amount of runs, 0 before the batch was executed
+	 * */
+	public int getRunCount() {
+		return runCount;
+	}
+	
+	/**
+	 * Gets the amount of bytes that had to be read to fill gaps between writes
+	 * 
+	 * @return Size of the filled gaps
+	 * */
+	public int getGapBytes() {
+		return gapBytes;
+	}
+	
+	/**
+	 * Merges and sends every queued write<br>
+	 * A batch can only be executed once
+	 * 
+	 * @throws IOException If there was an error talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalStateException If the batch was already executed
+	 * */
+	public void execute() throws IOException, WiiUException {
+		if(executed){
+			throw new IllegalStateException("The batch was already executed!");
+		}
+		executed = true;
+		
+		if(writes.isEmpty()){
+			return;
+		}
+		
+		List<Write> sorted = new ArrayList<Write>(writes);
+		// Stable, so writes to the same address stay in queue order
+		Collections.sort(sorted, new Comparator<Write>() {
+			@Override
+			public int compare(Write a, Write b) {
+				return Long.compare(a.address, b.address);
+			}
+		});
+		
+		List<Run> runs = new ArrayList<Run>();
+		Transaction gapReads = gecko.pipeline();
+		
+		Run run = null;
+		for(Write write : sorted){
+			if(run != null){
+				long gap = write.address - run.end;
+				if(gap <= 0){
+					run.end = Math.max(run.end, write.address + write.data.length);
+					write.run = run;
+					continue;
+				}
+				if(gap <= gapThreshold && gecko.getMemoryMap().canAccess(run.end, (int) gap, MemoryAccess.READ)){
+					run.gaps.add(run.end);
+					run.gaps.add(write.address);
+					run.end = write.address + write.data.length;
+					write.run = run;
+					continue;
+				}
+			}
+			
+			run = new Run(write.address, write.address + write.data.length);
+			runs.add(run);
+			write.run = run;
+		}
+		
+		for(Run current : runs){
+			current.data = new byte[(int) (current.end - current.start)];
+			for(int i = 0; i < current.gaps.size(); i += 2){
+				long gapStart = current.gaps.get(i);
+				int gapLength = (int) (current.gaps.get(i + 1) - gapStart);
+				gapReads.readMemory(gapStart, current.data, (int) (gapStart - current.start), gapLength);
+				gapBytes += gapLength;
+			}
+		}
+		
+		if(gapReads.size() != 0){
+			gapReads.execute();
+		}
+		
+		// Apply in queue order so the last write to a byte wins
+		for(Write write : writes){
+			System.arraycopy(write.data, 0, write.run.data, (int) (write.address - write.run.start), write.data.length);
+		}
+		
+		Transaction transaction = gecko.pipeline();
+		for(Run current : runs){
+			send(transaction, current);
+		}
+		transaction.execute();
+		
+		runCount = runs.size();
+		writes.clear();
+	}
+	
+	/**
+	 * Same as {@link #execute()}, but does nothing if the batch was already executed
+	 * 
+	 * @throws IOException If there was an error talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * */
+	@Override
+	public void close() throws IOException, WiiUException {
+		if(!executed){
+			execute();
+		}
+	}
+	
+	/**
+	 * Queues a run, small runs are pokes since those don't need a reply
+	 * */
+	private void send(Transaction transaction, Run run) {
+		byte[] data = run.data;
+		switch(data.length){
+			case 1:
+				transaction.pokeMemory(run.start, data[0]);
+				break;
+			case 2:
+				transaction.pokeMemory(run.start, BigEndian.getShort(data, 0));
+				break;
+			case 4:
+				transaction.pokeMemory(run.start, BigEndian.getInteger(data, 0));
+				break;
+			default:
+				transaction.writeMemory(run.start, data, 0, data.length);
+				break;
+		}
+	}
+	
+	private byte[] queue(long address, int length) {
+		if(executed){
+			throw new IllegalStateException("The batch was already executed!");
+		}
+		if(address < 0){
+			throw new IllegalArgumentException("Address must be positive!");
+		}
+		gecko.getMemoryMap().validate(address, length, MemoryAccess.WRITE);
+		
+		Write write = new Write(address, new byte[length]);
+		writes.add(write);
+		return write.data;
+	}
+	
+	/**
+	 * A single queued write
+	 * */
+	private static class Write {
+		private final long address;
+		private final byte[] data;
+		private Run run;
+		
+		Write(long address, byte[] data) {
+			this.address = address;
+			this.data = data;
+		}
+	}
+	
+	/**
+	 * A merged block of writes, the gaps are pairs of start and end addresses that have to be read first
+	 * */
+	private static class Run {
+		private final long start;
+		private long end;
+		private final List<Long> gaps = new ArrayList<Long>();
+		private byte[] data;
+		
+		Run(long start, long end) {
+			this.start = start;
+			this.end = end;
+		}
+	}
+}
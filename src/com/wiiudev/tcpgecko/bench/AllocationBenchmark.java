@@ -0,0 +1,158 @@
+package com.wiiudev.tcpgecko.bench;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import com.wiiudev.tcpgecko.TcpGecko;
+import com.wiiudev.tcpgecko.WiiUException;
+import com.wiiudev.tcpgecko.enumeration.Commands;
+import com.wiiudev.tcpgecko.enumeration.Status;
+
+/**
+ * Measures how many bytes the primitive peeks and pokes allocate on the calling thread<br>
+ * Uses {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long) getThreadAllocatedBytes}, so it needs a HotSpot based JVM<br>
+ * Without arguments it talks to a small loopback responder, pass a host to measure against a real Wii U instead<br>
+ * Exits with status 1 if any allocation was seen
+ * 
+ * @author gudenau
+ * */
+public class AllocationBenchmark {
+	private static final long ADDRESS = 0x10000000L;
+	
+	private static final int WARMUP = 20000;
+	private static final int ITERATIONS = 10000;
+	
+	public static void main(String[] args) throws Exception {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if(!threads.isThreadAllocatedMemorySupported()){
+			System.err.println("This JVM can't count allocated bytes");
+			System.exit(2);
+		}
+		threads.setThreadAllocatedMemoryEnabled(true);
+		
+		ServerSocket server = null;
+		TcpGecko gecko;
+		if(args.length > 0){
+			gecko = new TcpGecko(args[0]);
+		}else{
+			server = startResponder();
+			gecko = new TcpGecko("127.0.0.1", server.getLocalPort());
+		}
+		
+		try{
+			// Let the JIT settle, it allocates while compiling
+			run(gecko, WARMUP);
+			
+			long thread = Thread.currentThread().getId();
+			// Call it once so its own first call isn't counted
+			threads.getThreadAllocatedBytes(thread);
+			long before = threads.getThreadAllocatedBytes(thread);
+			run(gecko, ITERATIONS);
+			long allocated = threads.getThreadAllocatedBytes(thread) - before;
+			
+			// run does 8 peeks and 8 pokes per iteration
+			long operations = ITERATIONS * 16L;
+			System.out.println(String.format("%d operations, %d bytes allocated, %.3f bytes per operation",
+					operations, allocated, allocated / (double) operations));
+			
+			if(allocated != 0){
+				System.exit(1);
+			}
+		}finally{
+			gecko.close();
+			if(server != null){
+				server.close();
+			}
+		}
+	}
+	
+	private static void run(TcpGecko gecko, int iterations) throws IOException, WiiUException {
+		long sum = 0;
+		for(int i = 0; i < iterations; i++){
+			gecko.pokeMemory(ADDRESS, (byte) i);
+			gecko.pokeMemory(ADDRESS, (short) i);
+			gecko.pokeMemory(ADDRESS, i);
+			gecko.pokeMemory(ADDRESS, (long) i);
+			gecko.pokeMemory(ADDRESS, (float) i);
+			gecko.pokeMemory(ADDRESS, (double) i);
+			gecko.pokeMemory(ADDRESS + 8, i);
+			gecko.pokeMemory(ADDRESS + 12, i);
+			
+			sum += gecko.peekByte(ADDRESS);
+			sum += gecko.peekShort(ADDRESS);
+			sum += gecko.peekInteger(ADDRESS);
+			sum += gecko.peekLong(ADDRESS);
+			sum += Float.floatToRawIntBits(gecko.peekFloat(ADDRESS));
+			sum += Double.doubleToRawLongBits(gecko.peekDouble(ADDRESS));
+			sum += gecko.peekInteger(ADDRESS + 8);
+			sum += gecko.peekInteger(ADDRESS + 12);
+		}
+		// Keep the JIT from dropping the peeks
+		if(sum == 42){
+			System.out.print("");
+		}
+	}
+	
+	/**
+	 * Starts a server that answers the pokes and memory reads the benchmark sends<br>
+	 * Reads always return a fixed non zero pattern, so the full data path is used
+	 * */
+	private static ServerSocket startResponder() throws IOException {
+		final ServerSocket server = new ServerSocket(0);
+		Thread thread = new Thread(new Runnable(){
+			@Override
+			public void run() {
+				try(Socket socket = server.accept()){
+					respond(socket);
+				}catch(IOException e){
+					// The benchmark closed the connection
+				}
+			}
+		}, "AllocationBenchmark responder");
+		thread.setDaemon(true);
+		thread.start();
+		return server;
+	}
+	
+	private static void respond(Socket socket) throws IOException {
+		DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		
+		while(true){
+			byte command;
+			try{
+				command = input.readByte();
+			}catch(EOFException e){
+				return;
+			}
+			
+			if(command == Commands.MEMORY_POKE_8.value){
+				input.readInt();
+				input.readByte();
+			}else if(command == Commands.MEMORY_POKE_16.value || command == Commands.MEMORY_POKE_32.value){
+				input.readInt();
+				input.readInt();
+			}else if(command == Commands.MEMORY_READ.value){
+				long start = input.readInt() & 0xFFFFFFFFL;
+				long end = input.readInt() & 0xFFFFFFFFL;
+				output.writeByte(Status.OK.value);
+				for(long i = start; i < end; i++){
+					output.writeByte(0x5A);
+				}
+			}else{
+				throw new IOException("Unexpected command " + command);
+			}
+			
+			if(input.available() == 0){
+				output.flush();
+			}
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package com.wiiudev.tcpgecko.enumeration;
+
+/**
+ * An enumeration of the ways a scan session can narrow down its candidates<br>
+ * Some compare against the value from the last scan, the others against a value that is passed in
+ * 
+ * @author gudenau
+ * */
+public enum ScanCondition {
+	CHANGED    (true),
+	UNCHANGED  (true),
+	INCREASED  (true),
+	DECREASED  (true),
+	EQUAL      (false),
+	NOT_EQUAL  (false),
+	GREATER    (false),
+	LESS       (false);
+	
+	/**
+	 * True if this compares against the value from the last scan
+	 * */
+	public final boolean isRelative;
+	ScanCondition(boolean isRelative){
+		this.isRelative = isRelative;
+	}
+}
@@ -0,0 +1,21 @@
+package com.wiiudev.tcpgecko.enumeration;
+
+/**
+ * An enumeration of the value types a scan session can look for, values are always aligned to their size<br>
+ * Bytes and shorts are unsigned, so a byte is between 0 and 255. Integers are signed
+ * 
+ * @author gudenau
+ * */
+public enum ScanType {
+	BYTE   (1, false),
+	SHORT  (2, false),
+	INTEGER(4, false),
+	FLOAT  (4, true);
+	
+	public final int size;
+	public final boolean isFloat;
+	ScanType(int size, boolean isFloat){
+		this.size = size;
+		this.isFloat = isFloat;
+	}
+}
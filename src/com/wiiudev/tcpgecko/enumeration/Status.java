@@ -23,12 +23,17 @@ public enum Status {
 	 * @return The Status, null if unknown
 	 * */
 	public static Status getStatusFromByte(byte status) {
+		return LOOKUP[status & 0xFF];
+	}
+	
+	/**
+	 * Every possible byte mapped to its status, values() would copy the array on every call
+	 * */
+	private static final Status[] LOOKUP = new Status[256];
+	
+	static {
 		for(Status s : values()){
-			if(s.value == status){
-				return s;
-			}
+			LOOKUP[s.value & 0xFF] = s;
 		}
-		
-		return null;
 	}
 }
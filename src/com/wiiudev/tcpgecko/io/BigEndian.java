@@ -0,0 +1,90 @@
+package com.wiiudev.tcpgecko.io;
+
+/**
+ * Encodes and decodes big endian values in byte arrays, the Wii U is big endian<br>
+ * Nothing here allocates, so it is safe to use on the hot paths
+ * 
+ * @author gudenau
+ * */
+public final class BigEndian {
+	private BigEndian() {}
+	
+	/**
+	 * Reads a short from a byte array
+	 * 
+	 * @param data The array to read from
+	 * @param offset Offset of the short
+	 * 
+	 * @return The short
+	 * */
+	public static short getShort(byte[] data, int offset) {
+		return (short) (((data[offset] << 8) & 0xFF00) |
+				(data[offset + 1] & 0x00FF));
+	}
+	
+	/**
+	 * Reads an integer from a byte array
+	 * 
+	 * @param data The array to read from
+	 * @param offset Offset of the integer
+	 * 
+	 * @return The integer
+	 * */
+	public static int getInteger(byte[] data, int offset) {
+		return ((data[offset    ] << 24) & 0xFF000000) |
+				((data[offset + 1] << 16) & 0x00FF0000) |
+				((data[offset + 2] <<  8) & 0x0000FF00) |
+				( data[offset + 3]        & 0x000000FF);
+	}
+	
+	/**
+	 * Reads a long from a byte array
+	 * 
+	 * @param data The array to read from
+	 * @param offset Offset of the long
+	 * 
+	 * @return The long
+	 * */
+	public static long getLong(byte[] data, int offset) {
+		return ((getInteger(data, offset) & 0x00000000FFFFFFFFL) << 32) |
+				(getInteger(data, offset + 4) & 0x00000000FFFFFFFFL);
+	}
+	
+	/**
+	 * Writes a short into a byte array
+	 * 
+	 * @param data The array to write to
+	 * @param offset Offset of the short
+	 * @param value The short
+	 * */
+	public static void putShort(byte[] data, int offset, short value) {
+		data[offset    ] = (byte) ((value >>> 8) & 0x00FF);
+		data[offset + 1] = (byte) ( value        & 0x00FF);
+	}
+	
+	/**
+	 * Writes an integer into a byte array
+	 * 
+	 * @param data The array to write to
+	 * @param offset Offset of the integer
+	 * @param value The integer
+	 * */
+	public static void putInteger(byte[] data, int offset, int value) {
+		data[offset    ] = (byte) ((value >>> 24) & 0x000000FF);
+		data[offset + 1] = (byte) ((value >>> 16) & 0x000000FF);
+		data[offset + 2] = (byte) ((value >>>  8) & 0x000000FF);
+		data[offset + 3] = (byte) ( value         & 0x000000FF);
+	}
+	
+	/**
+	 * Writes a long into a byte array
+	 * 
+	 * @param data The array to write to
+	 * @param offset Offset of the long
+	 * @param value The long
+	 * */
+	public static void putLong(byte[] data, int offset, long value) {
+		putInteger(data, offset, (int) (value >>> 32));
+		putInteger(data, offset + 4, (int) value);
+	}
+}
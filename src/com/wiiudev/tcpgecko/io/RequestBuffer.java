@@ -0,0 +1,179 @@
+package com.wiiudev.tcpgecko.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import com.wiiudev.tcpgecko.enumeration.Commands;
+
+/**
+ * A reusable buffer used to frame requests before they are sent to the Wii U<br>
+ * A whole command (opcode, arguments and payload) is put in here and then sent with a single write,
+ * instead of doing a tiny write for every field
+ * 
+ * @author gudenau
+ * */
+public class RequestBuffer {
+	private static final int DEFAULT_SIZE = 0x1000;
+	
+	private byte[] buffer;
+	private int position;
+	
+	/**
+	 * Creates a request buffer with the default size
+	 * */
+	public RequestBuffer() {
+		this(DEFAULT_SIZE);
+	}
+	
+	/**
+	 * Creates a request buffer with the provided initial size, it grows if needed
+	 * 
+	 * @param size The initial size of the buffer
+	 * */
+	public RequestBuffer(int size) {
+		if(size <= 0){
+			throw new IllegalArgumentException("Size must be greater than 0!");
+		}
+		
+		buffer = new byte[size];
+	}
+	
+	/**
+	 * Appends a command
+	 * 
+	 * @param command The command to append
+	 * */
+	public void putCommand(Commands command) {
+		putByte(command.value);
+	}
+	
+	/**
+	 * Appends a byte
+	 * 
+	 * @param value The byte to append
+	 * */
+	public void putByte(byte value) {
+		ensureCapacity(1);
+		buffer[position++] = value;
+	}
+	
+	/**
+	 * Appends a short, the Wii U is big endian
+	 * 
+	 * @param value The short to append
+	 * */
+	public void putShort(short value) {
+		ensureCapacity(2);
+		BigEndian.putShort(buffer, position, value);
+		position += 2;
+	}
+	
+	/**
+	 * Appends an integer, the Wii U is big endian
+	 * 
+	 * @param value The integer to append
+	 * */
+	public void putInteger(int value) {
+		ensureCapacity(4);
+		BigEndian.putInteger(buffer, position, value);
+		position += 4;
+	}
+	
+	/**
+	 * Appends a block of data
+	 * 
+	 * @param data The data to append
+	 * @param offset Offset into the data
+	 * @param length Amount of data to append
+	 * */
+	public void putData(byte[] data, int offset, int length) {
+		ensureCapacity(length);
+		System.arraycopy(data, offset, buffer, position, length);
+		position += length;
+	}
+	
+	/**
+	 * Appends a block of data from a {@link java.nio.ByteBuffer ByteBuffer}, the position of the buffer is moved past the data
+	 * 
+	 * @param data The data to append
+	 * @param length Amount of data to append
+	 * */
+	public void putData(ByteBuffer data, int length) {
+		ensureCapacity(length);
+		data.get(buffer, position, length);
+		position += length;
+	}
+	
+	/**
+	 * Appends a block of zeros
+	 * 
+	 * @param length Amount of zeros to append
+	 * */
+	public void putZeros(int length) {
+		ensureCapacity(length);
+		for(int i = 0; i < length; i++){
+			buffer[position++] = 0;
+		}
+	}
+	
+	/**
+	 * Gets the amount of data waiting to be sent
+	 * 
+	 * @return The size of the pending request data
+	 * */
+	public int size() {
+		return position;
+	}
+	
+	/**
+	 * Checks if there is nothing waiting to be sent
+	 * 
+	 * @return True if the buffer is empty
+	 * */
+	public boolean isEmpty() {
+		return position == 0;
+	}
+	
+	/**
+	 * Sends everything in the buffer with a single write and clears it
+	 * 
+	 * @param stream The stream to write to
+	 * 
+	 * @throws IOException If there was an error writing to the stream
+	 * */
+	public void writeTo(OutputStream stream) throws IOException {
+		if(position == 0){
+			return;
+		}
+		
+		// Clear before writing, a failed write leaves the connection broken anyway
+		int length = position;
+		position = 0;
+		
+		stream.write(buffer, 0, length);
+		stream.flush();
+	}
+	
+	/**
+	 * Throws away everything in the buffer
+	 * */
+	public void clear() {
+		position = 0;
+	}
+	
+	private void ensureCapacity(int length) {
+		if(position + length <= buffer.length){
+			return;
+		}
+		
+		int newSize = buffer.length;
+		while(newSize < position + length){
+			newSize <<= 1;
+		}
+		
+		byte[] newBuffer = new byte[newSize];
+		System.arraycopy(buffer, 0, newBuffer, 0, position);
+		buffer = newBuffer;
+	}
+}
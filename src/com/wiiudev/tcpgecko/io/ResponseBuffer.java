@@ -0,0 +1,210 @@
+package com.wiiudev.tcpgecko.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A buffered reader for the replies of the Wii U<br>
+ * Small reads are served from a reusable buffer, large reads go straight into the destination
+ * 
+ * @author gudenau
+ * */
+public class ResponseBuffer {
+	private static final int DEFAULT_SIZE = 0x2000;
+	
+	private final InputStream stream;
+	private final byte[] buffer;
+	private int position;
+	private int limit;
+	
+	/**
+	 * Creates a response buffer with the default size
+	 * 
+	 * @param stream The stream to read from
+	 * */
+	public ResponseBuffer(InputStream stream) {
+		this(stream, DEFAULT_SIZE);
+	}
+	
+	/**
+	 * Creates a response buffer with the provided size
+	 * 
+	 * @param stream The stream to read from
+	 * @param size The size of the buffer, must be at least 8
+	 * */
+	public ResponseBuffer(InputStream stream, int size) {
+		if(size < 8){
+			throw new IllegalArgumentException("Size must be at least 8!");
+		}
+		
+		this.stream = stream;
+		this.buffer = new byte[size];
+	}
+	
+	/**
+	 * Reads data from the Wii U
+	 * 
+	 * @param data Buffer to store the read data
+	 * @param offset Offset into the buffer
+	 * @param length Amount of data to read
+	 * 
+	 * @throws IOException If there was an error reading from the Wii U
+	 * */
+	public void readData(byte[] data, int offset, int length) throws IOException {
+		// Use what we already have first
+		int buffered = limit - position;
+		if(buffered > 0){
+			int copied = buffered > length ? length : buffered;
+			System.arraycopy(buffer, position, data, offset, copied);
+			position += copied;
+			offset += copied;
+			length -= copied;
+		}
+		
+		// Big reads skip the buffer, no need to copy twice
+		if(length >= buffer.length){
+			int read;
+			while(length > 0){
+				read = stream.read(data, offset, length);
+				if(read < 0){
+					throw new EOFException("The Wii U closed the connection!");
+				}
+				
+				offset += read;
+				length -= read;
+			}
+			return;
+		}
+		
+		if(length > 0){
+			fill(length);
+			System.arraycopy(buffer, position, data, offset, length);
+			position += length;
+		}
+	}
+	
+	/**
+	 * Reads data from the Wii U into a {@link java.nio.ByteBuffer ByteBuffer}, the position of the buffer is moved past the data
+	 * 
+	 * @param data Buffer to store the read data
+	 * @param length Amount of data to read
+	 * 
+	 * @throws IOException If there was an error reading from the Wii U
+	 * */
+	public void readData(ByteBuffer data, int length) throws IOException {
+		int chunk;
+		while(length > 0){
+			// Streams can't read into a ByteBuffer, so go through our buffer
+			chunk = length > buffer.length ? buffer.length : length;
+			fill(chunk);
+			data.put(buffer, position, chunk);
+			position += chunk;
+			length -= chunk;
+		}
+	}
+	
+	/**
+	 * Skips data sent by the Wii U
+	 * 
+	 * @param length Amount of data to skip
+	 * 
+	 * @throws IOException If there was an error reading from the Wii U
+	 * */
+	public void skip(int length) throws IOException {
+		while(length > 0){
+			int chunk = length > buffer.length ? buffer.length : length;
+			fill(chunk);
+			position += chunk;
+			length -= chunk;
+		}
+	}
+	
+	/**
+	 * Reads a byte from the Wii U
+	 * 
+	 * @return The read byte
+	 * 
+	 * @throws IOException If there was an error reading from the Wii U
+	 * */
+	public byte readByte() throws IOException {
+		fill(1);
+		return buffer[position++];
+	}
+	
+	/**
+	 * Reads a short from the Wii U, the Wii U is big endian
+	 * 
+	 * @return The read short
+	 * 
+	 * @throws IOException If there was an error reading from the Wii U
+	 * */
+	public short readShort() throws IOException {
+		fill(2);
+		short value = BigEndian.getShort(buffer, position);
+		position += 2;
+		return value;
+	}
+	
+	/**
+	 * Reads an integer from the Wii U, the Wii U is big endian
+	 * 
+	 * @return The read integer
+	 * 
+	 * @throws IOException If there was an error reading from the Wii U
+	 * */
+	public int readInteger() throws IOException {
+		fill(4);
+		int value = BigEndian.getInteger(buffer, position);
+		position += 4;
+		return value;
+	}
+	
+	/**
+	 * Reads a long from the Wii U, the Wii U is big endian
+	 * 
+	 * @return The read long
+	 * 
+	 * @throws IOException If there was an error reading from the Wii U
+	 * */
+	public long readLong() throws IOException {
+		long high = readInteger() & 0x00000000FFFFFFFFL;
+		long low = readInteger() & 0x00000000FFFFFFFFL;
+		return (high << 32) | low;
+	}
+	
+	/**
+	 * Gets the amount of data that can be read without touching the stream
+	 * 
+	 * @return The amount of buffered data
+	 * */
+	public int buffered() {
+		return limit - position;
+	}
+	
+	/**
+	 * Makes sure at least length bytes are buffered
+	 * */
+	private void fill(int length) throws IOException {
+		if(limit - position >= length){
+			return;
+		}
+		
+		// Move what is left to the front
+		if(position > 0){
+			System.arraycopy(buffer, position, buffer, 0, limit - position);
+			limit -= position;
+			position = 0;
+		}
+		
+		int read;
+		while(limit < length){
+			read = stream.read(buffer, limit, buffer.length - limit);
+			if(read < 0){
+				throw new EOFException("The Wii U closed the connection!");
+			}
+			limit += read;
+		}
+	}
+}
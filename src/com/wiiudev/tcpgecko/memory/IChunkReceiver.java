@@ -0,0 +1,33 @@
+package com.wiiudev.tcpgecko.memory;
+
+import java.io.IOException;
+
+/**
+ * An interface to receive memory from the Wii U one chunk at a time, used for reads that are too big to keep on the heap
+ * 
+ * @author gudenau
+ * */
+public interface IChunkReceiver {
+	/**
+	 * Called when the Wii U sent a chunk of memory<br>
+	 * The data buffer is reused for the next chunk, so it has to be consumed right away
+	 * 
+	 * @param address Address of the chunk
+	 * @param data The data of the chunk
+	 * @param offset Offset into the data
+	 * @param length Length of the chunk
+	 * 
+	 * @throws IOException If there was an error storing the chunk
+	 * */
+	public void receiveData(long address, byte[] data, int offset, int length) throws IOException;
+	
+	/**
+	 * Called when the chunk was all 0, the Wii U did not send any data for it
+	 * 
+	 * @param address Address of the chunk
+	 * @param length Length of the chunk
+	 * 
+	 * @throws IOException If there was an error storing the chunk
+	 * */
+	public void receiveEmpty(long address, int length) throws IOException;
+}
@@ -0,0 +1,18 @@
+package com.wiiudev.tcpgecko.memory;
+
+/**
+ * An interface to get told about writes to the memory of the Wii U made through a connection, used to keep local copies of memory up to date<br>
+ * Remote calls can change memory as well, those are not reported
+ * 
+ * @author gudenau
+ * */
+public interface IWriteListener {
+	/**
+	 * Called once a write was sent, writes queued in a transaction are reported when it is executed<br>
+	 * This is called on the thread that uses the connection, so it should be quick
+	 * 
+	 * @param address Address of the write
+	 * @param length Length of the write
+	 * */
+	public void memoryWritten(long address, int length);
+}
@@ -0,0 +1,152 @@
+package com.wiiudev.tcpgecko.memory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import com.wiiudev.tcpgecko.TcpGecko;
+import com.wiiudev.tcpgecko.WiiUException;
+
+/**
+ * Dumps memory of the Wii U into a file and restores it again<br>
+ * The file is memory mapped a window at a time, so even a dump of all of MEM2 only keeps a single chunk on the heap<br>
+ * Chunks that are all 0 are never written, so they stay sparse holes on file systems that support them
+ * 
+ * @author gudenau
+ * */
+public class MemoryDumper {
+	/**
+	 * Start of MEM2, where the game lives
+	 * */
+	public static final long MEM2_START = 0x10000000L;
+	
+	/**
+	 * Size of MEM2
+	 * */
+	public static final int MEM2_SIZE = 0x40000000;
+	
+	private static final int MAP_SIZE = 0x04000000;
+	
+	private final TcpGecko gecko;
+	
+	private long dataBytes;
+	private long emptyBytes;
+	
+	public MemoryDumper(TcpGecko gecko) {
+		this.gecko = gecko;
+	}
+	
+	/**
+	 * Dumps all of MEM2 into a file<br>
+	 * Same as calling {@link #dump(long, int, File) dump(MEM2_START, MEM2_SIZE, file)}
+	 * 
+	 * @param file The file to dump to, it is overwritten
+	 * 
+	 * @throws IOException If there was an error talking to the Wii U or writing the file
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * */
+	public void dumpMem2(File file) throws IOException, WiiUException {
+		dump(MEM2_START, MEM2_SIZE, file);
+	}
+	
+	/**
+	 * Dumps a range of memory into a file
+	 * 
+	 * @param address Address to start the dump at
+	 * @param length Amount of memory to dump
+	 * @param file The file to dump to, it is overwritten
+	 * 
+	 * @throws IOException If there was an error talking to the Wii U or writing the file
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public void dump(long address, int length, File file) throws IOException, WiiUException {
+		if(length <= 0){
+			throw new IllegalArgumentException("Length must be greater than 0!");
+		}
+		
+		dataBytes = 0;
+		emptyBytes = 0;
+		
+		try(RandomAccessFile output = new RandomAccessFile(file, "rw")){
+			// Drop the old contents first, the holes have to read back as 0
+			output.setLength(0);
+			output.setLength(length);
+			
+			FileChannel channel = output.getChannel();
+			
+			for(long windowStart = 0; windowStart < length; windowStart += MAP_SIZE){
+				int windowLength = (int) Math.min(MAP_SIZE, length - windowStart);
+				
+				final MappedByteBuffer map = channel.map(MapMode.READ_WRITE, windowStart, windowLength);
+				final long windowAddress = address + windowStart;
+				
+				gecko.readMemoryChunks(windowAddress, windowLength, new IChunkReceiver() {
+					@Override
+					public void receiveData(long address, byte[] data, int offset, int length) {
+						map.position((int) (address - windowAddress));
+						map.put(data, offset, length);
+						dataBytes += length;
+					}
+					
+					@Override
+					public void receiveEmpty(long address, int length) {
+						// Leave a hole
+						emptyBytes += length;
+					}
+				});
+				
+				map.force();
+			}
+		}
+	}
+	
+	/**
+	 * Writes a dump back into the memory of the Wii U
+	 * 
+	 * @param file The dump to restore
+	 * @param address Address the dump was taken at
+	 * 
+	 * @throws IOException If there was an error talking to the Wii U or reading the file
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If the dump does not fit at the address
+	 * */
+	public void restore(File file, long address) throws IOException, WiiUException {
+		try(RandomAccessFile input = new RandomAccessFile(file, "r")){
+			long length = input.length();
+			if(length <= 0 || length > Integer.MAX_VALUE){
+				throw new IllegalArgumentException("Dump has an invalid size!");
+			}
+			
+			FileChannel channel = input.getChannel();
+			
+			for(long windowStart = 0; windowStart < length; windowStart += MAP_SIZE){
+				int windowLength = (int) Math.min(MAP_SIZE, length - windowStart);
+				
+				MappedByteBuffer map = channel.map(MapMode.READ_ONLY, windowStart, windowLength);
+				gecko.writeMemory(address + windowStart, map);
+			}
+		}
+	}
+	
+	/**
+	 * Gets the amount of data the Wii U sent during the last dump
+	 * 
+	 * @return Amount of non empty data
+	 * */
+	public long getDataBytes() {
+		return dataBytes;
+	}
+	
+	/**
+	 * Gets the amount of memory that was all 0 during the last dump, this was left as holes in the file
+	 * 
+	 * @return Amount of empty data
+	 * */
+	public long getEmptyBytes() {
+		return emptyBytes;
+	}
+}
@@ -0,0 +1,253 @@
+package com.wiiudev.tcpgecko.memory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.wiiudev.tcpgecko.enumeration.MemoryAccess;
+
+/**
+ * A table of the memory regions of the Wii U and what we are allowed to do with them<br>
+ * The regions are kept sorted so a lookup is a binary search instead of walking every region<br>
+ * A memory range is only valid if it is inside of a single region
+ * 
+ * @author gudenau
+ * */
+public class MemoryMap {
+	/**
+	 * The memory map of the 5.5.x firmware
+	 * */
+	public static final MemoryMap DEFAULT = new MemoryMap(Arrays.asList(
+			new Region(0x01000000L, 0x01800000L, true, false),
+			new Region(0x0E000000L, 0x10000000L, true, false),
+			new Region(0x10000000L, 0x50000000L, true, true),
+			new Region(0xE0000000L, 0xE4000000L, true, false),
+			new Region(0xE8000000L, 0xEA000000L, true, false),
+			new Region(0xF4000000L, 0xF6000000L, true, false),
+			new Region(0xF6000000L, 0xF6800000L, true, false),
+			new Region(0xF8000000L, 0xFB000000L, true, false),
+			new Region(0xFB000000L, 0xFB800000L, true, false),
+			new Region(0xFFFE0000L, 0xFFFFFFFFL, true, true)
+	));
+	
+	private final Region[] regions;
+	private final long[] starts;
+	
+	/**
+	 * Creates a memory map from a list of regions
+	 * 
+	 * @param regions The regions, they do not have to be sorted
+	 * 
+	 * @throws IllegalArgumentException If two regions overlap
+	 * */
+	public MemoryMap(List<Region> regions) {
+		List<Region> sorted = new ArrayList<Region>(regions);
+		Collections.sort(sorted, new Comparator<Region>() {
+			@Override
+			public int compare(Region a, Region b) {
+				return Long.compare(a.start, b.start);
+			}
+		});
+		
+		this.regions = sorted.toArray(new Region[sorted.size()]);
+		starts = new long[this.regions.length];
+		for(int i = 0; i < this.regions.length; i++){
+			if(i > 0 && this.regions[i - 1].end > this.regions[i].start){
+				throw new IllegalArgumentException("Regions must not overlap!");
+			}
+			starts[i] = this.regions[i].start;
+		}
+	}
+	
+	/**
+	 * Loads a memory map from a text file<br>
+	 * Every line is a region made of the start, the end and the access, like "0x10000000 0x50000000 RW"<br>
+	 * Everything after a # is ignored
+	 * 
+	 * @param stream The stream to read from, it is not closed
+	 * 
+	 * @return The loaded memory map
+	 * 
+	 * @throws IOException If there was an error reading the stream
+	 * @throws IllegalArgumentException If a line is not valid
+	 * */
+	public static MemoryMap load(InputStream stream) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+		List<Region> regions = new ArrayList<Region>();
+		
+		String line;
+		int lineNumber = 0;
+		while((line = reader.readLine()) != null){
+			lineNumber++;
+			
+			int comment = line.indexOf('#');
+			if(comment >= 0){
+				line = line.substring(0, comment);
+			}
+			line = line.trim();
+			if(line.isEmpty()){
+				continue;
+			}
+			
+			String[] parts = line.split("\\s+");
+			if(parts.length != 3){
+				throw new IllegalArgumentException("Line " + lineNumber + " is not valid!");
+			}
+			
+			try{
+				long start = Long.decode(parts[0]);
+				long end = Long.decode(parts[1]);
+				String access = parts[2].toUpperCase();
+				regions.add(new Region(start, end, access.indexOf('R') >= 0, access.indexOf('W') >= 0));
+			}catch(NumberFormatException e){
+				throw new IllegalArgumentException("Line " + lineNumber + " is not valid!", e);
+			}
+		}
+		
+		return new MemoryMap(regions);
+	}
+	
+	/**
+	 * Finds the region that contains an address
+	 * 
+	 * @param address The address
+	 * 
+	 * @return The region, or null if the address is not mapped
+	 * */
+	public Region getRegion(long address) {
+		int index = Arrays.binarySearch(starts, address);
+		if(index < 0){
+			// The region before the insertion point is the only one that can contain it
+			index = -index - 2;
+			if(index < 0){
+				return null;
+			}
+		}
+		
+		Region region = regions[index];
+		return address < region.end ? region : null;
+	}
+	
+	/**
+	 * Checks if a memory range is valid
+	 * 
+	 * @param address Starting address
+	 * @param length Size of memory range
+	 * 
+	 * @return True if the memory range is inside of a single region
+	 * */
+	public boolean isValid(long address, int length) {
+		Region region = getRegion(address);
+		return region != null && address + length <= region.end;
+	}
+	
+	/**
+	 * Checks if we can access a range of memory
+	 * 
+	 * @param address Starting address
+	 * @param length Size of memory range
+	 * @param access The access we wish to have
+	 * 
+	 * @return True if we can access the memory
+	 * */
+	public boolean canAccess(long address, int length, MemoryAccess access) {
+		Region region = getRegion(address);
+		return region != null && address + length <= region.end && region.allows(access);
+	}
+	
+	/**
+	 * Validates a memory range with a single lookup
+	 * 
+	 * @param address Starting address
+	 * @param length Size of memory range
+	 * @param access The access we wish to have
+	 * 
+	 * @throws IllegalArgumentException If the range is not valid or can not be accessed
+	 * */
+	public void validate(long address, int length, MemoryAccess access) {
+		Region region = getRegion(address);
+		if(region == null || address + length > region.end){
+			throw new IllegalArgumentException("Address range is not valid!");
+		}
+		if(!region.allows(access)){
+			throw new IllegalArgumentException(access == MemoryAccess.READ ? "Cannot read from address!" : "Cannot write to address!");
+		}
+	}
+	
+	/**
+	 * Gets all of the regions, sorted by address
+	 * 
+	 * @return The regions
+	 * */
+	public List<Region> getRegions() {
+		return Collections.unmodifiableList(Arrays.asList(regions));
+	}
+	
+	/**
+	 * A single region of memory
+	 * */
+	public static class Region {
+		private final long start;
+		private final long end;
+		private final boolean readable;
+		private final boolean writable;
+		
+		/**
+		 * Creates a region
+		 * 
+		 * @param start Address of the start of the region
+		 * @param end Address of the end of the region, it is not part of the region
+		 * @param readable True if the region can be read
+		 * @param writable True if the region can be written
+		 * 
+		 * @throws IllegalArgumentException If the addresses are not valid
+		 * */
+		public Region(long start, long end, boolean readable, boolean writable) {
+			if(start < 0){
+				throw new IllegalArgumentException("Address must be positive!");
+			}
+			if(end <= start){
+				throw new IllegalArgumentException("End must be greater than start!");
+			}
+			
+			this.start = start;
+			this.end = end;
+			this.readable = readable;
+			this.writable = writable;
+		}
+		
+		/**
+		 * Checks if the region allows an access
+		 * 
+		 * @param access The access we wish to have
+		 * 
+		 * @return True if the access is allowed
+		 * */
+		public boolean allows(MemoryAccess access) {
+			return access == MemoryAccess.READ ? readable : writable;
+		}
+		
+		public long getStart() {
+			return start;
+		}
+		
+		public long getEnd() {
+			return end;
+		}
+		
+		public boolean isReadable() {
+			return readable;
+		}
+		
+		public boolean isWritable() {
+			return writable;
+		}
+	}
+}
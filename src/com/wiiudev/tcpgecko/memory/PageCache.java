@@ -0,0 +1,411 @@
+package com.wiiudev.tcpgecko.memory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.wiiudev.tcpgecko.TcpGecko;
+import com.wiiudev.tcpgecko.Transaction;
+import com.wiiudev.tcpgecko.WiiUException;
+import com.wiiudev.tcpgecko.enumeration.MemoryAccess;
+import com.wiiudev.tcpgecko.io.BigEndian;
+
+/**
+ * A cache of memory pages that sits between the caller and the Wii U, used for data that is read often but rarely changes<br>
+ * Memory is read in aligned pages of 0x400 bytes, the same size as a single read command. The pages are kept in a bounded LRU<br>
+ * <br>
+ * Every page lives for a time to live, which can be set per region. Regions the game changes all the time should be marked volatile,
+ * those are never cached and always read from the Wii U<br>
+ * Writes made through the same connection drop the pages they touch, remote calls are not tracked so call {@link #invalidateAll()} after those<br>
+ * <br>
+ * The cache uses the connection it was made with, so it has to be used on the same thread as that connection
+ * 
+ * @author gudenau
+ * */
+public class PageCache implements IWriteListener, Closeable {
+	/**
+	 * Size of a single page
+	 * */
+	public static final int PAGE_SIZE = 0x400;
+	
+	private static final long PAGE_MASK = ~(long) (PAGE_SIZE - 1);
+	
+	private final TcpGecko gecko;
+	private final int maxPages;
+	private final long defaultTtl;
+	private final List<Policy> policies = new ArrayList<Policy>();
+	private final LinkedHashMap<Long, Page> pages;
+	
+	private final byte[] scratch = new byte[8];
+	
+	private long hits;
+	private long misses;
+	
+	/**
+	 * Creates a page cache and registers it as a write listener of the connection
+	 * 
+	 * @param gecko The connection to read with
+	 * @param maxPages The most pages to keep, the least recently used page is dropped after that
+	 * @param defaultTtl Time to live of a page in milliseconds, for memory without a region policy
+	 * */
+	public PageCache(TcpGecko gecko, final int maxPages, long defaultTtl) {
+		if(maxPages <= 0){
+			throw new IllegalArgumentException("Max pages must be greater than 0!");
+		}
+		if(defaultTtl < 0){
+			throw new IllegalArgumentException("Time to live must be positive!");
+		}
+		
+		this.gecko = gecko;
+		this.maxPages = maxPages;
+		this.defaultTtl = defaultTtl * 1000000L;
+		
+		pages = new LinkedHashMap<Long, Page>(16, 0.75F, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Page> eldest) {
+				return size() > maxPages;
+			}
+		};
+		
+		gecko.addWriteListener(this);
+	}
+	
+	/**
+	 * Sets the time to live of pages in a region, a later policy wins over an earlier one
+	 * 
+	 * @param start Start of the region
+	 * @param end End of the region, exclusive
+	 * @param ttl Time to live in milliseconds, 0 never caches the region
+	 * */
+	public synchronized void setTtl(long start, long end, long ttl) {
+		if(start < 0 || end <= start){
+			throw new IllegalArgumentException("Address range is not valid!");
+		}
+		if(ttl < 0){
+			throw new IllegalArgumentException("Time to live must be positive!");
+		}
+		
+		policies.add(new Policy(start, end, ttl * 1000000L));
+		invalidate(start, end - start);
+	}
+	
+	/**
+	 * Marks a region as volatile, it is never cached
+	 * 
+	 * @param start Start of the region
+	 * @param end End of the region, exclusive
+	 * */
+	public void addVolatileRegion(long start, long end) {
+		setTtl(start, end, 0);
+	}
+	
+	/**
+	 * Reads memory through the cache<br>
+	 * Every page that is missing or too old is fetched in a single transaction
+	 * 
+	 * @param address Address to read from
+	 * @param data Buffer to store the read data
+	 * @param offset Offset into the buffer
+	 * @param length Length of data to read
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public synchronized void readMemory(long address, byte[] data, int offset, int length) throws IOException, WiiUException {
+		if(length <= 0){
+			throw new IllegalArgumentException("Length must be greater than 0!");
+		}
+		if(address < 0){
+			throw new IllegalArgumentException("Address must be positive!");
+		}
+		if(offset < 0 || offset + length > data.length){
+			throw new IllegalArgumentException("Buffer is too small!");
+		}
+		gecko.getMemoryMap().validate(address, length, MemoryAccess.READ);
+		
+		long now = System.nanoTime();
+		Transaction transaction = null;
+		List<Pending> pending = null;
+		
+		while(length > 0){
+			long pageAddress = address & PAGE_MASK;
+			int pageOffset = (int) (address - pageAddress);
+			int copyLength = Math.min(length, PAGE_SIZE - pageOffset);
+			
+			long ttl = getTtl(pageAddress);
+			if(ttl == 0 || !gecko.getMemoryMap().canAccess(pageAddress, PAGE_SIZE, MemoryAccess.READ)){
+				// Not cacheable, read just what was asked for
+				if(transaction == null){
+					transaction = gecko.pipeline();
+				}
+				transaction.readMemory(address, data, offset, copyLength);
+				misses++;
+			}else{
+				Page page = pages.get(pageAddress);
+				if(page != null && now - page.time < ttl){
+					System.arraycopy(page.data, pageOffset, data, offset, copyLength);
+					hits++;
+				}else{
+					if(transaction == null){
+						transaction = gecko.pipeline();
+					}
+					if(pending == null){
+						pending = new ArrayList<Pending>();
+					}
+					
+					page = new Page(new byte[PAGE_SIZE]);
+					transaction.readMemory(pageAddress, page.data, 0, PAGE_SIZE);
+					pending.add(new Pending(pageAddress, page, pageOffset, offset, copyLength));
+					misses++;
+				}
+			}
+			
+			address += copyLength;
+			offset += copyLength;
+			length -= copyLength;
+		}
+		
+		if(transaction == null){
+			return;
+		}
+		transaction.execute();
+		
+		if(pending != null){
+			long time = System.nanoTime();
+			for(Pending read : pending){
+				read.page.time = time;
+				pages.put(read.address, read.page);
+				System.arraycopy(read.page.data, read.pageOffset, data, read.offset, read.length);
+			}
+		}
+	}
+	
+	/**
+	 * Peeks a byte through the cache
+	 * 
+	 * @param address The address to peek
+	 * 
+	 * @return The value at the address
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public synchronized byte peekByte(long address) throws IOException, WiiUException {
+		readMemory(address, scratch, 0, 1);
+		return scratch[0];
+	}
+	
+	/**
+	 * Peeks a short through the cache
+	 * 
+	 * @param address The address to peek
+	 * 
+	 * @return The value at the address
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public synchronized short peekShort(long address) throws IOException, WiiUException {
+		readMemory(address, scratch, 0, 2);
+		return BigEndian.getShort(scratch, 0);
+	}
+	
+	/**
+	 * Peeks an integer through the cache
+	 * 
+	 * @param address The address to peek
+	 * 
+	 * @return The value at the address
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public synchronized int peekInteger(long address) throws IOException, WiiUException {
+		readMemory(address, scratch, 0, 4);
+		return BigEndian.getInteger(scratch, 0);
+	}
+	
+	/**
+	 * Peeks a float through the cache
+	 * 
+	 * @param address The address to peek
+	 * 
+	 * @return The value at the address
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If the address is invalid
+	 * */
+	public float peekFloat(long address) throws IOException, WiiUException {
+		return Float.intBitsToFloat(peekInteger(address));
+	}
+	
+	/**
+	 * Drops every page that overlaps a range
+	 * 
+	 * @param address Start of the range
+	 * @param length Length of the range
+	 * */
+	public synchronized void invalidate(long address, long length) {
+		if(length <= 0){
+			return;
+		}
+		
+		long first = address & PAGE_MASK;
+		long last = (address + length - 1) & PAGE_MASK;
+		
+		// Walk the map instead of the range when the range is huge
+		if((last - first) / PAGE_SIZE >= pages.size()){
+			Iterator<Long> iterator = pages.keySet().iterator();
+			while(iterator.hasNext()){
+				long page = iterator.next();
+				if(page >= first && page <= last){
+					iterator.remove();
+				}
+			}
+		}else{
+			for(long page = first; page <= last; page += PAGE_SIZE){
+				pages.remove(page);
+			}
+		}
+	}
+	
+	/**
+	 * Drops every page
+	 * */
+	public synchronized void invalidateAll() {
+		pages.clear();
+	}
+	
+	@Override
+	public void memoryWritten(long address, int length) {
+		invalidate(address, length);
+	}
+	
+	/**
+	 * Stops listening for writes and drops every page
+	 * */
+	@Override
+	public void close() {
+		gecko.removeWriteListener(this);
+		invalidateAll();
+	}
+	
+	/**
+	 * Gets the amount of page reads that were served from the cache
+	 * 
+	 * @return The amount of hits
+	 * */
+	public synchronized long getHits() {
+		return hits;
+	}
+	
+	/**
+	 * Gets the amount of page reads that had to go to the Wii U
+	 * 
+	 * @return The amount of misses
+	 * */
+	public synchronized long getMisses() {
+		return misses;
+	}
+	
+	/**
+	 * Gets the amount of cached pages
+	 * 
+	 * @return The amount of pages
+	 * */
+	public synchronized int size() {
+		return pages.size();
+	}
+	
+	/**
+	 * Gets the most pages this cache keeps
+	 * 
+	 * @return The amount of pages
+	 * */
+	public int getMaxPages() {
+		return maxPages;
+	}
+	
+	/**
+	 * Gets the connection this cache reads with
+	 * 
+	 * @return The connection
+	 * */
+	public TcpGecko getGecko() {
+		return gecko;
+	}
+	
+	/**
+	 * Gets the time to live of a page, from the newest policy that overlaps it
+	 * */
+	private long getTtl(long pageAddress) {
+		long pageEnd = pageAddress + PAGE_SIZE;
+		
+		// Newest first, so a later policy wins over an earlier one
+		for(int i = policies.size() - 1; i >= 0; i--){
+			Policy policy = policies.get(i);
+			if(policy.start < pageEnd && policy.end > pageAddress){
+				return policy.ttl;
+			}
+		}
+		
+		return defaultTtl;
+	}
+	
+	/**
+	 * A cached page
+	 * */
+	private static class Page {
+		private final byte[] data;
+		private long time;
+		
+		Page(byte[] data) {
+			this.data = data;
+		}
+	}
+	
+	/**
+	 * A page that is being fetched and the part of it that was asked for
+	 * */
+	private static class Pending {
+		private final long address;
+		private final Page page;
+		private final int pageOffset;
+		private final int offset;
+		private final int length;
+		
+		Pending(long address, Page page, int pageOffset, int offset, int length) {
+			this.address = address;
+			this.page = page;
+			this.pageOffset = pageOffset;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+	
+	/**
+	 * The time to live of a region
+	 * */
+	private static class Policy {
+		private final long start;
+		private final long end;
+		private final long ttl;
+		
+		Policy(long start, long end, long ttl) {
+			this.start = start;
+			this.end = end;
+			this.ttl = ttl;
+		}
+	}
+}
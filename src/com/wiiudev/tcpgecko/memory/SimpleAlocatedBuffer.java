@@ -6,7 +6,7 @@ import com.wiiudev.tcpgecko.TcpGecko;
 import com.wiiudev.tcpgecko.WiiUException;
 import com.wiiudev.tcpgecko.rpl.CoreInit;
 
-public class SimpleAlocatedBuffer extends SimpleBuffer implements IAlocatedBuffer {
+public class SimpleAlocatedBuffer extends TrackingBuffer implements IAlocatedBuffer {
 
 	private final CoreInit coreInit;
 	private final boolean isHeap;
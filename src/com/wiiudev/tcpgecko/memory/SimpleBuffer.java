@@ -7,7 +7,7 @@ import com.wiiudev.tcpgecko.WiiUException;
 
 /**
  * A simple and stupid implementation of a remote buffer, only tracks if it is dirty<br>
- * So it flushes the entire buffer, not just the changed parts
+ * So it flushes the entire buffer, not just the changed parts, see {@link com.wiiudev.tcpgecko.memory.TrackingBuffer TrackingBuffer} for that
  * 
  * @author gudenau
  * */
@@ -0,0 +1,214 @@
+package com.wiiudev.tcpgecko.memory;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A block of memory read from the Wii U where only the chunks that are not all 0 are kept<br>
+ * The page map tells which chunks have data, everything else reads back as 0
+ * 
+ * @author gudenau
+ * */
+public class SparseMemory implements IChunkReceiver {
+	private final long address;
+	private final int length;
+	private final int chunkSize;
+	
+	private final BitSet pageMap;
+	private final byte[][] chunks;
+	private long skippedBytes;
+	
+	/**
+	 * Creates an empty sparse block, it is filled by passing it to {@link com.wiiudev.tcpgecko.TcpGecko#readMemoryChunks(long, int, IChunkReceiver) readMemoryChunks}
+	 * 
+	 * @param address Address of the start of the block
+	 * @param length Size of the block
+	 * @param chunkSize Size of a single chunk
+	 * */
+	public SparseMemory(long address, int length, int chunkSize) {
+		if(length <= 0){
+			throw new IllegalArgumentException("Length must be greater than 0!");
+		}
+		if(chunkSize <= 0){
+			throw new IllegalArgumentException("Chunk size must be greater than 0!");
+		}
+		
+		this.address = address;
+		this.length = length;
+		this.chunkSize = chunkSize;
+		
+		int chunkCount = (int) ((length + (long) chunkSize - 1) / chunkSize);
+		pageMap = new BitSet(chunkCount);
+		chunks = new byte[chunkCount][];
+	}
+	
+	@Override
+	public void receiveData(long address, byte[] data, int offset, int length) {
+		int index = getChunkIndex(address);
+		if(address != getChunkAddress(index)){
+			throw new IllegalArgumentException("Chunk is not aligned!");
+		}
+		
+		chunks[index] = Arrays.copyOfRange(data, offset, offset + length);
+		pageMap.set(index);
+	}
+	
+	@Override
+	public void receiveEmpty(long address, int length) {
+		int index = getChunkIndex(address);
+		chunks[index] = null;
+		pageMap.clear(index);
+		skippedBytes += length;
+	}
+	
+	/**
+	 * Reads data from the block, empty chunks read as 0
+	 * 
+	 * @param address Address to read from
+	 * @param data Buffer to write
+	 * @param offset Offset into the buffer
+	 * @param length Length of the data to read
+	 * 
+	 * @throws IllegalArgumentException If the range is not inside of the block
+	 * */
+	public void read(long address, byte[] data, int offset, int length) {
+		if(address < this.address || address + length > this.address + this.length){
+			throw new IllegalArgumentException("Address range is not inside of the block!");
+		}
+		
+		while(length > 0){
+			int index = getChunkIndex(address);
+			int chunkOffset = (int) (address - getChunkAddress(index));
+			int copyLength = Math.min(length, getChunkLength(index) - chunkOffset);
+			
+			byte[] chunk = chunks[index];
+			if(chunk == null){
+				Arrays.fill(data, offset, offset + copyLength, (byte) 0);
+			}else{
+				System.arraycopy(chunk, chunkOffset, data, offset, copyLength);
+			}
+			
+			address += copyLength;
+			offset += copyLength;
+			length -= copyLength;
+		}
+	}
+	
+	/**
+	 * Gets the data of a chunk
+	 * 
+	 * @param index Index of the chunk
+	 * 
+	 * @return The data of the chunk, or null if the chunk was all 0
+	 * */
+	public byte[] getChunk(int index) {
+		return chunks[index];
+	}
+	
+	/**
+	 * Checks if a chunk has data
+	 * 
+	 * @param index Index of the chunk
+	 * 
+	 * @return True if the chunk is not all 0
+	 * */
+	public boolean hasData(int index) {
+		return pageMap.get(index);
+	}
+	
+	/**
+	 * Gets a copy of the page map, a set bit means the chunk has data
+	 * 
+	 * @return The page map
+	 * */
+	public BitSet getPageMap() {
+		return (BitSet) pageMap.clone();
+	}
+	
+	/**
+	 * Gets the index of the chunk that contains an address
+	 * 
+	 * @param address The address
+	 * 
+	 * @return The chunk index
+	 * */
+	public int getChunkIndex(long address) {
+		return (int) ((address - this.address) / chunkSize);
+	}
+	
+	/**
+	 * Gets the address of the start of a chunk
+	 * 
+	 * @param index Index of the chunk
+	 * 
+	 * @return The address of the chunk
+	 * */
+	public long getChunkAddress(int index) {
+		return address + (long) index * chunkSize;
+	}
+	
+	/**
+	 * Gets the size of a chunk, only the last one can be smaller than the chunk size
+	 * 
+	 * @param index Index of the chunk
+	 * 
+	 * @return The size of the chunk
+	 * */
+	public int getChunkLength(int index) {
+		return (int) Math.min(chunkSize, address + length - getChunkAddress(index));
+	}
+	
+	/**
+	 * Gets the amount of chunks in this block
+	 * 
+	 * @return The amount of chunks
+	 * */
+	public int getChunkCount() {
+		return chunks.length;
+	}
+	
+	/**
+	 * Gets the amount of chunks that have data
+	 * 
+	 * @return The amount of chunks with data
+	 * */
+	public int getDataChunkCount() {
+		return pageMap.cardinality();
+	}
+	
+	/**
+	 * Gets the amount of memory the Wii U did not have to send, because it was all 0
+	 * 
+	 * @return Size of the empty chunks
+	 * */
+	public long getSkippedBytes() {
+		return skippedBytes;
+	}
+	
+	/**
+	 * Gets the address of the start of the block
+	 * 
+	 * @return The address
+	 * */
+	public long getAddress() {
+		return address;
+	}
+	
+	/**
+	 * Gets the size of the block
+	 * 
+	 * @return The size
+	 * */
+	public int getLength() {
+		return length;
+	}
+	
+	/**
+	 * Gets the size of a single chunk
+	 * 
+	 * @return The chunk size
+	 * */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+}
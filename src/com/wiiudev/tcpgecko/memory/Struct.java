@@ -0,0 +1,154 @@
+package com.wiiudev.tcpgecko.memory;
+
+import java.io.IOException;
+
+import com.wiiudev.tcpgecko.TcpGecko;
+import com.wiiudev.tcpgecko.Transaction;
+import com.wiiudev.tcpgecko.WiiUException;
+
+/**
+ * A local copy of a struct in the memory of the Wii U, made by a {@link com.wiiudev.tcpgecko.memory.StructLayout StructLayout}<br>
+ * Fields are changed locally with the field handles of the layout, {@link #write(TcpGecko) write} only sends the bytes that changed since the struct was read<br>
+ * Changed ranges can be merged with {@link #setMergeGap(int) setMergeGap}, that is off by default since it writes back unchanged bytes
+ * 
+ * @author gudenau
+ * */
+public class Struct {
+	private final StructLayout layout;
+	private final long address;
+	final byte[] data;
+	private final byte[] snapshot;
+	private int mergeGap;
+	
+	Struct(StructLayout layout, long address, byte[] data) {
+		this.layout = layout;
+		this.address = address;
+		this.data = data;
+		this.snapshot = data.clone();
+	}
+	
+	/**
+	 * Writes the changed parts of the struct to the Wii U<br>
+	 * Every changed range is queued into a single transaction, so this is one round-trip no matter how many fields changed
+	 * 
+	 * @param gecko The connection to use
+	 * 
+	 * @return Amount of bytes that were written
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * */
+	public int write(TcpGecko gecko) throws IOException, WiiUException {
+		Transaction transaction = gecko.pipeline();
+		int written = write(transaction);
+		if(written > 0){
+			transaction.execute();
+		}
+		return written;
+	}
+	
+	/**
+	 * Queues the changed parts of the struct into a transaction<br>
+	 * The struct counts as written once this returns, so the transaction should be executed right away
+	 * 
+	 * @param transaction The transaction to use
+	 * 
+	 * @return Amount of bytes that were queued
+	 * */
+	public int write(Transaction transaction) {
+		int written = 0;
+		int index = 0;
+		
+		while(index < data.length){
+			// Find the start of a changed range
+			if(data[index] == snapshot[index]){
+				index++;
+				continue;
+			}
+			
+			int start = index;
+			int end = index + 1;
+			
+			// Grow it until the gap to the next change is too big, touching changes always join
+			for(int i = end; i < data.length && (i == end || i - end < mergeGap); i++){
+				if(data[i] != snapshot[i]){
+					end = i + 1;
+				}
+			}
+			
+			transaction.writeMemory(address + start, data, start, end - start);
+			System.arraycopy(data, start, snapshot, start, end - start);
+			written += end - start;
+			index = end;
+		}
+		
+		return written;
+	}
+	
+	/**
+	 * Sets how close two changed ranges have to be to be sent as one write<br>
+	 * The bytes between them are written back as they were read, anything the game changed there since then is overwritten
+	 * 
+	 * @param mergeGap The gap, 0 only merges touching ranges
+	 * */
+	public void setMergeGap(int mergeGap) {
+		if(mergeGap < 0){
+			throw new IllegalArgumentException("Merge gap must be positive!");
+		}
+		this.mergeGap = mergeGap;
+	}
+	
+	/**
+	 * Gets how close two changed ranges have to be to be sent as one write
+	 * 
+	 * @return The merge gap
+	 * */
+	public int getMergeGap() {
+		return mergeGap;
+	}
+	
+	/**
+	 * Reads the whole struct again, local changes are lost
+	 * 
+	 * @param gecko The connection to use
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * */
+	public void refresh(TcpGecko gecko) throws IOException, WiiUException {
+		gecko.readMemory(address, data, 0, data.length);
+		System.arraycopy(data, 0, snapshot, 0, data.length);
+	}
+	
+	/**
+	 * Checks if any field was changed since the struct was read or written
+	 * 
+	 * @return True if there is something to write
+	 * */
+	public boolean isDirty() {
+		for(int i = 0; i < data.length; i++){
+			if(data[i] != snapshot[i]){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Gets the layout of this struct
+	 * 
+	 * @return The layout
+	 * */
+	public StructLayout getLayout() {
+		return layout;
+	}
+	
+	/**
+	 * Gets the address of the start of the struct
+	 * 
+	 * @return The address
+	 * */
+	public long getAddress() {
+		return address;
+	}
+}
@@ -0,0 +1,270 @@
+package com.wiiudev.tcpgecko.memory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.wiiudev.tcpgecko.TcpGecko;
+import com.wiiudev.tcpgecko.WiiUException;
+import com.wiiudev.tcpgecko.io.BigEndian;
+
+/**
+ * Describes a struct in the memory of the Wii U, as a list of typed fields at fixed offsets<br>
+ * Every field is a handle that knows its own offset, so reading or writing a field is a plain array access without any reflection<br>
+ * <br>
+ * The whole span of the struct is read with a single read, see {@link com.wiiudev.tcpgecko.memory.Struct Struct}
+ * 
+ * @author gudenau
+ * */
+public class StructLayout {
+	private final List<Field> fields = new ArrayList<Field>();
+	private int size;
+	
+	/**
+	 * Adds a byte field
+	 * 
+	 * @param offset Offset of the field from the start of the struct
+	 * 
+	 * @return The handle of the field
+	 * */
+	public ByteField addByte(int offset) {
+		return add(new ByteField(this, offset));
+	}
+	
+	/**
+	 * Adds a short field
+	 * 
+	 * @param offset Offset of the field from the start of the struct
+	 * 
+	 * @return The handle of the field
+	 * */
+	public ShortField addShort(int offset) {
+		return add(new ShortField(this, offset));
+	}
+	
+	/**
+	 * Adds an integer field
+	 * 
+	 * @param offset Offset of the field from the start of the struct
+	 * 
+	 * @return The handle of the field
+	 * */
+	public IntField addInt(int offset) {
+		return add(new IntField(this, offset));
+	}
+	
+	/**
+	 * Adds a float field
+	 * 
+	 * @param offset Offset of the field from the start of the struct
+	 * 
+	 * @return The handle of the field
+	 * */
+	public FloatField addFloat(int offset) {
+		return add(new FloatField(this, offset));
+	}
+	
+	private <T extends Field> T add(T field) {
+		if(field.offset < 0){
+			throw new IllegalArgumentException("Offset must be positive!");
+		}
+		
+		fields.add(field);
+		size = Math.max(size, field.offset + field.size);
+		return field;
+	}
+	
+	/**
+	 * Reads a struct from the Wii U with a single read of its whole span
+	 * 
+	 * @param gecko The connection to use
+	 * @param address Address of the start of the struct
+	 * 
+	 * @return The read struct
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If the address is invalid or the layout is empty
+	 * */
+	public Struct read(TcpGecko gecko, long address) throws IOException, WiiUException {
+		if(size == 0){
+			throw new IllegalArgumentException("Layout has no fields!");
+		}
+		
+		byte[] data = new byte[size];
+		gecko.readMemory(address, data, 0, size);
+		return new Struct(this, address, data);
+	}
+	
+	/**
+	 * Reads a struct through a {@link com.wiiudev.tcpgecko.memory.PageCache page cache}
+	 * 
+	 * @param cache The cache to read through
+	 * @param address Address of the start of the struct
+	 * 
+	 * @return The read struct
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If the address is invalid or the layout is empty
+	 * */
+	public Struct read(PageCache cache, long address) throws IOException, WiiUException {
+		if(size == 0){
+			throw new IllegalArgumentException("Layout has no fields!");
+		}
+		
+		byte[] data = new byte[size];
+		cache.readMemory(address, data, 0, size);
+		return new Struct(this, address, data);
+	}
+	
+	/**
+	 * Wraps data that was already read from the Wii U
+	 * 
+	 * @param address Address of the start of the struct
+	 * @param data The data of the struct, it is copied
+	 * 
+	 * @return The struct
+	 * 
+	 * @throws IllegalArgumentException If the data is smaller than the layout
+	 * */
+	public Struct wrap(long address, byte[] data) {
+		if(data.length < size){
+			throw new IllegalArgumentException("Buffer is too small!");
+		}
+		
+		byte[] copy = new byte[size];
+		System.arraycopy(data, 0, copy, 0, size);
+		return new Struct(this, address, copy);
+	}
+	
+	/**
+	 * Gets the size of the span of the struct
+	 * 
+	 * @return End of the last field
+	 * */
+	public int getSize() {
+		return size;
+	}
+	
+	/**
+	 * Gets the fields of the struct
+	 * 
+	 * @return The fields, in the order they were added
+	 * */
+	public List<Field> getFields() {
+		return Collections.unmodifiableList(fields);
+	}
+	
+	/**
+	 * A field of a struct
+	 * */
+	public abstract static class Field {
+		private final StructLayout layout;
+		final int offset;
+		final int size;
+		
+		Field(StructLayout layout, int offset, int size) {
+			this.layout = layout;
+			this.offset = offset;
+			this.size = size;
+		}
+		
+		/**
+		 * Gets the data of a struct, after making sure the struct uses this layout
+		 * */
+		byte[] data(Struct struct) {
+			if(struct.getLayout() != layout){
+				throw new IllegalArgumentException("Field is not part of this struct!");
+			}
+			return struct.data;
+		}
+		
+		/**
+		 * Gets the offset of the field from the start of the struct
+		 * 
+		 * @return The offset
+		 * */
+		public int getOffset() {
+			return offset;
+		}
+		
+		/**
+		 * Gets the size of the field
+		 * 
+		 * @return The size
+		 * */
+		public int getSize() {
+			return size;
+		}
+	}
+	
+	/**
+	 * A byte field
+	 * */
+	public static class ByteField extends Field {
+		ByteField(StructLayout layout, int offset) {
+			super(layout, offset, 1);
+		}
+		
+		public byte get(Struct struct) {
+			return data(struct)[offset];
+		}
+		
+		public void set(Struct struct, byte value) {
+			data(struct)[offset] = value;
+		}
+	}
+	
+	/**
+	 * A short field
+	 * */
+	public static class ShortField extends Field {
+		ShortField(StructLayout layout, int offset) {
+			super(layout, offset, 2);
+		}
+		
+		public short get(Struct struct) {
+			return BigEndian.getShort(data(struct), offset);
+		}
+		
+		public void set(Struct struct, short value) {
+			BigEndian.putShort(data(struct), offset, value);
+		}
+	}
+	
+	/**
+	 * An integer field
+	 * */
+	public static class IntField extends Field {
+		IntField(StructLayout layout, int offset) {
+			super(layout, offset, 4);
+		}
+		
+		public int get(Struct struct) {
+			return BigEndian.getInteger(data(struct), offset);
+		}
+		
+		public void set(Struct struct, int value) {
+			BigEndian.putInteger(data(struct), offset, value);
+		}
+	}
+	
+	/**
+	 * A float field
+	 * */
+	public static class FloatField extends Field {
+		FloatField(StructLayout layout, int offset) {
+			super(layout, offset, 4);
+		}
+		
+		public float get(Struct struct) {
+			return Float.intBitsToFloat(BigEndian.getInteger(data(struct), offset));
+		}
+		
+		public void set(Struct struct, float value) {
+			BigEndian.putInteger(data(struct), offset, Float.floatToRawIntBits(value));
+		}
+	}
+}
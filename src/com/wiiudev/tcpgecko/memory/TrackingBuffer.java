@@ -0,0 +1,305 @@
+package com.wiiudev.tcpgecko.memory;
+
+import java.io.IOException;
+
+import com.wiiudev.tcpgecko.TcpGecko;
+import com.wiiudev.tcpgecko.Transaction;
+import com.wiiudev.tcpgecko.WiiUException;
+
+/**
+ * A remote buffer that remembers which parts of it changed<br>
+ * The changed parts are kept as a sorted list of merged ranges, a flush only sends those ranges in a single transaction<br>
+ * <br>
+ * Ranges that are closer than the merge gap are sent as one write, a small gap is cheaper to resend than another command.
+ * The bytes in the gap are sent from the local copy, so anything the game changed there since the read is overwritten.
+ * Merging is off by default for that reason
+ * 
+ * @author gudenau
+ * */
+public class TrackingBuffer implements IRemoteBuffer {
+	/**
+	 * The default merge gap, only touching ranges are merged so unchanged bytes are never written
+	 * */
+	public static final int DEFAULT_MERGE_GAP = 0;
+	
+	private final TcpGecko gecko;
+	private final int address;
+	private final byte[] data;
+	private int mergeGap;
+	
+	// Sorted, non overlapping and non touching ranges, the end is exclusive
+	private int[] starts = new int[4];
+	private int[] ends = new int[4];
+	private int rangeCount;
+	
+	private long writtenBytes;
+	private long savedBytes;
+	
+	public TrackingBuffer(TcpGecko gecko, int address, byte[] data){
+		this(gecko, address, data, DEFAULT_MERGE_GAP);
+	}
+	
+	/**
+	 * Creates a tracking buffer
+	 * 
+	 * @param gecko The connection to flush with
+	 * @param address Address of the start of the block
+	 * @param data The local copy of the block
+	 * @param mergeGap Changed ranges closer than this are flushed as one write, the bytes between them are overwritten with the local copy
+	 * */
+	public TrackingBuffer(TcpGecko gecko, int address, byte[] data, int mergeGap){
+		this.gecko = gecko;
+		this.address = address;
+		this.data = data;
+		setMergeGap(mergeGap);
+	}
+	
+	@Override
+	public int getSize() {
+		return data.length;
+	}
+	
+	@Override
+	public int getAddress() {
+		return address;
+	}
+	
+	@Override
+	public void setData(int address, byte[] data, int offset, int length) {
+		System.arraycopy(data, offset, this.data, address, length);
+		if(length > 0){
+			addRange(address, address + length);
+		}
+	}
+	
+	@Override
+	public void getData(int address, byte[] data, int offset, int length) {
+		System.arraycopy(this.data, address, data, offset, length);
+	}
+	
+	@Override
+	public boolean isDirty() {
+		return rangeCount != 0;
+	}
+	
+	@Override
+	public void flush() throws IOException, WiiUException {
+		if(rangeCount == 0){
+			return;
+		}
+		
+		Transaction transaction = gecko.pipeline();
+		long base = address & 0x00000000FFFFFFFFL;
+		int written = 0;
+		
+		int start = starts[0];
+		int end = ends[0];
+		for(int i = 1; i <= rangeCount; i++){
+			if(i < rangeCount && starts[i] - end < mergeGap){
+				end = ends[i];
+				continue;
+			}
+			
+			transaction.writeMemory(base + start, data, start, end - start);
+			written += end - start;
+			
+			if(i < rangeCount){
+				start = starts[i];
+				end = ends[i];
+			}
+		}
+		
+		transaction.execute();
+		
+		writtenBytes += written;
+		savedBytes += data.length - written;
+		rangeCount = 0;
+	}
+	
+	@Override
+	public void update() throws IOException, WiiUException {
+		update(0, data.length);
+	}
+	
+	/**
+	 * {@inheritDoc}<br>
+	 * Local changes inside of the range are lost
+	 * */
+	@Override
+	public void update(int offset, int size) throws IOException, WiiUException {
+		gecko.readMemory((address & 0x00000000FFFFFFFFL) + offset, data, offset, size);
+		removeRange(offset, offset + size);
+	}
+	
+	@Override
+	public void markDirty() {
+		starts[0] = 0;
+		ends[0] = data.length;
+		rangeCount = data.length == 0 ? 0 : 1;
+	}
+	
+	/**
+	 * Marks part of the buffer as dirty
+	 * 
+	 * @param offset Offset relative to the start of the buffer
+	 * @param length Length of the dirty part
+	 * */
+	public void markDirty(int offset, int length) {
+		if(offset < 0 || length < 0 || offset + length > data.length){
+			throw new IllegalArgumentException("Address range is not valid!");
+		}
+		if(length > 0){
+			addRange(offset, offset + length);
+		}
+	}
+	
+	@Override
+	public void clearDirty() {
+		rangeCount = 0;
+	}
+	
+	/**
+	 * Gets the amount of data the next flush has to send, without the merged gaps
+	 * 
+	 * @return Size of the changed parts
+	 * */
+	public int getDirtyBytes() {
+		int size = 0;
+		for(int i = 0; i < rangeCount; i++){
+			size += ends[i] - starts[i];
+		}
+		return size;
+	}
+	
+	/**
+	 * Gets the amount of changed ranges
+	 * 
+	 * @return The amount of ranges, before merging gaps
+	 * */
+	public int getDirtyRangeCount() {
+		return rangeCount;
+	}
+	
+	/**
+	 * Gets the amount of data all flushes sent
+	 * 
+	 * @return Amount of written data
+	 * */
+	public long getWrittenBytes() {
+		return writtenBytes;
+	}
+	
+	/**
+	 * Gets the amount of data all flushes did not have to send, compared to sending the whole buffer every time
+	 * 
+	 * @return Amount of saved data
+	 * */
+	public long getSavedBytes() {
+		return savedBytes;
+	}
+	
+	/**
+	 * Sets the merge gap
+	 * 
+	 * @param mergeGap Changed ranges closer than this are flushed as one write, 0 never merges.
+	 * The bytes between merged ranges are overwritten with the local copy, only use this for memory the game does not change
+	 * */
+	public void setMergeGap(int mergeGap) {
+		if(mergeGap < 0){
+			throw new IllegalArgumentException("Merge gap must be positive!");
+		}
+		this.mergeGap = mergeGap;
+	}
+	
+	/**
+	 * Gets the merge gap
+	 * 
+	 * @return The merge gap
+	 * */
+	public int getMergeGap() {
+		return mergeGap;
+	}
+	
+	/**
+	 * Adds a range, merging it with every range it overlaps or touches
+	 * */
+	private void addRange(int start, int end) {
+		// First range that ends at or after the start
+		int low = 0;
+		int high = rangeCount;
+		while(low < high){
+			int middle = (low + high) >>> 1;
+			if(ends[middle] < start){
+				low = middle + 1;
+			}else{
+				high = middle;
+			}
+		}
+		
+		int last = low;
+		while(last < rangeCount && starts[last] <= end){
+			start = Math.min(start, starts[last]);
+			end = Math.max(end, ends[last]);
+			last++;
+		}
+		
+		int removed = last - low;
+		if(removed == 0){
+			// Make room for a new range
+			if(rangeCount == starts.length){
+				starts = grow(starts);
+				ends = grow(ends);
+			}
+			System.arraycopy(starts, low, starts, low + 1, rangeCount - low);
+			System.arraycopy(ends, low, ends, low + 1, rangeCount - low);
+			rangeCount++;
+		}else if(removed > 1){
+			// Collapse the merged ranges into one
+			System.arraycopy(starts, last, starts, low + 1, rangeCount - last);
+			System.arraycopy(ends, last, ends, low + 1, rangeCount - last);
+			rangeCount -= removed - 1;
+		}
+		
+		starts[low] = start;
+		ends[low] = end;
+	}
+	
+	/**
+	 * Removes a range, cutting the ranges it overlaps
+	 * */
+	private void removeRange(int start, int end) {
+		if(start >= end){
+			return;
+		}
+		
+		int count = 0;
+		int[] newStarts = new int[rangeCount + 1];
+		int[] newEnds = new int[rangeCount + 1];
+		
+		for(int i = 0; i < rangeCount; i++){
+			if(starts[i] < start){
+				newStarts[count] = starts[i];
+				newEnds[count++] = Math.min(ends[i], start);
+			}
+			if(ends[i] > end){
+				newStarts[count] = Math.max(starts[i], end);
+				newEnds[count++] = ends[i];
+			}
+		}
+		
+		if(newStarts.length > starts.length){
+			starts = newStarts;
+			ends = newEnds;
+		}else{
+			System.arraycopy(newStarts, 0, starts, 0, count);
+			System.arraycopy(newEnds, 0, ends, 0, count);
+		}
+		rangeCount = count;
+	}
+	
+	private static int[] grow(int[] array) {
+		int[] newArray = new int[array.length << 1];
+		System.arraycopy(array, 0, newArray, 0, array.length);
+		return newArray;
+	}
+}
@@ -3,8 +3,11 @@ package com.wiiudev.tcpgecko.rpl;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
 
 import com.wiiudev.tcpgecko.ExportedSymbol;
+import com.wiiudev.tcpgecko.SymbolRequest;
 import com.wiiudev.tcpgecko.TcpGecko;
 import com.wiiudev.tcpgecko.WiiUException;
 import com.wiiudev.tcpgecko.memory.IAlocatedBuffer;
@@ -22,12 +25,35 @@ import com.wiiudev.tcpgecko.memory.SimpleAlocatedBuffer;
  * */
 public class CoreInit implements Closeable {
 
+	/**
+	 * All of the symbols used by this class
+	 * */
+	private static final List<SymbolRequest> SYMBOLS = Arrays.asList(
+			new SymbolRequest("coreinit.rpl", "MEMAllocFromDefaultHeapEx", true, true),
+			new SymbolRequest("coreinit.rpl", "MEMFreeToDefaultHeap", true, true),
+			new SymbolRequest("coreinit.rpl", "OSAllocFromSystem"),
+			new SymbolRequest("coreinit.rpl", "OSFreeToSystem"),
+			new SymbolRequest("coreinit.rpl", "memset"),
+			new SymbolRequest("coreinit.rpl", "OSGetTitleID")
+	);
+	
 	private final TcpGecko gecko;
 	
 	public CoreInit(TcpGecko gecko) {
 		this.gecko = gecko;
 	}
 	
+	/**
+	 * Gets all of the symbols this class uses in a single burst, so later calls find them in the symbol cache<br>
+	 * This does not help if the symbol cache is disabled
+	 * 
+	 * @throws IOException When there is an error talking to the Wii U
+	 * @throws WiiUException When there is a protocol error while talking to the Wii U
+	 * */
+	public void preloadSymbols() throws IOException, WiiUException {
+		gecko.resolveSymbols(SYMBOLS);
+	}
+	
 	/**
 	 * Allocates memory on the default heap
 	 * 
@@ -126,6 +152,19 @@ public class CoreInit implements Closeable {
 		symbol.call(address);
 	}
 	
+	/**
+	 * Gets the title ID of the running title, updates report the ID of the game they belong to
+	 * 
+	 * @return The title ID
+	 * 
+	 * @throws IOException When there is an error talking to the Wii U
+	 * @throws WiiUException When there is a protocol error while talking to the Wii U
+	 * */
+	public long getTitleId() throws IOException, WiiUException{
+		ExportedSymbol symbol = gecko.getSymbol("coreinit.rpl", "OSGetTitleID", false, false);
+		return symbol.call();
+	}
+	
 	/**
 	 * Sets an area of memory to a given value
 	 * 
@@ -2,7 +2,10 @@ package com.wiiudev.tcpgecko.rpl.filesystem;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
+import com.wiiudev.tcpgecko.SymbolRequest;
 import com.wiiudev.tcpgecko.TcpGecko;
 import com.wiiudev.tcpgecko.WiiUException;
 import com.wiiudev.tcpgecko.enumeration.FSErrorHandling;
@@ -20,6 +23,19 @@ import com.wiiudev.tcpgecko.rpl.FSDirHandle;
  * @author gudenau
  * */
 public class Filesystem implements Closeable {
+	/**
+	 * All of the symbols used by this class
+	 * */
+	private static final List<SymbolRequest> SYMBOLS = Arrays.asList(
+			new SymbolRequest("coreinit.rpl", "FSInit"),
+			new SymbolRequest("coreinit.rpl", "FSShutdown"),
+			new SymbolRequest("coreinit.rpl", "FSAddClient"),
+			new SymbolRequest("coreinit.rpl", "FSDelClient"),
+			new SymbolRequest("coreinit.rpl", "FSGetClientNum"),
+			new SymbolRequest("coreinit.rpl", "FSInitCmdBlock"),
+			new SymbolRequest("coreinit.rpl", "FSCancelCommand")
+	);
+	
 	private final TcpGecko gecko;
 	private final CoreInit coreInit;
 	
@@ -27,6 +43,17 @@ public class Filesystem implements Closeable {
 		this.gecko = gecko;
 		this.coreInit = gecko.getCoreInit();
 	}
+	
+	/**
+	 * Gets all of the symbols this class uses in a single burst, so later calls find them in the symbol cache<br>
+	 * This does not help if the symbol cache is disabled
+	 * 
+	 * @throws IOException When there is an error talking to the Wii U
+	 * @throws WiiUException When there is a protocol error while talking to the Wii U
+	 * */
+	public void preloadSymbols() throws IOException, WiiUException {
+		gecko.resolveSymbols(SYMBOLS);
+	}
 
 	/**
 	 * Initialize FS library
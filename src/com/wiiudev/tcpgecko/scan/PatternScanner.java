@@ -0,0 +1,385 @@
+package com.wiiudev.tcpgecko.scan;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scans a {@link com.wiiudev.tcpgecko.scan.Snapshot snapshot} for many patterns at once, for things MEMORY_SEARCH_32 can't find<br>
+ * Signatures with wildcards and 16 bit values are found in a single pass over every block, floats inside of a range in a second pass over the same block<br>
+ * <br>
+ * Every signature has an anchor byte, the scanner looks for the anchors and only checks the signatures that use the anchor it found.
+ * When there are only a few different anchors whole 8 byte words without any of them are skipped with a couple of bit tricks<br>
+ * The snapshot is split into blocks that are scanned on a {@link java.util.concurrent.ForkJoinPool ForkJoinPool}
+ * 
+ * @author gudenau
+ * */
+public class PatternScanner {
+	/**
+	 * The default maximum amount of hits
+	 * */
+	public static final int DEFAULT_MAX_HITS = 0x00100000;
+	
+	private static final int BLOCK_SIZE = 0x00100000;
+	private static final int MAX_PATTERNS = 0x10000;
+	private static final int MAX_WORD_ANCHORS = 4;
+	
+	private static final long ONES = 0x0101010101010101L;
+	private static final long HIGHS = 0x8080808080808080L;
+	
+	private final List<Signature> signatures = new ArrayList<Signature>();
+	private final List<Integer> signatureIds = new ArrayList<Integer>();
+	private final List<float[]> floats = new ArrayList<float[]>();
+	private final List<Integer> floatIds = new ArrayList<Integer>();
+	private int patternCount;
+	private int maxHits = DEFAULT_MAX_HITS;
+	
+	/**
+	 * Adds a signature
+	 * 
+	 * @param signature The signature
+	 * 
+	 * @return The id of the pattern, used to tell the hits apart
+	 * */
+	public int add(Signature signature) {
+		int id = nextId();
+		signatures.add(signature);
+		signatureIds.add(id);
+		return id;
+	}
+	
+	/**
+	 * Adds a short, it only matches at even addresses
+	 * 
+	 * @param value The value
+	 * 
+	 * @return The id of the pattern, used to tell the hits apart
+	 * */
+	public int addShort(short value) {
+		return add(Signature.ofShort(value));
+	}
+	
+	/**
+	 * Adds an integer, it only matches at addresses divisable by 4
+	 * 
+	 * @param value The value
+	 * 
+	 * @return The id of the pattern, used to tell the hits apart
+	 * */
+	public int addInteger(int value) {
+		return add(Signature.ofInteger(value));
+	}
+	
+	/**
+	 * Adds a float range, it only matches at addresses divisable by 4. NaN never matches
+	 * 
+	 * @param min The smallest value, inclusive
+	 * @param max The biggest value, inclusive
+	 * 
+	 * @return The id of the pattern, used to tell the hits apart
+	 * */
+	public int addFloat(float min, float max) {
+		if(!(min <= max)){
+			throw new IllegalArgumentException("Float range is not valid!");
+		}
+		
+		int id = nextId();
+		floats.add(new float[]{min, max});
+		floatIds.add(id);
+		return id;
+	}
+	
+	/**
+	 * Sets the most hits a scan keeps, the scan stops early once there are more
+	 * 
+	 * @param maxHits The most hits
+	 * */
+	public void setMaxHits(int maxHits) {
+		if(maxHits <= 0){
+			throw new IllegalArgumentException("Max hits must be greater than 0!");
+		}
+		this.maxHits = maxHits;
+	}
+	
+	/**
+	 * Gets the most hits a scan keeps
+	 * 
+	 * @return The most hits
+	 * */
+	public int getMaxHits() {
+		return maxHits;
+	}
+	
+	/**
+	 * Scans a snapshot on the common pool
+	 * 
+	 * @param snapshot The snapshot to scan
+	 * 
+	 * @return The hits
+	 * */
+	public ScanResult scan(Snapshot snapshot) {
+		return scan(snapshot, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Scans a snapshot
+	 * 
+	 * @param snapshot The snapshot to scan
+	 * @param pool The pool to scan on
+	 * 
+	 * @return The hits
+	 * */
+	public ScanResult scan(Snapshot snapshot, ForkJoinPool pool) {
+		if(patternCount == 0){
+			throw new IllegalArgumentException("Nothing to scan for!");
+		}
+		
+		long start = System.nanoTime();
+		
+		Plan plan = new Plan(snapshot);
+		int blocks = (int) ((snapshot.getLength() + (long) BLOCK_SIZE - 1) / BLOCK_SIZE);
+		long[][] results = new long[blocks][];
+		int[] sizes = new int[blocks];
+		
+		pool.invoke(new ScanTask(plan, results, sizes, 0, blocks));
+		
+		int total = 0;
+		for(int size : sizes){
+			total += size;
+		}
+		total = Math.min(total, maxHits);
+		
+		// Blocks are in order and sorted, so putting them back to back keeps everything sorted
+		long[] hits = new long[total];
+		int position = 0;
+		for(int i = 0; i < blocks && position < total; i++){
+			int length = Math.min(sizes[i], total - position);
+			System.arraycopy(results[i], 0, hits, position, length);
+			position += length;
+		}
+		
+		return new ScanResult(snapshot.getAddress(), hits, plan.truncated, System.nanoTime() - start);
+	}
+	
+	private int nextId() {
+		if(patternCount == MAX_PATTERNS){
+			throw new IllegalArgumentException("Too many patterns!");
+		}
+		return patternCount++;
+	}
+	
+	/**
+	 * Everything a scan needs in arrays, so the inner loops don't go through lists
+	 * */
+	private class Plan {
+		private final ByteBuffer data;
+		private final long address;
+		private final int limit;
+		
+		private final Signature[] signatures;
+		private final int[] signatureIds;
+		private final int[][] anchors = new int[256][];
+		private final long[] wordAnchors;
+		private final int maxAnchor;
+		
+		private final float[] floatMin;
+		private final float[] floatMax;
+		private final int[] floatIds;
+		
+		private final AtomicLong hitCount = new AtomicLong();
+		private volatile boolean truncated;
+		
+		Plan(Snapshot snapshot) {
+			data = snapshot.data();
+			address = snapshot.getAddress();
+			limit = snapshot.getLength();
+			
+			signatures = PatternScanner.this.signatures.toArray(new Signature[0]);
+			signatureIds = new int[signatures.length];
+			
+			int maxAnchor = 0;
+			int anchorCount = 0;
+			long[] wordAnchors = new long[MAX_WORD_ANCHORS];
+			
+			for(int i = 0; i < signatures.length; i++){
+				Signature signature = signatures[i];
+				signatureIds[i] = PatternScanner.this.signatureIds.get(i);
+				maxAnchor = Math.max(maxAnchor, signature.getAnchor());
+				
+				int anchor = signature.getAnchorByte() & 0xFF;
+				int[] list = anchors[anchor];
+				if(list == null){
+					list = new int[0];
+					if(anchorCount < MAX_WORD_ANCHORS){
+						wordAnchors[anchorCount] = anchor * ONES;
+					}
+					anchorCount++;
+				}
+				list = Arrays.copyOf(list, list.length + 1);
+				list[list.length - 1] = i;
+				anchors[anchor] = list;
+			}
+			
+			this.maxAnchor = maxAnchor;
+			this.wordAnchors = anchorCount <= MAX_WORD_ANCHORS ? Arrays.copyOf(wordAnchors, anchorCount) : null;
+			
+			int floatCount = PatternScanner.this.floats.size();
+			floatMin = new float[floatCount];
+			floatMax = new float[floatCount];
+			floatIds = new int[floatCount];
+			for(int i = 0; i < floatCount; i++){
+				floatMin[i] = PatternScanner.this.floats.get(i)[0];
+				floatMax[i] = PatternScanner.this.floats.get(i)[1];
+				floatIds[i] = PatternScanner.this.floatIds.get(i);
+			}
+		}
+	}
+	
+	/**
+	 * Splits the blocks until there is only one left, then scans it
+	 * */
+	private class ScanTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final Plan plan;
+		private final long[][] results;
+		private final int[] sizes;
+		private final int first;
+		private final int last;
+		
+		private long[] hits;
+		private int size;
+		
+		ScanTask(Plan plan, long[][] results, int[] sizes, int first, int last) {
+			this.plan = plan;
+			this.results = results;
+			this.sizes = sizes;
+			this.first = first;
+			this.last = last;
+		}
+		
+		@Override
+		protected void compute() {
+			if(last - first > 1){
+				int middle = (first + last) >>> 1;
+				invokeAll(
+					new ScanTask(plan, results, sizes, first, middle),
+					new ScanTask(plan, results, sizes, middle, last)
+				);
+				return;
+			}
+			
+			int from = (int) Math.min((long) first * BLOCK_SIZE, plan.limit);
+			int to = (int) Math.min((long) from + BLOCK_SIZE, plan.limit);
+			
+			hits = new long[64];
+			
+			if(plan.signatures.length != 0){
+				scanSignatures(from, to);
+			}
+			if(plan.floatIds.length != 0){
+				scanFloats(from, to);
+			}
+			
+			// Hits come out in anchor order and floats in a second pass, the merge needs them by start
+			Arrays.sort(hits, 0, size);
+			
+			results[first] = hits;
+			sizes[first] = size;
+		}
+		
+		private void scanSignatures(int from, int to) {
+			ByteBuffer data = plan.data;
+			long[] wordAnchors = plan.wordAnchors;
+			
+			// Signatures that start in this block can have their anchor past the end of it
+			int end = (int) Math.min((long) to + plan.maxAnchor, plan.limit);
+			int index = from;
+			
+			if(wordAnchors != null){
+				while(index + 8 <= end && !plan.truncated){
+					long word = data.getLong(index);
+					
+					boolean found = false;
+					for(long anchor : wordAnchors){
+						// Any byte that matches the anchor becomes 0
+						long test = word ^ anchor;
+						if(((test - ONES) & ~test & HIGHS) != 0){
+							found = true;
+							break;
+						}
+					}
+					
+					if(found){
+						for(int i = 0; i < 8; i++){
+							check(index + i, from, to);
+						}
+					}
+					index += 8;
+				}
+			}
+			
+			while(index < end && !plan.truncated){
+				check(index, from, to);
+				index++;
+			}
+		}
+		
+		private void check(int index, int from, int to) {
+			int[] candidates = plan.anchors[plan.data.get(index) & 0xFF];
+			if(candidates == null){
+				return;
+			}
+			
+			for(int candidate : candidates){
+				Signature signature = plan.signatures[candidate];
+				int start = index - signature.getAnchor();
+				
+				if(start < from || start >= to || start + signature.getLength() > plan.limit){
+					continue;
+				}
+				if((plan.address + start) % signature.getAlignment() != 0){
+					continue;
+				}
+				if(signature.matches(plan.data, start)){
+					add(start, plan.signatureIds[candidate]);
+				}
+			}
+		}
+		
+		private void scanFloats(int from, int to) {
+			ByteBuffer data = plan.data;
+			float[] min = plan.floatMin;
+			float[] max = plan.floatMax;
+			int[] ids = plan.floatIds;
+			
+			int index = from + (int) ((4 - ((plan.address + from) & 3)) & 3);
+			int end = Math.min(to, plan.limit - 3);
+			
+			for(; index < end && !plan.truncated; index += 4){
+				float value = data.getFloat(index);
+				for(int i = 0; i < ids.length; i++){
+					if(value >= min[i] && value <= max[i]){
+						add(index, ids[i]);
+					}
+				}
+			}
+		}
+		
+		private void add(int index, int id) {
+			if(plan.hitCount.incrementAndGet() > maxHits){
+				plan.truncated = true;
+				return;
+			}
+			
+			if(size == hits.length){
+				hits = Arrays.copyOf(hits, size << 1);
+			}
+			hits[size++] = ((long) index << 16) | id;
+		}
+	}
+}
@@ -0,0 +1,327 @@
+package com.wiiudev.tcpgecko.scan;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.wiiudev.tcpgecko.TcpGecko;
+import com.wiiudev.tcpgecko.WiiUException;
+import com.wiiudev.tcpgecko.enumeration.MemoryAccess;
+import com.wiiudev.tcpgecko.memory.MemoryMap;
+
+/**
+ * A reverse index of every value in a set of {@link com.wiiudev.tcpgecko.scan.Snapshot snapshots} that looks like a pointer<br>
+ * A value looks like a pointer if it is divisable by 4 and points inside of one of the snapshots<br>
+ * <br>
+ * The pointers are kept in a single sorted long array, the value in the high half and the address in the low half,
+ * so finding everything that points into a range is a binary search instead of a walk over all of memory
+ * 
+ * @author gudenau
+ * */
+public class PointerIndex {
+	private static final int BLOCK_SIZE = 0x00100000;
+	
+	private final Snapshot[] snapshots;
+	private final long[] starts;
+	private final long[] pointers;
+	
+	private PointerIndex(Snapshot[] snapshots, long[] pointers) {
+		this.snapshots = snapshots;
+		this.pointers = pointers;
+		
+		starts = new long[snapshots.length];
+		for(int i = 0; i < snapshots.length; i++){
+			starts[i] = snapshots[i].getAddress();
+		}
+	}
+	
+	/**
+	 * Reads every readable region of the Wii U inside of a range and indexes it
+	 * 
+	 * @param gecko The connection to use
+	 * @param start Start of the range
+	 * @param end End of the range, it is not part of the range
+	 * 
+	 * @return The index
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If there is nothing readable in the range
+	 * */
+	public static PointerIndex read(TcpGecko gecko, long start, long end) throws IOException, WiiUException {
+		List<Snapshot> snapshots = new ArrayList<Snapshot>();
+		
+		for(MemoryMap.Region region : gecko.getMemoryMap().getRegions()){
+			if(!region.allows(MemoryAccess.READ)){
+				continue;
+			}
+			
+			long from = Math.max(start, region.getStart());
+			long to = Math.min(end, region.getEnd());
+			if(from >= to){
+				continue;
+			}
+			
+			// A snapshot has to fit in an array
+			while(from < to){
+				int length = (int) Math.min(to - from, 0x40000000L);
+				if(gecko.validateMemoryRange(from, length)){
+					snapshots.add(Snapshot.read(gecko, from, length));
+				}
+				from += length;
+			}
+		}
+		
+		return build(snapshots);
+	}
+	
+	/**
+	 * Indexes a set of snapshots on the common pool
+	 * 
+	 * @param snapshots The snapshots, they must not overlap
+	 * 
+	 * @return The index
+	 * 
+	 * @throws IllegalArgumentException If there are no snapshots or two of them overlap
+	 * */
+	public static PointerIndex build(List<Snapshot> snapshots) {
+		return build(snapshots, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Indexes a set of snapshots
+	 * 
+	 * @param snapshots The snapshots, they must not overlap
+	 * @param pool The pool to index on
+	 * 
+	 * @return The index
+	 * 
+	 * @throws IllegalArgumentException If there are no snapshots or two of them overlap
+	 * */
+	public static PointerIndex build(List<Snapshot> snapshots, ForkJoinPool pool) {
+		if(snapshots.isEmpty()){
+			throw new IllegalArgumentException("Nothing to index!");
+		}
+		
+		Snapshot[] sorted = snapshots.toArray(new Snapshot[snapshots.size()]);
+		Arrays.sort(sorted, new Comparator<Snapshot>() {
+			@Override
+			public int compare(Snapshot a, Snapshot b) {
+				return Long.compare(a.getAddress(), b.getAddress());
+			}
+		});
+		for(int i = 1; i < sorted.length; i++){
+			if(sorted[i - 1].getAddress() + sorted[i - 1].getLength() > sorted[i].getAddress()){
+				throw new IllegalArgumentException("Snapshots must not overlap!");
+			}
+		}
+		
+		PointerIndex empty = new PointerIndex(sorted, null);
+		
+		// Every block remembers which snapshot it is from
+		List<int[]> blocks = new ArrayList<int[]>();
+		for(int i = 0; i < sorted.length; i++){
+			int length = sorted[i].getLength();
+			for(long from = 0; from < length; from += BLOCK_SIZE){
+				blocks.add(new int[]{i, (int) from, (int) Math.min(from + BLOCK_SIZE, length)});
+			}
+		}
+		
+		long[][] results = new long[blocks.size()][];
+		int[] sizes = new int[blocks.size()];
+		pool.invoke(new IndexTask(empty, blocks, results, sizes, 0, blocks.size()));
+		
+		int total = 0;
+		for(int size : sizes){
+			total += size;
+		}
+		
+		long[] pointers = new long[total];
+		int position = 0;
+		for(int i = 0; i < results.length; i++){
+			System.arraycopy(results[i], 0, pointers, position, sizes[i]);
+			position += sizes[i];
+		}
+		Arrays.parallelSort(pointers);
+		
+		return new PointerIndex(sorted, pointers);
+	}
+	
+	/**
+	 * Reads a pointer from the indexed memory
+	 * 
+	 * @param address Address of the pointer
+	 * 
+	 * @return The value of the pointer, or -1 if the address is not inside of a snapshot
+	 * */
+	public long readPointer(long address) {
+		Snapshot snapshot = getSnapshot(address);
+		if(snapshot == null || !snapshot.contains(address, 4)){
+			return -1;
+		}
+		return snapshot.getInteger(address) & 0xFFFFFFFFL;
+	}
+	
+	/**
+	 * Checks if an address is inside of one of the snapshots
+	 * 
+	 * @param address The address
+	 * 
+	 * @return True if the address is indexed memory
+	 * */
+	public boolean contains(long address) {
+		return getSnapshot(address) != null;
+	}
+	
+	/**
+	 * Gets the amount of values that look like pointers
+	 * 
+	 * @return The amount of pointers
+	 * */
+	public int size() {
+		return pointers.length;
+	}
+	
+	/**
+	 * Gets the indexed snapshots, sorted by address
+	 * 
+	 * @return The snapshots
+	 * */
+	public List<Snapshot> getSnapshots() {
+		return Collections.unmodifiableList(Arrays.asList(snapshots));
+	}
+	
+	/**
+	 * Finds the first pointer with a value that is not less than a value
+	 * 
+	 * @param value The value
+	 * 
+	 * @return Index of the pointer, or {@link #size() size()} if there is none
+	 * */
+	int lowerBound(long value) {
+		long key = pack(value, 0);
+		int low = 0;
+		int high = pointers.length;
+		while(low < high){
+			int middle = (low + high) >>> 1;
+			if(pointers[middle] < key){
+				low = middle + 1;
+			}else{
+				high = middle;
+			}
+		}
+		return low;
+	}
+	
+	/**
+	 * Gets the value of a pointer
+	 * 
+	 * @param index Index of the pointer
+	 * 
+	 * @return The value
+	 * */
+	long getValue(int index) {
+		return (pointers[index] ^ Long.MIN_VALUE) >>> 32;
+	}
+	
+	/**
+	 * Gets the address of a pointer
+	 * 
+	 * @param index Index of the pointer
+	 * 
+	 * @return The address
+	 * */
+	long getAddress(int index) {
+		return pointers[index] & 0xFFFFFFFFL;
+	}
+	
+	private Snapshot getSnapshot(long address) {
+		int index = Arrays.binarySearch(starts, address);
+		if(index < 0){
+			index = -index - 2;
+			if(index < 0){
+				return null;
+			}
+		}
+		
+		Snapshot snapshot = snapshots[index];
+		return address < snapshot.getAddress() + snapshot.getLength() ? snapshot : null;
+	}
+	
+	/**
+	 * Packs a pointer so a signed sort orders by value first and address second
+	 * */
+	private static long pack(long value, long address) {
+		return ((value << 32) | address) ^ Long.MIN_VALUE;
+	}
+	
+	/**
+	 * Splits the blocks until there is only one left, then collects its pointers
+	 * */
+	private static class IndexTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final PointerIndex index;
+		private final List<int[]> blocks;
+		private final long[][] results;
+		private final int[] sizes;
+		private final int first;
+		private final int last;
+		
+		IndexTask(PointerIndex index, List<int[]> blocks, long[][] results, int[] sizes, int first, int last) {
+			this.index = index;
+			this.blocks = blocks;
+			this.results = results;
+			this.sizes = sizes;
+			this.first = first;
+			this.last = last;
+		}
+		
+		@Override
+		protected void compute() {
+			if(last - first > 1){
+				int middle = (first + last) >>> 1;
+				invokeAll(
+					new IndexTask(index, blocks, results, sizes, first, middle),
+					new IndexTask(index, blocks, results, sizes, middle, last)
+				);
+				return;
+			}
+			
+			int[] block = blocks.get(first);
+			Snapshot snapshot = index.snapshots[block[0]];
+			ByteBuffer data = snapshot.data();
+			long address = snapshot.getAddress();
+			
+			long lowest = index.starts[0];
+			Snapshot top = index.snapshots[index.snapshots.length - 1];
+			long highest = top.getAddress() + top.getLength();
+			
+			long[] found = new long[64];
+			int size = 0;
+			
+			// Pointers are always aligned
+			int from = block[1] + (int) ((4 - ((address + block[1]) & 3)) & 3);
+			for(int i = from; i + 4 <= block[2]; i += 4){
+				long value = data.getInt(i) & 0xFFFFFFFFL;
+				if((value & 3) != 0 || value < lowest || value >= highest || index.getSnapshot(value) == null){
+					continue;
+				}
+				
+				if(size == found.length){
+					found = Arrays.copyOf(found, size << 1);
+				}
+				found[size++] = pack(value, address + i);
+			}
+			
+			results[first] = found;
+			sizes[first] = size;
+		}
+	}
+}
@@ -0,0 +1,188 @@
+package com.wiiudev.tcpgecko.scan;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The chains a {@link com.wiiudev.tcpgecko.scan.PointerScanner PointerScanner} found to a target, sorted with the shortest chains first<br>
+ * Most chains only work by accident, so a map is saved and compared to the maps of later sessions.
+ * The chains that survive a couple of restarts of the game are the ones worth using
+ * 
+ * @author gudenau
+ * */
+public class PointerMap {
+	private static final int MAGIC = 0x504D4150;
+	private static final int VERSION = 1;
+	
+	private final long target;
+	private final PointerPath[] paths;
+	private final boolean truncated;
+	
+	PointerMap(long target, Collection<PointerPath> paths, boolean truncated) {
+		this.target = target;
+		this.paths = paths.toArray(new PointerPath[paths.size()]);
+		this.truncated = truncated;
+		Arrays.sort(this.paths);
+	}
+	
+	/**
+	 * Loads a map saved with {@link #save(File) save}
+	 * 
+	 * @param file The file to load
+	 * 
+	 * @return The map
+	 * 
+	 * @throws IOException If the file could not be read or is not a pointer map
+	 * */
+	public static PointerMap load(File file) throws IOException {
+		try(DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))){
+			if(input.readInt() != MAGIC){
+				throw new IOException("File is not a pointer map!");
+			}
+			if(input.readInt() != VERSION){
+				throw new IOException("Pointer map version is not supported!");
+			}
+			
+			long target = input.readInt() & 0xFFFFFFFFL;
+			boolean truncated = input.readBoolean();
+			int count = input.readInt();
+			
+			List<PointerPath> paths = new ArrayList<PointerPath>(count);
+			for(int i = 0; i < count; i++){
+				long base = input.readInt() & 0xFFFFFFFFL;
+				int[] offsets = new int[input.readUnsignedByte()];
+				for(int j = 0; j < offsets.length; j++){
+					offsets[j] = input.readInt();
+				}
+				paths.add(new PointerPath(base, offsets));
+			}
+			
+			return new PointerMap(target, paths, truncated);
+		}
+	}
+	
+	/**
+	 * Saves the map
+	 * 
+	 * @param file The file to save to, it is overwritten
+	 * 
+	 * @throws IOException If the file could not be written
+	 * */
+	public void save(File file) throws IOException {
+		try(DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))){
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt((int) target);
+			output.writeBoolean(truncated);
+			output.writeInt(paths.length);
+			
+			for(PointerPath path : paths){
+				output.writeInt((int) path.getBase());
+				output.writeByte(path.getDepth());
+				for(int i = 0; i < path.getDepth(); i++){
+					output.writeInt(path.getOffset(i));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Keeps the chains that are also in another map, the target can be different because the chains are compared and not what they lead to
+	 * 
+	 * @param other The map of another session
+	 * 
+	 * @return A new map with the chains of this map that are in both, truncated if either map was
+	 * */
+	public PointerMap intersect(PointerMap other) {
+		Set<PointerPath> others = new HashSet<PointerPath>(Arrays.asList(other.paths));
+		
+		List<PointerPath> kept = new ArrayList<PointerPath>();
+		for(PointerPath path : paths){
+			if(others.contains(path)){
+				kept.add(path);
+			}
+		}
+		
+		// Chains missing from either truncated map may still be in both sessions
+		return new PointerMap(target, kept, truncated || other.truncated);
+	}
+	
+	/**
+	 * Keeps the chains that still lead to the target in a new index, this does not need a full scan of the new session
+	 * 
+	 * @param index The index of the new session
+	 * @param target Where the target is in the new session
+	 * 
+	 * @return A new map with the chains that still work
+	 * */
+	public PointerMap filter(PointerIndex index, long target) {
+		List<PointerPath> kept = new ArrayList<PointerPath>();
+		for(PointerPath path : paths){
+			if(path.resolve(index) == target){
+				kept.add(path);
+			}
+		}
+		
+		return new PointerMap(target, kept, truncated);
+	}
+	
+	/**
+	 * Gets the address the chains were found for
+	 * 
+	 * @return The target
+	 * */
+	public long getTarget() {
+		return target;
+	}
+	
+	/**
+	 * Gets the amount of chains
+	 * 
+	 * @return The amount of chains
+	 * */
+	public int size() {
+		return paths.length;
+	}
+	
+	/**
+	 * Gets a chain
+	 * 
+	 * @param index Index of the chain
+	 * 
+	 * @return The chain
+	 * */
+	public PointerPath getPath(int index) {
+		return paths[index];
+	}
+	
+	/**
+	 * Gets all of the chains, shortest first
+	 * 
+	 * @return The chains
+	 * */
+	public List<PointerPath> getPaths() {
+		return Collections.unmodifiableList(Arrays.asList(paths));
+	}
+	
+	/**
+	 * Checks if the scan stopped early because it found too many chains
+	 * 
+	 * @return True if there were more chains
+	 * */
+	public boolean isTruncated() {
+		return truncated;
+	}
+}
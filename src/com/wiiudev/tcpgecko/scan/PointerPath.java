@@ -0,0 +1,218 @@
+package com.wiiudev.tcpgecko.scan;
+
+import java.util.Arrays;
+
+/**
+ * A chain of pointers that leads from a static address to a target<br>
+ * The base is read, the first offset is added, the result is read and so on. The last offset gives the target<br>
+ * Written as [[base]+0x10]+0x8 for a chain of two pointers, see {@link #parse(String) parse}
+ * 
+ * @author gudenau
+ * */
+public class PointerPath implements Comparable<PointerPath> {
+	private final long base;
+	private final int[] offsets;
+	
+	/**
+	 * Creates a pointer path
+	 * 
+	 * @param base The static address the chain starts at
+	 * @param offsets The offsets, one for every pointer in the chain
+	 * 
+	 * @throws IllegalArgumentException If the base is not valid or there are no offsets
+	 * */
+	public PointerPath(long base, int... offsets) {
+		if(base < 0 || base > 0xFFFFFFFFL){
+			throw new IllegalArgumentException("Address must be positive!");
+		}
+		if(offsets.length == 0){
+			throw new IllegalArgumentException("A path needs at least one offset!");
+		}
+		
+		this.base = base;
+		this.offsets = offsets.clone();
+	}
+	
+	/**
+	 * Parses a path written like [[0x10123456]+0x10]-0x8, the numbers are hex and the 0x is optional<br>
+	 * A missing offset after a bracket is 0
+	 * 
+	 * @param text The path
+	 * 
+	 * @return The parsed path
+	 * 
+	 * @throws IllegalArgumentException If the path is not valid
+	 * */
+	public static PointerPath parse(String text) {
+		String path = text.replaceAll("\\s+", "");
+		
+		int depth = 0;
+		while(depth < path.length() && path.charAt(depth) == '['){
+			depth++;
+		}
+		if(depth == 0){
+			throw new IllegalArgumentException("Pointer path is not valid!");
+		}
+		
+		int position = path.indexOf(']', depth);
+		if(position < 0){
+			throw new IllegalArgumentException("Pointer path is not valid!");
+		}
+		long base = parseHex(path.substring(depth, position));
+		
+		int[] offsets = new int[depth];
+		for(int i = 0; i < depth; i++){
+			if(position >= path.length() || path.charAt(position) != ']'){
+				throw new IllegalArgumentException("Pointer path is not valid!");
+			}
+			
+			int end = path.indexOf(']', position + 1);
+			if(end < 0){
+				end = path.length();
+			}
+			
+			String offset = path.substring(position + 1, end);
+			if(offset.isEmpty()){
+				offsets[i] = 0;
+			}else if(offset.charAt(0) == '+'){
+				offsets[i] = (int) parseHex(offset.substring(1));
+			}else if(offset.charAt(0) == '-'){
+				offsets[i] = (int) -parseHex(offset.substring(1));
+			}else{
+				throw new IllegalArgumentException("Pointer path is not valid!");
+			}
+			
+			position = end;
+		}
+		if(position != path.length()){
+			throw new IllegalArgumentException("Pointer path is not valid!");
+		}
+		
+		return new PointerPath(base, offsets);
+	}
+	
+	/**
+	 * Follows the path inside of the memory of a pointer index
+	 * 
+	 * @param index The index to read the pointers from
+	 * 
+	 * @return The address the path leads to, or -1 if a pointer is outside of the index
+	 * */
+	public long resolve(PointerIndex index) {
+		long address = base;
+		for(int offset : offsets){
+			long pointer = index.readPointer(address);
+			if(pointer < 0){
+				return -1;
+			}
+			address = (pointer + offset) & 0xFFFFFFFFL;
+		}
+		return address;
+	}
+	
+	/**
+	 * Gets the static address the chain starts at
+	 * 
+	 * @return The base address
+	 * */
+	public long getBase() {
+		return base;
+	}
+	
+	/**
+	 * Gets the offsets of the chain
+	 * 
+	 * @return A copy of the offsets
+	 * */
+	public int[] getOffsets() {
+		return offsets.clone();
+	}
+	
+	/**
+	 * Gets an offset of the chain
+	 * 
+	 * @param index Index of the offset, 0 is the one added to the base pointer
+	 * 
+	 * @return The offset
+	 * */
+	public int getOffset(int index) {
+		return offsets[index];
+	}
+	
+	/**
+	 * Gets the amount of pointers in the chain
+	 * 
+	 * @return The depth
+	 * */
+	public int getDepth() {
+		return offsets.length;
+	}
+	
+	@Override
+	public int compareTo(PointerPath other) {
+		// Short chains first, they break less often
+		int result = Integer.compare(offsets.length, other.offsets.length);
+		if(result != 0){
+			return result;
+		}
+		result = Long.compare(base, other.base);
+		if(result != 0){
+			return result;
+		}
+		for(int i = 0; i < offsets.length; i++){
+			result = Integer.compare(offsets[i], other.offsets[i]);
+			if(result != 0){
+				return result;
+			}
+		}
+		return 0;
+	}
+	
+	@Override
+	public boolean equals(Object object) {
+		if(!(object instanceof PointerPath)){
+			return false;
+		}
+		
+		PointerPath other = (PointerPath) object;
+		return base == other.base && Arrays.equals(offsets, other.offsets);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Long.hashCode(base) * 31 + Arrays.hashCode(offsets);
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for(int i = 0; i < offsets.length; i++){
+			builder.append('[');
+		}
+		builder.append(String.format("0x%08X", base));
+		for(int offset : offsets){
+			builder.append(']');
+			if(offset < 0){
+				builder.append("-0x").append(Integer.toHexString(-offset).toUpperCase());
+			}else{
+				builder.append("+0x").append(Integer.toHexString(offset).toUpperCase());
+			}
+		}
+		return builder.toString();
+	}
+	
+	private static long parseHex(String text) {
+		if(text.startsWith("0x") || text.startsWith("0X")){
+			text = text.substring(2);
+		}
+		if(text.isEmpty() || text.length() > 8){
+			throw new IllegalArgumentException("Pointer path is not valid!");
+		}
+		
+		try{
+			return Long.parseLong(text, 16);
+		}catch(NumberFormatException e){
+			throw new IllegalArgumentException("Pointer path is not valid!", e);
+		}
+	}
+}
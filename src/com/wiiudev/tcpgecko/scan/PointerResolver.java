@@ -0,0 +1,287 @@
+package com.wiiudev.tcpgecko.scan;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.wiiudev.tcpgecko.TcpGecko;
+import com.wiiudev.tcpgecko.Transaction;
+import com.wiiudev.tcpgecko.Transaction.Reply;
+import com.wiiudev.tcpgecko.WiiUException;
+import com.wiiudev.tcpgecko.enumeration.MemoryAccess;
+import com.wiiudev.tcpgecko.memory.IWriteListener;
+
+/**
+ * Follows many {@link com.wiiudev.tcpgecko.scan.PointerPath pointer paths} at once<br>
+ * All of the paths take a step together, so every level of pointers is a single {@link com.wiiudev.tcpgecko.Transaction transaction}
+ * instead of a peek per pointer. Paths that share a pointer only read it once<br>
+ * <br>
+ * The pointers that were read are kept for a refresh window, so a dashboard that updates often only reads the values most of the time.
+ * Writes made through the same connection drop the pointers they touch<br>
+ * <br>
+ * The resolver uses the connection it was made with, so it has to be used on the same thread as that connection
+ * 
+ * @author gudenau
+ * */
+public class PointerResolver implements IWriteListener, Closeable {
+	/**
+	 * The default refresh window in milliseconds
+	 * */
+	public static final long DEFAULT_REFRESH_WINDOW = 500;
+	
+	private final TcpGecko gecko;
+	private final long refreshWindow;
+	private final Map<Long, long[]> hops = new HashMap<Long, long[]>();
+	
+	private long hits;
+	private long misses;
+	private long rounds;
+	
+	/**
+	 * Creates a resolver with the default refresh window
+	 * 
+	 * @param gecko The connection to read with
+	 * */
+	public PointerResolver(TcpGecko gecko) {
+		this(gecko, DEFAULT_REFRESH_WINDOW);
+	}
+	
+	/**
+	 * Creates a resolver and registers it as a write listener of the connection
+	 * 
+	 * @param gecko The connection to read with
+	 * @param refreshWindow How long a pointer is kept in milliseconds, 0 reads every pointer every time
+	 * */
+	public PointerResolver(TcpGecko gecko, long refreshWindow) {
+		if(refreshWindow < 0){
+			throw new IllegalArgumentException("Refresh window must be positive!");
+		}
+		
+		this.gecko = gecko;
+		this.refreshWindow = refreshWindow * 1000000L;
+		
+		gecko.addWriteListener(this);
+	}
+	
+	/**
+	 * Follows a single path
+	 * 
+	 * @param path The path
+	 * 
+	 * @return The address it leads to, or -1 if a pointer on the way is null or the path leaves the memory map
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * */
+	public long resolve(PointerPath path) throws IOException, WiiUException {
+		return resolve(Collections.singletonList(path))[0];
+	}
+	
+	/**
+	 * Follows many paths, with a single round trip per level of the deepest path
+	 * 
+	 * @param paths The paths
+	 * 
+	 * @return The addresses they lead to, -1 for paths with a null pointer or that leave the memory map
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * */
+	public synchronized long[] resolve(List<PointerPath> paths) throws IOException, WiiUException {
+		long now = System.nanoTime();
+		prune(now);
+		
+		int maxDepth = 0;
+		long[] addresses = new long[paths.size()];
+		for(int i = 0; i < addresses.length; i++){
+			PointerPath path = paths.get(i);
+			addresses[i] = path.getBase();
+			maxDepth = Math.max(maxDepth, path.getDepth());
+		}
+		
+		for(int depth = 0; depth < maxDepth; depth++){
+			Transaction transaction = null;
+			Map<Long, Reply<Integer>> pending = new HashMap<Long, Reply<Integer>>();
+			
+			// Queue every pointer of this level that is not cached
+			for(int i = 0; i < addresses.length; i++){
+				long address = addresses[i];
+				if(address < 0 || depth >= paths.get(i).getDepth() || hops.containsKey(address) || pending.containsKey(address)){
+					continue;
+				}
+				if(!gecko.validateMemoryAccess(address, 4, MemoryAccess.READ)){
+					continue;
+				}
+				
+				if(transaction == null){
+					transaction = gecko.pipeline();
+				}
+				pending.put(address, transaction.peekInteger(address));
+				misses++;
+			}
+			
+			if(transaction != null){
+				transaction.execute();
+				rounds++;
+				
+				for(Map.Entry<Long, Reply<Integer>> entry : pending.entrySet()){
+					hops.put(entry.getKey(), new long[]{entry.getValue().get() & 0xFFFFFFFFL, now});
+				}
+			}
+			
+			// Take the step
+			for(int i = 0; i < addresses.length; i++){
+				PointerPath path = paths.get(i);
+				long address = addresses[i];
+				if(address < 0 || depth >= path.getDepth()){
+					continue;
+				}
+				
+				long[] hop = hops.get(address);
+				if(hop == null){
+					addresses[i] = -1;
+					continue;
+				}
+				if(!pending.containsKey(address)){
+					hits++;
+				}
+				
+				// A null pointer means the object is not there right now
+				if(hop[0] == 0){
+					addresses[i] = -1;
+					continue;
+				}
+				
+				addresses[i] = (hop[0] + path.getOffset(depth)) & 0xFFFFFFFFL;
+			}
+		}
+		
+		// The hops were checked before they were read, the targets were not
+		for(int i = 0; i < addresses.length; i++){
+			if(addresses[i] >= 0 && !gecko.validateMemoryAccess(addresses[i], 1, MemoryAccess.READ)){
+				addresses[i] = -1;
+			}
+		}
+		
+		// A zero window still shares pointers inside of a single call
+		if(refreshWindow == 0){
+			hops.clear();
+		}
+		
+		return addresses;
+	}
+	
+	/**
+	 * Follows many paths and reads the memory they lead to, the values are read in one more round trip and never cached
+	 * 
+	 * @param paths The paths
+	 * @param length Amount of memory to read at the end of every path
+	 * @param data Buffer to store the read data, path i is stored at i * length. Paths that could not be followed are left alone
+	 * 
+	 * @return The addresses the paths lead to, -1 for paths that could not be followed
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If the length is not valid or the buffer is too small
+	 * */
+	public synchronized long[] readMemory(List<PointerPath> paths, int length, byte[] data) throws IOException, WiiUException {
+		if(length <= 0){
+			throw new IllegalArgumentException("Length must be greater than 0!");
+		}
+		if((long) paths.size() * length > data.length){
+			throw new IllegalArgumentException("Buffer is too small!");
+		}
+		
+		long[] addresses = resolve(paths);
+		
+		Transaction transaction = null;
+		for(int i = 0; i < addresses.length; i++){
+			if(addresses[i] < 0){
+				continue;
+			}
+			if(!gecko.validateMemoryAccess(addresses[i], length, MemoryAccess.READ)){
+				addresses[i] = -1;
+				continue;
+			}
+			
+			if(transaction == null){
+				transaction = gecko.pipeline();
+			}
+			transaction.readMemory(addresses[i], data, i * length, length);
+		}
+		
+		if(transaction != null){
+			transaction.execute();
+			rounds++;
+		}
+		
+		return addresses;
+	}
+	
+	/**
+	 * Drops every cached pointer, use this after remote calls or when the game loads something new
+	 * */
+	public synchronized void invalidate() {
+		hops.clear();
+	}
+	
+	@Override
+	public synchronized void memoryWritten(long address, int length) {
+		Iterator<Long> iterator = hops.keySet().iterator();
+		while(iterator.hasNext()){
+			long pointer = iterator.next();
+			if(pointer + 4 > address && pointer < address + length){
+				iterator.remove();
+			}
+		}
+	}
+	
+	/**
+	 * Stops listening for writes and drops every cached pointer
+	 * */
+	@Override
+	public void close() {
+		gecko.removeWriteListener(this);
+		invalidate();
+	}
+	
+	/**
+	 * Gets the amount of pointers that were served from the cache
+	 * 
+	 * @return The amount of hits
+	 * */
+	public synchronized long getHits() {
+		return hits;
+	}
+	
+	/**
+	 * Gets the amount of pointers that had to be read from the Wii U
+	 * 
+	 * @return The amount of misses
+	 * */
+	public synchronized long getMisses() {
+		return misses;
+	}
+	
+	/**
+	 * Gets the amount of transactions sent, this is the amount of round trips
+	 * 
+	 * @return The amount of rounds
+	 * */
+	public synchronized long getRoundCount() {
+		return rounds;
+	}
+	
+	private void prune(long now) {
+		Iterator<long[]> iterator = hops.values().iterator();
+		while(iterator.hasNext()){
+			if(now - iterator.next()[1] >= refreshWindow){
+				iterator.remove();
+			}
+		}
+	}
+}
@@ -0,0 +1,242 @@
+package com.wiiudev.tcpgecko.scan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds chains of pointers that lead from static memory to a target address, using a {@link com.wiiudev.tcpgecko.scan.PointerIndex PointerIndex}<br>
+ * The search starts at the target and walks backwards: everything that points a little before the target is a candidate,
+ * a candidate in a static region ends a chain, any other candidate becomes the target of the next level<br>
+ * <br>
+ * Every candidate is searched as its own task on a {@link java.util.concurrent.ForkJoinPool ForkJoinPool}, the depth and the offset keep the search bounded
+ * 
+ * @author gudenau
+ * */
+public class PointerScanner {
+	/**
+	 * The default maximum amount of pointers in a chain
+	 * */
+	public static final int DEFAULT_MAX_DEPTH = 4;
+	
+	/**
+	 * The default maximum offset added to a pointer
+	 * */
+	public static final int DEFAULT_MAX_OFFSET = 0x1000;
+	
+	/**
+	 * The default maximum amount of chains
+	 * */
+	public static final int DEFAULT_MAX_RESULTS = 0x00100000;
+	
+	private final PointerIndex index;
+	private final List<long[]> staticRegions = new ArrayList<long[]>();
+	private int maxDepth = DEFAULT_MAX_DEPTH;
+	private int maxOffset = DEFAULT_MAX_OFFSET;
+	private int maxResults = DEFAULT_MAX_RESULTS;
+	
+	/**
+	 * Creates a scanner
+	 * 
+	 * @param index The index to search
+	 * */
+	public PointerScanner(PointerIndex index) {
+		this.index = index;
+	}
+	
+	/**
+	 * Adds a region that does not move between sessions, like the data of the game, chains have to start in one of these
+	 * 
+	 * @param start Start of the region
+	 * @param end End of the region, it is not part of the region
+	 * */
+	public void addStaticRegion(long start, long end) {
+		if(start < 0){
+			throw new IllegalArgumentException("Address must be positive!");
+		}
+		if(end <= start){
+			throw new IllegalArgumentException("End must be greater than start!");
+		}
+		
+		staticRegions.add(new long[]{start, end});
+	}
+	
+	/**
+	 * Sets the maximum amount of pointers in a chain
+	 * 
+	 * @param maxDepth The depth, every extra level can multiply the time the search takes
+	 * */
+	public void setMaxDepth(int maxDepth) {
+		if(maxDepth <= 0){
+			throw new IllegalArgumentException("Depth must be greater than 0!");
+		}
+		
+		this.maxDepth = maxDepth;
+	}
+	
+	/**
+	 * Gets the maximum amount of pointers in a chain
+	 * 
+	 * @return The depth
+	 * */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+	
+	/**
+	 * Sets the maximum offset added to a pointer, this is about the size of the biggest struct on the way
+	 * 
+	 * @param maxOffset The offset
+	 * */
+	public void setMaxOffset(int maxOffset) {
+		if(maxOffset < 0){
+			throw new IllegalArgumentException("Offset must be positive!");
+		}
+		
+		this.maxOffset = maxOffset;
+	}
+	
+	/**
+	 * Gets the maximum offset added to a pointer
+	 * 
+	 * @return The offset
+	 * */
+	public int getMaxOffset() {
+		return maxOffset;
+	}
+	
+	/**
+	 * Sets the maximum amount of chains, the search stops once it has found this many
+	 * 
+	 * @param maxResults The amount of chains
+	 * */
+	public void setMaxResults(int maxResults) {
+		if(maxResults <= 0){
+			throw new IllegalArgumentException("Max results must be greater than 0!");
+		}
+		
+		this.maxResults = maxResults;
+	}
+	
+	/**
+	 * Gets the maximum amount of chains
+	 * 
+	 * @return The amount of chains
+	 * */
+	public int getMaxResults() {
+		return maxResults;
+	}
+	
+	/**
+	 * Finds chains to an address on the common pool
+	 * 
+	 * @param target The address to find chains to
+	 * 
+	 * @return The chains
+	 * */
+	public PointerMap scan(long target) {
+		return scan(target, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Finds chains to an address
+	 * 
+	 * @param target The address to find chains to
+	 * @param pool The pool to search on
+	 * 
+	 * @return The chains
+	 * 
+	 * @throws IllegalArgumentException If no static regions were added or the target is not indexed
+	 * */
+	public PointerMap scan(long target, ForkJoinPool pool) {
+		if(staticRegions.isEmpty()){
+			throw new IllegalArgumentException("No static regions were added!");
+		}
+		if(!index.contains(target)){
+			throw new IllegalArgumentException("Target is not inside of the index!");
+		}
+		
+		Search search = new Search();
+		pool.invoke(new SearchTask(search, target, new int[0]));
+		
+		return new PointerMap(target, search.paths, search.truncated);
+	}
+	
+	private boolean isStatic(long address) {
+		for(long[] region : staticRegions){
+			if(address >= region[0] && address < region[1]){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * The state shared by all of the tasks of a single scan
+	 * */
+	private class Search {
+		private final Queue<PointerPath> paths = new ConcurrentLinkedQueue<PointerPath>();
+		private final AtomicInteger count = new AtomicInteger();
+		private volatile boolean truncated;
+		
+		void add(PointerPath path) {
+			if(count.incrementAndGet() > maxResults){
+				truncated = true;
+				return;
+			}
+			paths.add(path);
+		}
+	}
+	
+	/**
+	 * Finds everything that points just before an address, every candidate that is not static is searched by a new task
+	 * */
+	private class SearchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final Search search;
+		private final long address;
+		private final int[] offsets;
+		
+		SearchTask(Search search, long address, int[] offsets) {
+			this.search = search;
+			this.address = address;
+			this.offsets = offsets;
+		}
+		
+		@Override
+		protected void compute() {
+			if(search.truncated){
+				return;
+			}
+			
+			List<SearchTask> children = new ArrayList<SearchTask>();
+			
+			int end = index.size();
+			for(int i = index.lowerBound(Math.max(0, address - maxOffset)); i < end; i++){
+				long value = index.getValue(i);
+				if(value > address){
+					break;
+				}
+				
+				// The new offset goes in front, the chain is built backwards
+				int[] path = new int[offsets.length + 1];
+				path[0] = (int) (address - value);
+				System.arraycopy(offsets, 0, path, 1, offsets.length);
+				
+				long pointer = index.getAddress(i);
+				if(isStatic(pointer)){
+					search.add(new PointerPath(pointer, path));
+				}else if(path.length < maxDepth){
+					children.add(new SearchTask(search, pointer, path));
+				}
+			}
+			
+			invokeAll(children);
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.wiiudev.tcpgecko.scan;
+
+import java.util.Arrays;
+
+/**
+ * The hits of a {@link com.wiiudev.tcpgecko.scan.PatternScanner scan}, sorted by address<br>
+ * Hits are packed into longs so a scan with millions of hits stays small
+ * 
+ * @author gudenau
+ * */
+public class ScanResult {
+	private final long address;
+	private final long[] hits;
+	private final boolean truncated;
+	private final long nanos;
+	
+	ScanResult(long address, long[] hits, boolean truncated, long nanos) {
+		this.address = address;
+		this.hits = hits;
+		this.truncated = truncated;
+		this.nanos = nanos;
+	}
+	
+	/**
+	 * Gets the amount of hits
+	 * 
+	 * @return The amount of hits
+	 * */
+	public int size() {
+		return hits.length;
+	}
+	
+	/**
+	 * Gets the address of a hit
+	 * 
+	 * @param index Index of the hit
+	 * 
+	 * @return The address
+	 * */
+	public long getAddress(int index) {
+		return address + (hits[index] >>> 16);
+	}
+	
+	/**
+	 * Gets the id of the pattern that matched
+	 * 
+	 * @param index Index of the hit
+	 * 
+	 * @return The id the scanner gave the pattern
+	 * */
+	public int getPattern(int index) {
+		return (int) (hits[index] & 0xFFFF);
+	}
+	
+	/**
+	 * Gets the addresses of every hit of a single pattern
+	 * 
+	 * @param pattern The id of the pattern
+	 * 
+	 * @return The addresses, sorted
+	 * */
+	public long[] getAddresses(int pattern) {
+		long[] addresses = new long[hits.length];
+		int count = 0;
+		for(long hit : hits){
+			if((hit & 0xFFFF) == pattern){
+				addresses[count++] = address + (hit >>> 16);
+			}
+		}
+		return Arrays.copyOf(addresses, count);
+	}
+	
+	/**
+	 * Checks if the scan stopped early because there were too many hits<br>
+	 * Which hits are kept is not defined when this happens
+	 * 
+	 * @return True if hits are missing
+	 * */
+	public boolean isTruncated() {
+		return truncated;
+	}
+	
+	/**
+	 * Gets how long the scan took
+	 * 
+	 * @return The time in nanoseconds
+	 * */
+	public long getNanos() {
+		return nanos;
+	}
+}
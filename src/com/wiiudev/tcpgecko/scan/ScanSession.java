@@ -0,0 +1,519 @@
+package com.wiiudev.tcpgecko.scan;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.wiiudev.tcpgecko.TcpGecko;
+import com.wiiudev.tcpgecko.TcpGeckoPool;
+import com.wiiudev.tcpgecko.WiiUException;
+import com.wiiudev.tcpgecko.enumeration.MemoryAccess;
+import com.wiiudev.tcpgecko.enumeration.ScanCondition;
+import com.wiiudev.tcpgecko.enumeration.ScanType;
+
+/**
+ * Finds an unknown value by narrowing down candidates, the usual first scan, then changed, unchanged, increased and so on<br>
+ * <br>
+ * Right after the first scan the candidates are kept as a bitset per page, next to the last values of those pages.
+ * Pages without candidates are dropped. Once the candidates fit in a lot less memory as a list, they are moved into a sorted int[] of offsets and an int[] of values<br>
+ * Every scan only reads the pages that still have candidates, so both memory and transfers shrink with every scan<br>
+ * <br>
+ * Reads are done in batches of pages, with a {@link com.wiiudev.tcpgecko.TcpGeckoPool pool} every batch is split over all of its connections<br>
+ * An unknown first scan keeps a copy of the whole range, so keep the range as small as you can
+ * 
+ * @author gudenau
+ * */
+public class ScanSession {
+	/**
+	 * Size of a single page
+	 * */
+	public static final int PAGE_SIZE = 0x1000;
+	
+	/**
+	 * Pages read at once, so a scan of a big range never needs a second copy of it
+	 * */
+	private static final int BATCH_PAGES = 0x1000;
+	
+	private final TcpGecko gecko;
+	private final TcpGeckoPool pool;
+	private final long start;
+	private final long end;
+	private final ScanType type;
+	private final int slots;
+	
+	// Page mode
+	private long[] pageAddresses;
+	private byte[][] pageData;
+	private long[][] pageBits;
+	
+	// List mode
+	private int[] offsets;
+	private int[] values;
+	
+	private int candidates;
+	private int scans;
+	private long transferredBytes;
+	
+	/**
+	 * Creates a scan session that reads with a single connection
+	 * 
+	 * @param gecko The connection to use
+	 * @param start Start of the range to scan, rounded down to a page
+	 * @param end End of the range to scan, rounded up to a page
+	 * @param type The type of the value
+	 * */
+	public ScanSession(TcpGecko gecko, long start, long end, ScanType type) {
+		this(gecko, null, start, end, type);
+	}
+	
+	/**
+	 * Creates a scan session that splits its reads over a pool
+	 * 
+	 * @param pool The pool to use
+	 * @param start Start of the range to scan, rounded down to a page
+	 * @param end End of the range to scan, rounded up to a page
+	 * @param type The type of the value
+	 * */
+	public ScanSession(TcpGeckoPool pool, long start, long end, ScanType type) {
+		this(null, pool, start, end, type);
+	}
+	
+	private ScanSession(TcpGecko gecko, TcpGeckoPool pool, long start, long end, ScanType type) {
+		start &= ~(long) (PAGE_SIZE - 1);
+		end = (end + PAGE_SIZE - 1) & ~(long) (PAGE_SIZE - 1);
+		
+		if(start < 0){
+			throw new IllegalArgumentException("Address must be positive!");
+		}
+		if(end <= start || end - start > Integer.MAX_VALUE){
+			throw new IllegalArgumentException("Address range is not valid!");
+		}
+		if(gecko != null){
+			gecko.getMemoryMap().validate(start, (int) (end - start), MemoryAccess.READ);
+		}
+		
+		this.gecko = gecko;
+		this.pool = pool;
+		this.start = start;
+		this.end = end;
+		this.type = type;
+		this.slots = PAGE_SIZE / type.size;
+	}
+	
+	/**
+	 * Does an unknown value first scan, every aligned value in the range is a candidate
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * */
+	public void first() throws IOException, WiiUException {
+		firstScan(null, 0);
+	}
+	
+	/**
+	 * Does a first scan against a known value
+	 * 
+	 * @param condition How to compare, must not be relative
+	 * @param value The value to compare against, bytes and shorts are compared unsigned and integers signed
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If the condition is relative
+	 * */
+	public void first(ScanCondition condition, double value) throws IOException, WiiUException {
+		if(condition.isRelative){
+			throw new IllegalArgumentException("The first scan has nothing to compare to!");
+		}
+		firstScan(condition, value);
+	}
+	
+	/**
+	 * Narrows down the candidates against their last values
+	 * 
+	 * @param condition How to compare, must be relative
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If the condition needs a value
+	 * */
+	public void next(ScanCondition condition) throws IOException, WiiUException {
+		if(!condition.isRelative){
+			throw new IllegalArgumentException("Condition needs a value!");
+		}
+		next(condition, 0);
+	}
+	
+	/**
+	 * Narrows down the candidates
+	 * 
+	 * @param condition How to compare
+	 * @param value The value to compare against, ignored by relative conditions. Bytes and shorts are compared unsigned and integers signed
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalStateException If there was no first scan
+	 * */
+	public void next(ScanCondition condition, double value) throws IOException, WiiUException {
+		if(scans == 0){
+			throw new IllegalStateException("Do a first scan before narrowing!");
+		}
+		
+		if(offsets == null){
+			nextPages(condition, value);
+		}else{
+			nextList(condition, value);
+		}
+		
+		scans++;
+		compact();
+	}
+	
+	/**
+	 * Starts over, the next scan has to be a first scan
+	 * */
+	public void reset() {
+		pageAddresses = null;
+		pageData = null;
+		pageBits = null;
+		offsets = null;
+		values = null;
+		candidates = 0;
+		scans = 0;
+	}
+	
+	/**
+	 * Gets the addresses of the candidates
+	 * 
+	 * @param max The most addresses to return
+	 * 
+	 * @return The addresses, sorted. Empty before the first scan
+	 * */
+	public long[] getCandidates(int max) {
+		long[] addresses = new long[Math.min(max, candidates)];
+		int count = 0;
+		
+		if(offsets != null){
+			for(; count < addresses.length; count++){
+				addresses[count] = start + offsets[count];
+			}
+			return addresses;
+		}
+		// No first scan yet
+		if(pageAddresses == null){
+			return addresses;
+		}
+		
+		for(int page = 0; page < pageAddresses.length && count < addresses.length; page++){
+			long[] bits = pageBits[page];
+			for(int slot = nextSlot(bits, 0); slot >= 0 && count < addresses.length; slot = nextSlot(bits, slot + 1)){
+				addresses[count++] = pageAddresses[page] + slot * type.size;
+			}
+		}
+		return addresses;
+	}
+	
+	/**
+	 * Gets the amount of candidates left
+	 * 
+	 * @return The amount of candidates
+	 * */
+	public int getCandidateCount() {
+		return candidates;
+	}
+	
+	/**
+	 * Gets the amount of pages that still have candidates, these are read by the next scan
+	 * 
+	 * @return The amount of pages
+	 * */
+	public int getPageCount() {
+		if(offsets != null){
+			return toPages().length;
+		}
+		return pageAddresses == null ? 0 : pageAddresses.length;
+	}
+	
+	/**
+	 * Checks if the candidates were moved into a list
+	 * 
+	 * @return True if the candidates are a sorted list
+	 * */
+	public boolean isListMode() {
+		return offsets != null;
+	}
+	
+	/**
+	 * Gets the amount of scans done since the first scan, including it
+	 * 
+	 * @return The amount of scans
+	 * */
+	public int getScanCount() {
+		return scans;
+	}
+	
+	/**
+	 * Gets the amount of memory read from the Wii U by every scan so far
+	 * 
+	 * @return Amount of read data
+	 * */
+	public long getTransferredBytes() {
+		return transferredBytes;
+	}
+	
+	private void firstScan(ScanCondition condition, double value) throws IOException, WiiUException {
+		reset();
+		
+		int pageCount = (int) ((end - start) / PAGE_SIZE);
+		long[] addresses = new long[pageCount];
+		for(int i = 0; i < pageCount; i++){
+			addresses[i] = start + (long) i * PAGE_SIZE;
+		}
+		
+		pageAddresses = addresses;
+		pageData = new byte[pageCount][];
+		pageBits = new long[pageCount][];
+		
+		byte[] batch = new byte[Math.min(pageCount, BATCH_PAGES) * PAGE_SIZE];
+		for(int first = 0; first < pageCount; first += BATCH_PAGES){
+			int count = Math.min(BATCH_PAGES, pageCount - first);
+			readPages(addresses, first, count, batch);
+			
+			for(int i = 0; i < count; i++){
+				int page = first + i;
+				int offset = i * PAGE_SIZE;
+				long[] bits = new long[(slots + 63) >>> 6];
+				int found = 0;
+				
+				for(int slot = 0; slot < slots; slot++){
+					if(condition == null || matches(condition, 0, decode(batch, offset + slot * type.size), value)){
+						bits[slot >>> 6] |= 1L << slot;
+						found++;
+					}
+				}
+				
+				if(found != 0){
+					pageData[page] = Arrays.copyOfRange(batch, offset, offset + PAGE_SIZE);
+					pageBits[page] = bits;
+					candidates += found;
+				}
+			}
+		}
+		
+		scans = 1;
+		compact();
+	}
+	
+	private void nextPages(ScanCondition condition, double value) throws IOException, WiiUException {
+		int pageCount = pageAddresses.length;
+		byte[] batch = new byte[Math.min(pageCount, BATCH_PAGES) * PAGE_SIZE];
+		candidates = 0;
+		
+		for(int first = 0; first < pageCount; first += BATCH_PAGES){
+			int count = Math.min(BATCH_PAGES, pageCount - first);
+			readPages(pageAddresses, first, count, batch);
+			
+			for(int i = 0; i < count; i++){
+				int page = first + i;
+				int offset = i * PAGE_SIZE;
+				byte[] old = pageData[page];
+				long[] bits = pageBits[page];
+				int found = 0;
+				
+				for(int slot = nextSlot(bits, 0); slot >= 0; slot = nextSlot(bits, slot + 1)){
+					int slotOffset = slot * type.size;
+					if(matches(condition, decode(old, slotOffset), decode(batch, offset + slotOffset), value)){
+						found++;
+					}else{
+						bits[slot >>> 6] &= ~(1L << slot);
+					}
+				}
+				
+				if(found == 0){
+					pageData[page] = null;
+					pageBits[page] = null;
+				}else{
+					System.arraycopy(batch, offset, old, 0, PAGE_SIZE);
+					candidates += found;
+				}
+			}
+		}
+	}
+	
+	private void nextList(ScanCondition condition, double value) throws IOException, WiiUException {
+		long[] pages = toPages();
+		byte[] batch = new byte[Math.min(pages.length, BATCH_PAGES) * PAGE_SIZE];
+		
+		int read = 0;
+		int kept = 0;
+		int page = -1;
+		
+		for(int first = 0; first < pages.length; first += BATCH_PAGES){
+			int count = Math.min(BATCH_PAGES, pages.length - first);
+			readPages(pages, first, count, batch);
+			
+			long batchEnd = pages[first + count - 1] + PAGE_SIZE;
+			while(read < candidates && start + offsets[read] < batchEnd){
+				long address = start + offsets[read];
+				
+				// Candidates are sorted, so the page only moves forward
+				while(page + 1 < first + count && pages[page + 1] <= address){
+					page++;
+				}
+				
+				int current = decode(batch, (page - first) * PAGE_SIZE + (int) (address - pages[page]));
+				if(matches(condition, values[read], current, value)){
+					offsets[kept] = offsets[read];
+					values[kept] = current;
+					kept++;
+				}
+				read++;
+			}
+		}
+		
+		candidates = kept;
+	}
+	
+	/**
+	 * Drops empty pages and moves to list mode once the list is a lot smaller than the pages
+	 * */
+	private void compact() {
+		if(offsets != null){
+			if(offsets.length > candidates * 2){
+				offsets = Arrays.copyOf(offsets, candidates);
+				values = Arrays.copyOf(values, candidates);
+			}
+			return;
+		}
+		
+		int count = 0;
+		for(int i = 0; i < pageAddresses.length; i++){
+			if(pageBits[i] != null){
+				pageAddresses[count] = pageAddresses[i];
+				pageData[count] = pageData[i];
+				pageBits[count] = pageBits[i];
+				count++;
+			}
+		}
+		pageAddresses = Arrays.copyOf(pageAddresses, count);
+		pageData = Arrays.copyOf(pageData, count);
+		pageBits = Arrays.copyOf(pageBits, count);
+		
+		// 8 bytes per candidate against a page and its bits
+		if((long) candidates * 8 * 4 > (long) count * PAGE_SIZE){
+			return;
+		}
+		
+		offsets = new int[candidates];
+		values = new int[candidates];
+		int index = 0;
+		
+		for(int page = 0; page < count; page++){
+			long[] bits = pageBits[page];
+			int pageOffset = (int) (pageAddresses[page] - start);
+			for(int slot = nextSlot(bits, 0); slot >= 0; slot = nextSlot(bits, slot + 1)){
+				offsets[index] = pageOffset + slot * type.size;
+				values[index] = decode(pageData[page], slot * type.size);
+				index++;
+			}
+		}
+		
+		pageAddresses = null;
+		pageData = null;
+		pageBits = null;
+	}
+	
+	/**
+	 * Gets the pages the candidates in the list are on
+	 * */
+	private long[] toPages() {
+		long[] pages = new long[candidates];
+		int count = 0;
+		long last = -1;
+		
+		for(int i = 0; i < candidates; i++){
+			long page = (start + offsets[i]) & ~(long) (PAGE_SIZE - 1);
+			if(page != last){
+				pages[count++] = page;
+				last = page;
+			}
+		}
+		return Arrays.copyOf(pages, count);
+	}
+	
+	private void readPages(long[] addresses, int first, int count, byte[] data) throws IOException, WiiUException {
+		if(pool != null){
+			pool.readBlocks(addresses, first, count, PAGE_SIZE, data, 0);
+		}else{
+			gecko.readBlocks(addresses, first, count, PAGE_SIZE, data, 0);
+		}
+		transferredBytes += (long) count * PAGE_SIZE;
+	}
+	
+	/**
+	 * Gets a value as raw bits, bytes and shorts are unsigned
+	 * */
+	private int decode(byte[] data, int offset) {
+		switch(type){
+			case BYTE:
+				return data[offset] & 0xFF;
+			case SHORT:
+				return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+			default:
+				return ((data[offset] & 0xFF) << 24) |
+					((data[offset + 1] & 0xFF) << 16) |
+					((data[offset + 2] & 0xFF) << 8) |
+					(data[offset + 3] & 0xFF);
+		}
+	}
+	
+	private boolean matches(ScanCondition condition, int previous, int current, double value) {
+		switch(condition){
+			case CHANGED:
+				return previous != current;
+			case UNCHANGED:
+				return previous == current;
+			default:
+				break;
+		}
+		
+		double now = type.isFloat ? Float.intBitsToFloat(current) : current;
+		double compare;
+		if(condition.isRelative){
+			compare = type.isFloat ? Float.intBitsToFloat(previous) : previous;
+		}else{
+			compare = type.isFloat ? (float) value : value;
+		}
+		
+		switch(condition){
+			case INCREASED:
+			case GREATER:
+				return now > compare;
+			case DECREASED:
+			case LESS:
+				return now < compare;
+			case EQUAL:
+				return now == compare;
+			case NOT_EQUAL:
+				return now != compare;
+			default:
+				return false;
+		}
+	}
+	
+	private static int nextSlot(long[] bits, int from) {
+		int word = from >>> 6;
+		if(word >= bits.length){
+			return -1;
+		}
+		
+		long current = bits[word] & (-1L << from);
+		while(true){
+			if(current != 0){
+				return (word << 6) + Long.numberOfTrailingZeros(current);
+			}
+			if(++word == bits.length){
+				return -1;
+			}
+			current = bits[word];
+		}
+	}
+}
@@ -0,0 +1,186 @@
+package com.wiiudev.tcpgecko.scan;
+
+import java.nio.ByteBuffer;
+
+import com.wiiudev.tcpgecko.io.BigEndian;
+
+/**
+ * A byte pattern with wildcards, like "38 60 ?? ?? 4E 80 00 20"<br>
+ * A signature can be limited to aligned addresses, so a 16 bit value only matches at even addresses
+ * 
+ * @author gudenau
+ * */
+public class Signature {
+	private final byte[] bytes;
+	private final byte[] mask;
+	private final int alignment;
+	private final int anchor;
+	
+	/**
+	 * Creates a signature
+	 * 
+	 * @param bytes The bytes to match
+	 * @param mask 0xFF for every byte that has to match, 0x00 for a wildcard. Other values match only some of the bits
+	 * @param alignment Addresses of matches have to be divisable by this
+	 * */
+	public Signature(byte[] bytes, byte[] mask, int alignment) {
+		if(bytes.length == 0 || bytes.length != mask.length){
+			throw new IllegalArgumentException("Signature must not be empty and the mask must be as long as the bytes!");
+		}
+		if(alignment <= 0){
+			throw new IllegalArgumentException("Alignment must be greater than 0!");
+		}
+		
+		this.bytes = new byte[bytes.length];
+		this.mask = mask.clone();
+		this.alignment = alignment;
+		
+		int anchor = -1;
+		for(int i = 0; i < bytes.length; i++){
+			this.bytes[i] = (byte) (bytes[i] & mask[i]);
+			
+			// The anchor has to be a full byte, prefer one that is not 0x00 or 0xFF since memory is full of those
+			if(mask[i] == (byte) 0xFF && (anchor == -1 || (isCommon(this.bytes[anchor]) && !isCommon(this.bytes[i])))){
+				anchor = i;
+			}
+		}
+		
+		if(anchor == -1){
+			throw new IllegalArgumentException("Signature needs at least one byte without a wildcard!");
+		}
+		this.anchor = anchor;
+	}
+	
+	/**
+	 * Parses a signature, bytes are in hex and separated by spaces. "?" or "??" is a wildcard
+	 * 
+	 * @param signature The signature to parse
+	 * 
+	 * @return The signature
+	 * 
+	 * @throws IllegalArgumentException If the signature is malformed
+	 * */
+	public static Signature parse(String signature) {
+		String[] parts = signature.trim().split("\\s+");
+		byte[] bytes = new byte[parts.length];
+		byte[] mask = new byte[parts.length];
+		
+		for(int i = 0; i < parts.length; i++){
+			String part = parts[i];
+			if(part.equals("?") || part.equals("??")){
+				continue;
+			}
+			if(part.length() > 2){
+				throw new IllegalArgumentException("Malformed signature byte: " + part);
+			}
+			
+			try{
+				bytes[i] = (byte) Integer.parseInt(part, 16);
+			}catch(NumberFormatException e){
+				throw new IllegalArgumentException("Malformed signature byte: " + part);
+			}
+			mask[i] = (byte) 0xFF;
+		}
+		
+		return new Signature(bytes, mask, 1);
+	}
+	
+	/**
+	 * Creates a signature that matches a short, only at even addresses
+	 * 
+	 * @param value The value
+	 * 
+	 * @return The signature
+	 * */
+	public static Signature ofShort(short value) {
+		byte[] bytes = new byte[2];
+		BigEndian.putShort(bytes, 0, value);
+		return new Signature(bytes, new byte[]{(byte) 0xFF, (byte) 0xFF}, 2);
+	}
+	
+	/**
+	 * Creates a signature that matches an integer, only at addresses divisable by 4
+	 * 
+	 * @param value The value
+	 * 
+	 * @return The signature
+	 * */
+	public static Signature ofInteger(int value) {
+		byte[] bytes = new byte[4];
+		BigEndian.putInteger(bytes, 0, value);
+		return new Signature(bytes, new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF}, 4);
+	}
+	
+	/**
+	 * Checks if the signature matches at an index
+	 * 
+	 * @param data The data to check, big endian
+	 * @param index Index of the first byte, the whole signature has to fit
+	 * 
+	 * @return True if it matches
+	 * */
+	boolean matches(ByteBuffer data, int index) {
+		for(int i = 0; i < bytes.length; i++){
+			if((data.get(index + i) & mask[i]) != bytes[i]){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Gets the size of the signature
+	 * 
+	 * @return The size
+	 * */
+	public int getLength() {
+		return bytes.length;
+	}
+	
+	/**
+	 * Gets the alignment of matches
+	 * 
+	 * @return The alignment
+	 * */
+	public int getAlignment() {
+		return alignment;
+	}
+	
+	/**
+	 * Gets the offset of the byte the scanner looks for first
+	 * 
+	 * @return The offset
+	 * */
+	int getAnchor() {
+		return anchor;
+	}
+	
+	/**
+	 * Gets the value of the byte the scanner looks for first
+	 * 
+	 * @return The value
+	 * */
+	byte getAnchorByte() {
+		return bytes[anchor];
+	}
+	
+	private static boolean isCommon(byte value) {
+		return value == 0 || value == (byte) 0xFF;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for(int i = 0; i < bytes.length; i++){
+			if(i != 0){
+				builder.append(' ');
+			}
+			if(mask[i] == 0){
+				builder.append("??");
+			}else{
+				builder.append(String.format("%02X", bytes[i]));
+			}
+		}
+		return builder.toString();
+	}
+}
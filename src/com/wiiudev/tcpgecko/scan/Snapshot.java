@@ -0,0 +1,184 @@
+package com.wiiudev.tcpgecko.scan;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import com.wiiudev.tcpgecko.TcpGecko;
+import com.wiiudev.tcpgecko.WiiUException;
+
+/**
+ * A local copy of a block of the Wii U's memory, used to scan without talking to the Wii U<br>
+ * The data is either read into the heap or mapped from a dump made by {@link com.wiiudev.tcpgecko.memory.MemoryDumper MemoryDumper}<br>
+ * <br>
+ * A snapshot is never changed, so it can be scanned from many threads at once
+ * 
+ * @author gudenau
+ * */
+public class Snapshot {
+	private final long address;
+	private final ByteBuffer data;
+	
+	/**
+	 * Wraps existing data
+	 * 
+	 * @param address Address the data was read from
+	 * @param data The data, from its position to its limit
+	 * */
+	public Snapshot(long address, ByteBuffer data) {
+		if(address < 0){
+			throw new IllegalArgumentException("Address must be positive!");
+		}
+		
+		this.address = address;
+		this.data = data.slice().order(ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Reads a snapshot into the heap
+	 * 
+	 * @param gecko The connection to use
+	 * @param address Address to start at
+	 * @param length Amount of memory to read
+	 * 
+	 * @return The snapshot
+	 * 
+	 * @throws IOException If an exception occurs while talking to the Wii U
+	 * @throws WiiUException If something bad happens while communicating with the Wii U
+	 * @throws IllegalArgumentException If length or address is invalid
+	 * */
+	public static Snapshot read(TcpGecko gecko, long address, int length) throws IOException, WiiUException {
+		if(length <= 0){
+			throw new IllegalArgumentException("Length must be greater than 0!");
+		}
+		
+		byte[] data = new byte[length];
+		gecko.readMemory(address, data, 0, length);
+		return new Snapshot(address, ByteBuffer.wrap(data));
+	}
+	
+	/**
+	 * Maps a memory dump, nothing is read into the heap
+	 * 
+	 * @param file The dump
+	 * @param address Address the dump was taken at
+	 * 
+	 * @return The snapshot
+	 * 
+	 * @throws IOException If the file could not be mapped
+	 * @throws IllegalArgumentException If the dump has an invalid size
+	 * */
+	public static Snapshot map(File file, long address) throws IOException {
+		try(RandomAccessFile input = new RandomAccessFile(file, "r")){
+			long length = input.length();
+			if(length <= 0 || length > Integer.MAX_VALUE){
+				throw new IllegalArgumentException("Dump has an invalid size!");
+			}
+			
+			// The mapping stays valid after the file is closed
+			FileChannel channel = input.getChannel();
+			return new Snapshot(address, channel.map(MapMode.READ_ONLY, 0, length));
+		}
+	}
+	
+	/**
+	 * Gets the address of the start of the snapshot
+	 * 
+	 * @return The address
+	 * */
+	public long getAddress() {
+		return address;
+	}
+	
+	/**
+	 * Gets the size of the snapshot
+	 * 
+	 * @return The size
+	 * */
+	public int getLength() {
+		return data.limit();
+	}
+	
+	/**
+	 * Checks if an address range is inside of the snapshot
+	 * 
+	 * @param address Start of the range
+	 * @param length Length of the range
+	 * 
+	 * @return True if the whole range is in the snapshot
+	 * */
+	public boolean contains(long address, int length) {
+		return address >= this.address && address + length <= this.address + data.limit();
+	}
+	
+	/**
+	 * Gets a byte from the snapshot
+	 * 
+	 * @param address Address of the byte
+	 * 
+	 * @return The byte
+	 * */
+	public byte getByte(long address) {
+		return data.get(toIndex(address, 1));
+	}
+	
+	/**
+	 * Gets a short from the snapshot
+	 * 
+	 * @param address Address of the short
+	 * 
+	 * @return The short
+	 * */
+	public short getShort(long address) {
+		return data.getShort(toIndex(address, 2));
+	}
+	
+	/**
+	 * Gets an integer from the snapshot
+	 * 
+	 * @param address Address of the integer
+	 * 
+	 * @return The integer
+	 * */
+	public int getInteger(long address) {
+		return data.getInt(toIndex(address, 4));
+	}
+	
+	/**
+	 * Gets a float from the snapshot
+	 * 
+	 * @param address Address of the float
+	 * 
+	 * @return The float
+	 * */
+	public float getFloat(long address) {
+		return data.getFloat(toIndex(address, 4));
+	}
+	
+	/**
+	 * Gets a read only view of the data, index 0 is the start of the snapshot
+	 * 
+	 * @return The data
+	 * */
+	public ByteBuffer getBuffer() {
+		return data.asReadOnlyBuffer().order(ByteOrder.BIG_ENDIAN);
+	}
+	
+	/**
+	 * Gets the data without making a view, only used by the scanners
+	 * */
+	ByteBuffer data() {
+		return data;
+	}
+	
+	private int toIndex(long address, int length) {
+		if(!contains(address, length)){
+			throw new IllegalArgumentException("Address is not inside of the snapshot!");
+		}
+		return (int) (address - this.address);
+	}
+}
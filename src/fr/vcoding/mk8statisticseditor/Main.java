@@ -2,15 +2,20 @@ package fr.vcoding.mk8statisticseditor;
 
 
 
+import com.wiiudev.tcpgecko.AsyncTcpGecko;
 import com.wiiudev.tcpgecko.TcpGecko;
 import com.wiiudev.tcpgecko.WiiUException;
+import com.wiiudev.tcpgecko.WriteBatch;
+import com.wiiudev.tcpgecko.memory.PageCache;
 import java.awt.Color;
 import java.awt.event.KeyEvent;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 /**
  *
@@ -25,7 +30,10 @@ public class Main extends javax.swing.JFrame {
         initComponents();
     }
     
-    public TcpGecko gecko;
+    public AsyncTcpGecko gecko;
+    private PageCache statsCache;
+    private volatile long statsBase = Statistics.BASE;
+    private StatisticsLocator locator;
     public boolean connected;
 
     /**
@@ -240,7 +248,8 @@ public class Main extends javax.swing.JFrame {
         //Connection
         if(!"".equals(jTextField1.getText())) {
             try {
-                gecko = new TcpGecko(jTextField1.getText());
+                gecko = new AsyncTcpGecko(jTextField1.getText());
+                locateStatistics();
                 jButton1.setEnabled(false);
                 jButton2.setEnabled(true);
                 jTextField1.setEnabled(false);
@@ -298,240 +307,41 @@ public class Main extends javax.swing.JFrame {
             jSpinner1.setEnabled(true);
         }
         
-        if(index == 1) {
-            try {
-                int x = gecko.peekInteger(0x2F748128);
-                jSpinner1.setValue(x);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            } catch (WiiUException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 2) {
-            try {
-                int x = gecko.peekInteger(0x2F748658);
-                jSpinner1.setValue(x);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            } catch (WiiUException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 3) {
-            try {
-                int x = gecko.peekInteger(0x2F74865C);
-                jSpinner1.setValue(x);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            } catch (WiiUException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 4) {
-            try {
-                int x = gecko.peekInteger(0x2F748660);
-                jSpinner1.setValue(x);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            } catch (WiiUException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 5) {
-            try {
-                int x = gecko.peekInteger(0x2F748664);
-                jSpinner1.setValue(x);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            } catch (WiiUException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 6) {
-            try {
-                int x = gecko.peekInteger(0x2F748134);
-                jSpinner1.setValue(x);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            } catch (WiiUException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 7) {
-            try {
-                int x = gecko.peekInteger(0x2F74813C);
-                jSpinner1.setValue(x);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            } catch (WiiUException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 8) {
-            try {
-                int x = gecko.peekInteger(0x2F748140);
-                jSpinner1.setValue(x);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            } catch (WiiUException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 9) {
-            try {
-                int x = gecko.peekInteger(0x2F748130);
-                jSpinner1.setValue(x);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            } catch (WiiUException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 10) {
-            try {
-                int x = gecko.peekInteger(0x2F748144);
-                jSpinner1.setValue(x);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            } catch (WiiUException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 11) {
-            try {
-                int x = gecko.peekInteger(0x2F748148);
-                jSpinner1.setValue(x);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            } catch (WiiUException ex) {
+        // The whole block is read at once through the cache, switching between fields does not hit the console again
+        gecko.submit(connection -> Statistics.LAYOUT.read(getStatsCache(connection), statsBase)).whenComplete((stats, ex) -> SwingUtilities.invokeLater(() -> {
+            if (ex != null) {
                 Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
+            } else if (jComboBox1.getSelectedIndex() == index) {
+                jSpinner1.setValue(Statistics.FIELDS[index].get(stats));
             }
-        }
-        
+        }));
     }//GEN-LAST:event_jComboBox1ActionPerformed
 
     private void jButton3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton3ActionPerformed
         int dialogResult = JOptionPane.showConfirmDialog (rootPane, "Do you really want to reset your states to zero?", "MK8 Statistics Modifier", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
         if(dialogResult == JOptionPane.YES_OPTION){
-            try {
-                gecko.pokeMemory(0x2F748128, 0);
-                gecko.pokeMemory(0x2F748658, 0);
-                gecko.pokeMemory(0x2F74865C, 0);
-                gecko.pokeMemory(0x2F748660, 0);
-                gecko.pokeMemory(0x2F748664, 0);
-                gecko.pokeMemory(0x2F748134, 0);
-                gecko.pokeMemory(0x2F74813C, 0);
-                gecko.pokeMemory(0x2F748140, 0);
-                gecko.pokeMemory(0x2F748130, 0);
-                gecko.pokeMemory(0x2F748144, 0);
-                gecko.pokeMemory(0x2F748148, 0);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
+            logFailure(gecko.submit(connection -> setAll(connection, 0)));
         }
     }//GEN-LAST:event_jButton3ActionPerformed
 
     private void jButton4ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton4ActionPerformed
         int dialogResult = JOptionPane.showConfirmDialog (rootPane, "Do you really want to hack your stats? I wouldn't be responsible if I banned it.", "MK8 Statistics Modifier", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
         if(dialogResult == JOptionPane.YES_OPTION){
-            try {
-                gecko.pokeMemory(0x2F748128, 999999);
-                gecko.pokeMemory(0x2F748658, 999999);
-                gecko.pokeMemory(0x2F74865C, 999999);
-                gecko.pokeMemory(0x2F748660, 999999);
-                gecko.pokeMemory(0x2F748664, 999999);
-                gecko.pokeMemory(0x2F748134, 999999);
-                gecko.pokeMemory(0x2F74813C, 999999);
-                gecko.pokeMemory(0x2F748140, 999999);
-                gecko.pokeMemory(0x2F748130, 999999);
-                gecko.pokeMemory(0x2F748144, 999999);
-                gecko.pokeMemory(0x2F748148, 999999);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
+            logFailure(gecko.submit(connection -> setAll(connection, 999999)));
         }
     }//GEN-LAST:event_jButton4ActionPerformed
 
     private void jButton5ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton5ActionPerformed
         int index = jComboBox1.getSelectedIndex();
         int value = (int) jSpinner1.getValue();
-        if(index == 1) {
-            try {
-                gecko.pokeMemory(0x2F748128, value);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 2) {
-            try {
-                gecko.pokeMemory(0x2F748658, value);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 3) {
-            try {
-                gecko.pokeMemory(0x2F74865C, value);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 4) {
-            try {
-                gecko.pokeMemory(0x2F748660, value);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 5) {
-            try {
-                gecko.pokeMemory(0x2F748664, value);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 6) {
-            try {
-                gecko.pokeMemory(0x2F748134, value);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 7) {
-            try {
-                gecko.pokeMemory(0x2F74813C, value);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 8) {
-            try {
-                gecko.pokeMemory(0x2F748140, value);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 9) {
-            try {
-                gecko.pokeMemory(0x2F748130, value);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 10) {
-            try {
-                gecko.pokeMemory(0x2F748144, value);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        if(index == 11) {
-            try {
-                gecko.pokeMemory(0x2F748148, value);
-            } catch (IOException ex) {
-                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
-            }
+        if(index != 0) {
+            logFailure(gecko.submit(connection -> {
+                connection.pokeMemory(statsBase + Statistics.FIELDS[index].getOffset(), value);
+                if (locator != null) {
+                    locator.recordWrite(Statistics.FIELDS[index], value);
+                }
+                return null;
+            }));
         }
     }//GEN-LAST:event_jButton5ActionPerformed
 
@@ -542,6 +352,52 @@ public class Main extends javax.swing.JFrame {
         }
     }//GEN-LAST:event_jButton6ActionPerformed
 
+    private void locateStatistics() {
+        // Queued first, so every other request already sees the located block
+        logFailure(gecko.submit(connection -> {
+            locator = new StatisticsLocator(StatisticsLocator.DEFAULT_FILE);
+            long base = locator.locate(connection);
+            if (base < 0) {
+                Logger.getLogger(Main.class.getName()).log(Level.WARNING, "Statistics not found, using the default address");
+                base = Statistics.BASE;
+            } else if (base != Statistics.BASE) {
+                Logger.getLogger(Main.class.getName()).log(Level.INFO, String.format("Statistics moved to 0x%08X", base));
+            }
+            statsBase = base;
+            return null;
+        }));
+    }
+
+    private PageCache getStatsCache(TcpGecko connection) {
+        // Only used on the I/O thread, our own writes drop the cached pages
+        if (statsCache == null || statsCache.getGecko() != connection) {
+            statsCache = new PageCache(connection, 4, 2000);
+        }
+        return statsCache;
+    }
+
+    private Void setAll(TcpGecko connection, int value) throws IOException, WiiUException {
+        // The fields sit next to each other, the batch turns the eleven pokes into four writes
+        try (WriteBatch batch = connection.batch()) {
+            for (int i = 1; i < Statistics.FIELDS.length; i++) {
+                batch.pokeMemory(statsBase + Statistics.FIELDS[i].getOffset(), value);
+            }
+        }
+        // Only used on the I/O thread, so the next connection expects what we wrote
+        if (locator != null) {
+            locator.recordWriteAll(value);
+        }
+        return null;
+    }
+
+    private void logFailure(CompletableFuture<?> future) {
+        future.whenComplete((x, ex) -> {
+            if (ex != null) {
+                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        });
+    }
+
     private void jComboBox2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jComboBox2ActionPerformed
         int index = jComboBox2.getSelectedIndex();
         if(index == 0) {
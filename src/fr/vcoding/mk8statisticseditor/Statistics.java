@@ -0,0 +1,49 @@
+package fr.vcoding.mk8statisticseditor;
+
+import com.wiiudev.tcpgecko.memory.StructLayout;
+import com.wiiudev.tcpgecko.memory.StructLayout.IntField;
+
+/**
+ * Layout of the statistics block of MK8
+ *
+ * @author vcoding
+ */
+public class Statistics {
+
+    public static final long BASE = 0x2F748128L;
+
+    public static final StructLayout LAYOUT = new StructLayout();
+
+    public static final IntField TOTAL_COINS = LAYOUT.addInt(0x000);
+    public static final IntField TOTAL_WINS = LAYOUT.addInt(0x530);
+    public static final IntField TOTAL_LOSSES = LAYOUT.addInt(0x534);
+    public static final IntField RACE_RATING = LAYOUT.addInt(0x538);
+    public static final IntField BATTLE_RATING = LAYOUT.addInt(0x53C);
+    public static final IntField TOTAL_DRIFTS = LAYOUT.addInt(0x00C);
+    public static final IntField TOTAL_MINI_TURBOS = LAYOUT.addInt(0x014);
+    public static final IntField TOTAL_SUPER_MINI_TURBOS = LAYOUT.addInt(0x018);
+    public static final IntField TOTAL_JUMP_BOOSTS = LAYOUT.addInt(0x008);
+    public static final IntField BALLOONS_POPPED = LAYOUT.addInt(0x01C);
+    public static final IntField OWN_BALLOONS_POPPED = LAYOUT.addInt(0x020);
+
+    /**
+     * The fields in the order of the statistics combo box, index 0 is the placeholder entry
+     */
+    public static final IntField[] FIELDS = {
+        null,
+        TOTAL_COINS,
+        TOTAL_WINS,
+        TOTAL_LOSSES,
+        RACE_RATING,
+        BATTLE_RATING,
+        TOTAL_DRIFTS,
+        TOTAL_MINI_TURBOS,
+        TOTAL_SUPER_MINI_TURBOS,
+        TOTAL_JUMP_BOOSTS,
+        BALLOONS_POPPED,
+        OWN_BALLOONS_POPPED
+    };
+
+    private Statistics() {
+    }
+}
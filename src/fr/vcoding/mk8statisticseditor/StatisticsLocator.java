@@ -0,0 +1,349 @@
+package fr.vcoding.mk8statisticseditor;
+
+import com.wiiudev.tcpgecko.TcpGecko;
+import com.wiiudev.tcpgecko.WiiUException;
+import com.wiiudev.tcpgecko.memory.Struct;
+import com.wiiudev.tcpgecko.memory.StructLayout.IntField;
+import com.wiiudev.tcpgecko.scan.PointerIndex;
+import com.wiiudev.tcpgecko.scan.PointerPath;
+import com.wiiudev.tcpgecko.scan.PointerResolver;
+import com.wiiudev.tcpgecko.scan.PointerScanner;
+import com.wiiudev.tcpgecko.scan.Snapshot;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Finds the statistics block after a game update moved it
+ * <br>
+ * The block is anchored by a pointer path from the static data of the game,
+ * that path is remembered per title ID. The first time the block is found at
+ * a known address the path is discovered with a bounded pointer scan, after
+ * that the path is simply followed. The last address is remembered per title
+ * ID and OS version as well, for when the path does not resolve yet.
+ * <br>
+ * The values of the block only verify a candidate. Counters only go up while
+ * playing, and the editor reports its own writes with {@link #recordWrite},
+ * so a block with counters below the remembered ones is not the right one.
+ *
+ * @author vcoding
+ */
+public class StatisticsLocator {
+
+    public static final File DEFAULT_FILE = new File(System.getProperty("user.home"), ".mk8statistics.properties");
+
+    /**
+     * The data of the game is loaded at the start of MEM2, pointers stored there survive a restart
+     */
+    private static final long STATIC_START = 0x10000000L;
+    private static final long STATIC_END = 0x11000000L;
+
+    /**
+     * How much memory around the block is indexed to find the objects that point to it
+     */
+    private static final long WINDOW_SIZE = 0x01000000L;
+
+    private static final int MAX_DEPTH = 2;
+    private static final int MAX_OFFSET = 0x10000;
+    private static final int MAX_PATHS = 0x1000;
+
+    private static final int MAX_VALUE = 9999999;
+    /**
+     * Every save starts with a rating of 1000 and the game never lets it drop to 0
+     */
+    private static final int MIN_RATING = 1;
+    private static final int MAX_MISMATCHES = 2;
+
+    private final File file;
+    private final Properties properties = new Properties();
+    private String title;
+
+    public StatisticsLocator(File file) throws IOException {
+        this.file = file;
+
+        if (file.isFile()) {
+            try (InputStream stream = new FileInputStream(file)) {
+                properties.load(stream);
+            } catch (IllegalArgumentException ex) {
+                // A broken file is as good as no file
+                properties.clear();
+            }
+        }
+    }
+
+    /**
+     * Finds the statistics block
+     *
+     * @param gecko the connection to use
+     * @return the address of the block, or -1 if it could not be found
+     * @throws IOException if there was an error talking to the Wii U
+     * @throws WiiUException if something bad happens while communicating with the Wii U
+     */
+    public long locate(TcpGecko gecko) throws IOException, WiiUException {
+        title = String.format("%016X", gecko.getCoreInit().getTitleId());
+        String key = title + "." + gecko.getOsVersion() + ".base";
+        String pathKey = title + ".path";
+        int[] remembered = parseValues(properties.getProperty(title + ".values"));
+
+        // The anchor first
+        PointerPath path = parsePath(properties.getProperty(pathKey));
+        if (path != null) {
+            long base = resolve(gecko, path);
+            if (base >= 0 && isConsistent(Statistics.LAYOUT.read(gecko, base), remembered)) {
+                remember(key, Statistics.LAYOUT.read(gecko, base));
+                return base;
+            }
+        }
+
+        // Then the remembered address and the one the editor was written for
+        List<Long> known = new ArrayList<>();
+        String cached = properties.getProperty(key);
+        if (cached != null) {
+            try {
+                known.add(Long.decode(cached));
+            } catch (NumberFormatException ex) {
+                // Fall through to the default
+            }
+        }
+        known.add(Statistics.BASE);
+
+        for (long base : known) {
+            if (!gecko.validateMemoryRange(base, Statistics.LAYOUT.getSize())) {
+                continue;
+            }
+
+            Struct stats = Statistics.LAYOUT.read(gecko, base);
+            if (isConsistent(stats, remembered)) {
+                PointerPath found = discover(gecko, base);
+                if (found != null) {
+                    properties.setProperty(pathKey, found.toString());
+                }
+                remember(key, stats);
+                return base;
+            }
+        }
+
+        // Last try, the anchors of other versions of the game
+        for (String name : properties.stringPropertyNames()) {
+            if (!name.endsWith(".path") || name.equals(pathKey)) {
+                continue;
+            }
+
+            PointerPath other = parsePath(properties.getProperty(name));
+            long base = other == null ? -1 : resolve(gecko, other);
+            if (base >= 0 && isConsistent(Statistics.LAYOUT.read(gecko, base), remembered)) {
+                properties.setProperty(pathKey, other.toString());
+                remember(key, Statistics.LAYOUT.read(gecko, base));
+                return base;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Remembers a value the editor wrote, so the next verification expects it
+     *
+     * @param field the field that was written
+     * @param value the new value
+     * @throws IOException if the file could not be written
+     */
+    public void recordWrite(IntField field, int value) throws IOException {
+        record(field, value);
+    }
+
+    /**
+     * Remembers that the editor set every field to the same value
+     *
+     * @param value the new value
+     * @throws IOException if the file could not be written
+     */
+    public void recordWriteAll(int value) throws IOException {
+        record(null, value);
+    }
+
+    private void record(IntField field, int value) throws IOException {
+        if (title == null) {
+            return;
+        }
+
+        int[] values = parseValues(properties.getProperty(title + ".values"));
+        if (values == null) {
+            return;
+        }
+
+        for (int i = 1; i < Statistics.FIELDS.length; i++) {
+            if (field == null || Statistics.FIELDS[i] == field) {
+                values[i] = value;
+            }
+        }
+        properties.setProperty(title + ".values", formatValues(values));
+        save();
+    }
+
+    private long resolve(TcpGecko gecko, PointerPath path) throws IOException, WiiUException {
+        try (PointerResolver resolver = new PointerResolver(gecko, 0)) {
+            long base = resolver.resolve(path);
+            return base >= 0 && gecko.validateMemoryRange(base, Statistics.LAYOUT.getSize()) ? base : -1;
+        }
+    }
+
+    /**
+     * Looks for a short pointer path from the data of the game to the block,
+     * only the data and the memory around the block are read
+     */
+    private PointerPath discover(TcpGecko gecko, long base) throws IOException, WiiUException {
+        long windowStart = base & ~(WINDOW_SIZE - 1);
+        long windowEnd = windowStart + WINDOW_SIZE;
+
+        List<long[]> ranges = new ArrayList<>();
+        if (windowStart <= STATIC_END && windowEnd >= STATIC_START) {
+            ranges.add(new long[]{Math.min(windowStart, STATIC_START), Math.max(windowEnd, STATIC_END)});
+        } else {
+            ranges.add(new long[]{STATIC_START, STATIC_END});
+            ranges.add(new long[]{windowStart, windowEnd});
+        }
+
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (long[] range : ranges) {
+            int length = (int) (range[1] - range[0]);
+            if (gecko.validateMemoryRange(range[0], length)) {
+                snapshots.add(Snapshot.read(gecko, range[0], length));
+            }
+        }
+        if (snapshots.isEmpty()) {
+            return null;
+        }
+
+        PointerIndex index = PointerIndex.build(snapshots);
+        if (!index.contains(base)) {
+            return null;
+        }
+
+        PointerScanner scanner = new PointerScanner(index);
+        scanner.addStaticRegion(STATIC_START, STATIC_END);
+        scanner.setMaxDepth(MAX_DEPTH);
+        scanner.setMaxOffset(MAX_OFFSET);
+        scanner.setMaxResults(MAX_PATHS);
+
+        // All of the candidates at once, a round trip per level instead of per path
+        List<PointerPath> paths = scanner.scan(base).getPaths();
+        long[] addresses;
+        try (PointerResolver resolver = new PointerResolver(gecko, 0)) {
+            addresses = resolver.resolve(paths);
+        }
+
+        // Shortest first, the first one that really leads to the block wins
+        for (int i = 0; i < addresses.length; i++) {
+            if (addresses[i] == base) {
+                return paths.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks a candidate against what is known about the block, the ratings go
+     * both ways while playing so only the counters are compared
+     * <br>
+     * Without remembered values the block has to look like a real save, so
+     * memory that is simply cleared is not taken for it
+     */
+    private static boolean isConsistent(Struct stats, int[] remembered) {
+        int mismatches = 0;
+        boolean played = false;
+        for (int i = 1; i < Statistics.FIELDS.length; i++) {
+            IntField field = Statistics.FIELDS[i];
+            boolean rating = field == Statistics.RACE_RATING || field == Statistics.BATTLE_RATING;
+            int value = field.get(stats);
+            if (value > MAX_VALUE) {
+                return false;
+            }
+
+            if (remembered == null) {
+                // Nothing the game writes is negative
+                if (value < 0 || (rating && value < MIN_RATING)) {
+                    return false;
+                }
+                if (!rating && value != 0) {
+                    played = true;
+                }
+            } else if (!rating && value < remembered[i]) {
+                mismatches++;
+            }
+        }
+        return remembered == null ? played : mismatches <= MAX_MISMATCHES;
+    }
+
+    private static PointerPath parsePath(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        try {
+            return PointerPath.parse(text);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static int[] parseValues(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        String[] parts = text.split(",");
+        if (parts.length != Statistics.FIELDS.length - 1) {
+            return null;
+        }
+
+        int[] values = new int[Statistics.FIELDS.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                values[i + 1] = Integer.parseInt(parts[i].trim());
+            }
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+        return values;
+    }
+
+    private static String formatValues(int[] values) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 1; i < values.length; i++) {
+            if (i != 1) {
+                builder.append(',');
+            }
+            builder.append(values[i]);
+        }
+        return builder.toString();
+    }
+
+    private void remember(String key, Struct stats) throws IOException {
+        int[] values = new int[Statistics.FIELDS.length];
+        for (int i = 1; i < Statistics.FIELDS.length; i++) {
+            values[i] = Statistics.FIELDS[i].get(stats);
+        }
+
+        properties.setProperty(key, String.format("0x%08X", stats.getAddress()));
+        properties.setProperty(title + ".values", formatValues(values));
+        save();
+    }
+
+    private void save() throws IOException {
+        // Written next to the old file and moved over it, so a crash can't leave half a file
+        File directory = file.getAbsoluteFile().getParentFile();
+        File temp = new File(directory, file.getName() + ".tmp");
+        try (OutputStream stream = new FileOutputStream(temp)) {
+            properties.store(stream, "MK8 statistics locations");
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}